@@ -0,0 +1,13 @@
+package mb.resource;
+
+import java.io.IOException;
+
+/**
+ * Consumer of the lines of a resource, passed to {@link ReadableResource#forEachLine(java.nio.charset.Charset,
+ * LineConsumer)}. Lines are passed as {@link CharSequence}s without line terminators, which may be views of a buffer
+ * that is reused for the next line: call {@link CharSequence#toString()} to keep a line after returning.
+ */
+@FunctionalInterface
+public interface LineConsumer {
+    void accept(CharSequence line) throws IOException;
+}
@@ -1,13 +1,29 @@
 package mb.resource;
 
+import mb.resource.hash.ContentHash;
+import mb.resource.hash.HashFunction;
+import mb.resource.hash.Hasher;
+import mb.resource.util.AsyncUtil;
+import mb.resource.util.ContentUtil;
+import mb.resource.util.DecodeUtil;
+import mb.resource.util.LineReader;
+import mb.resource.util.PooledBufferedInputStream;
+import mb.resource.util.SkippingSeekableByteChannel;
+
 import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * A readable resource.
@@ -67,32 +83,114 @@ public interface ReadableResource extends Resource, AutoCloseable {
      * @throws IOException           An I/O exception occurred.
      */
     default BufferedInputStream openReadBuffered() throws IOException {
-        return new BufferedInputStream(openRead());
+        return new PooledBufferedInputStream(openRead());
+    }
+
+    /**
+     * Opens the resource for reading as a channel.
+     *
+     * Close the channel when you are done with it.
+     *
+     * @return The channel to read from.
+     * @throws FileNotFoundException The resource does not exist.
+     * @throws IOException           An I/O exception occurred.
+     */
+    default ReadableByteChannel openReadChannel() throws IOException {
+        return Channels.newChannel(openRead());
+    }
+
+    /**
+     * Reads the content of the resource as a read-only byte buffer. Implementations may return a buffer that is a view
+     * of the content, such as a memory-mapped file, instead of a copy on the heap.
+     *
+     * @return A read-only buffer with the read bytes, positioned at the start of the content.
+     * @throws IOException An I/O exception occurred.
+     */
+    default ByteBuffer readByteBuffer() throws IOException {
+        return ByteBuffer.wrap(readBytes()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Opens the resource for random access reading as a seekable channel. Seek with {@link
+     * SeekableByteChannel#position(long)} to read parts of the content without reading the content before it.
+     *
+     * By default, a channel is returned that skips to the position in an {@link #openRead() input stream}, reopening
+     * the resource when seeking backward. Seeking forward is therefore proportional to the skipped bytes, unless the
+     * input stream supports skipping efficiently.
+     *
+     * Close the channel when you are done with it.
+     *
+     * @return The read-only channel to read from.
+     * @throws FileNotFoundException The resource does not exist.
+     * @throws IOException           An I/O exception occurred.
+     */
+    default SeekableByteChannel openReadSeekableChannel() throws IOException {
+        return new SkippingSeekableByteChannel(this);
+    }
+
+    /**
+     * Reads at most {@code length} bytes of the content of the resource, starting at byte {@code offset}.
+     *
+     * By default, the bytes before {@code offset} are {@link ContentUtil#skip(InputStream, long) skipped} in an {@link
+     * #openRead() input stream}.
+     *
+     * @param offset Offset of the first byte to read.
+     * @param length Maximum number of bytes to read.
+     * @return An array with the read bytes, which is shorter than {@code length} when the range extends beyond the end
+     * of the content, and empty when {@code offset} lies beyond the end of the content.
+     * @throws IllegalArgumentException {@code offset} or {@code length} is negative.
+     * @throws IOException              An I/O exception occurred.
+     */
+    default byte[] readRange(long offset, int length) throws IOException {
+        ContentUtil.checkRange(offset, length);
+        try(final InputStream inputStream = openRead()) {
+            return ContentUtil.readRange(inputStream, offset, length);
+        }
+    }
+
+    /**
+     * Transfers the content of the resource to given writable resource, replacing its content. The cheapest way to
+     * transfer is chosen by the resources, for example copying between local files by the operating system.
+     *
+     * @param target The resource to write the content to.
+     * @return The number of transferred bytes.
+     * @throws IOException An I/O exception occurred.
+     * @see WritableResource#writeFrom(ReadableByteChannel)
+     */
+    default long transferTo(WritableResource target) throws IOException {
+        try(final ReadableByteChannel channel = openReadChannel()) {
+            return target.writeFrom(channel);
+        }
     }
 
     /**
      * Reads the content of the resource as an array of bytes.
      *
+     * By default, the {@link #getSize() size} of the resource is used to allocate an array of the right size once,
+     * falling back to growing the array when the size is not known or not correct.
+     *
      * @return An array with the read bytes.
      * @throws IOException An I/O exception occurred.
      */
     default byte[] readBytes() throws IOException {
+        long size;
+        try {
+            size = getSize();
+        } catch(IOException e) {
+            size = -1; // Size is only used as a hint; read without it.
+        }
         try(final InputStream inputStream = openRead()) {
-            final byte[] buffer = new byte[4096];
-            try(final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(buffer.length)) {
-                int bytesRead;
-                while((bytesRead = inputStream.read(buffer, 0, buffer.length)) != -1) {
-                    outputStream.write(buffer, 0, bytesRead);
-                }
-                outputStream.flush();
-                return outputStream.toByteArray();
-            }
+            return ContentUtil.readBytes(inputStream, size);
         }
     }
 
     /**
      * Reads the content of the resource as a string.
      *
+     * By default, the content is {@link #readBytes() read into an array of bytes} and then decoded into a string, as
+     * creating a string from bytes is optimized by the JVM for common character sets. Use {@link
+     * #readCharSequence(Charset)} to decode without holding a copy of the bytes.
+     *
      * @param fromCharset The character set that the content is encoded with.
      * @return A string with the read data.
      * @throws IOException An I/O exception occurred.
@@ -111,6 +209,236 @@ public interface ReadableResource extends Resource, AutoCloseable {
         return readString(StandardCharsets.UTF_8);
     }
 
+    /**
+     * Reads the content of the resource as a character sequence, decoding the content directly into the returned
+     * sequence without first reading it into an array of bytes or copying it into a string. Use this instead of {@link
+     * #readString(Charset)} when a {@link String} is not required, for example when parsing the content.
+     *
+     * By default, the content is decoded while reading it, into a buffer sized with the {@link #getSize() size} of the
+     * resource.
+     *
+     * @param fromCharset The character set that the content is encoded with.
+     * @return A character sequence with the read data.
+     * @throws IOException An I/O exception occurred.
+     */
+    default CharSequence readCharSequence(Charset fromCharset) throws IOException {
+        long size;
+        try {
+            size = getSize();
+        } catch(IOException e) {
+            size = -1; // Size is only used as a hint; read without it.
+        }
+        try(final InputStream inputStream = openRead()) {
+            return DecodeUtil.decode(inputStream, fromCharset, size);
+        }
+    }
+
+    /**
+     * Reads the content of the resource as a character sequence using the default character set.
+     *
+     * @see #readCharSequence(Charset)
+     */
+    default CharSequence readCharSequence() throws IOException {
+        return readCharSequence(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets a lazily populated stream of the lines of the resource, decoded incrementally with given character set
+     * while the stream is consumed, so that the content of the resource is not held in memory. Lines are terminated by
+     * {@code \n}, {@code \r}, or {@code \r\n}, and are returned without their terminator.
+     *
+     * Close the stream when you are done with it. Read failures during stream operations are thrown as {@link
+     * java.io.UncheckedIOException}s.
+     *
+     * @param fromCharset Character set to decode the content with.
+     * @return Stream of lines.
+     * @throws IOException An I/O exception occurred.
+     */
+    default Stream<String> lines(Charset fromCharset) throws IOException {
+        return new LineReader(openRead(), fromCharset).lines();
+    }
+
+    /**
+     * Gets a lazily populated stream of the lines of the resource, decoded incrementally using the default character
+     * set.
+     *
+     * @see #lines(Charset)
+     */
+    default Stream<String> lines() throws IOException {
+        return lines(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Passes each line of the resource to {@code consumer}, decoded incrementally with given character set, so that the
+     * content of the resource is not held in memory. Lines are passed as {@link CharSequence}s which are only valid
+     * until {@code consumer} returns, which prevents copying lines into new strings.
+     *
+     * @param fromCharset Character set to decode the content with.
+     * @param consumer    Consumer to pass lines to.
+     * @throws IOException An I/O exception occurred, or {@code consumer} threw an I/O exception.
+     */
+    default void forEachLine(Charset fromCharset, LineConsumer consumer) throws IOException {
+        try(final LineReader reader = new LineReader(openRead(), fromCharset)) {
+            reader.forEachLine(consumer);
+        }
+    }
+
+    /**
+     * Passes each line of the resource to {@code consumer}, decoded incrementally using the default character set.
+     *
+     * @see #forEachLine(Charset, LineConsumer)
+     */
+    default void forEachLine(LineConsumer consumer) throws IOException {
+        forEachLine(StandardCharsets.UTF_8, consumer);
+    }
+
+    /**
+     * Hashes the content of the resource with given hash function, streaming the content through a reusable buffer
+     * instead of reading it into an array of bytes.
+     *
+     * @param function The {@link HashFunction hash function} to hash with.
+     * @return The hash of the content.
+     * @throws IOException An I/O exception occurred.
+     */
+    default ContentHash hash(HashFunction function) throws IOException {
+        final Hasher hasher = function.newHasher();
+        try(final InputStream inputStream = openRead()) {
+            hasher.update(inputStream);
+        }
+        return hasher.finish();
+    }
+
+    /**
+     * Asynchronously gets whether the resource exists, running on given executor.
+     *
+     * @param executor The executor to run on.
+     * @return A future that completes with {@code true} when the resource exists; otherwise, with {@code false}.
+     * Completes exceptionally when an I/O exception occurred.
+     * @see #exists()
+     */
+    default CompletableFuture<Boolean> existsAsync(Executor executor) {
+        return AsyncUtil.supplyAsync(this::exists, executor);
+    }
+
+    /**
+     * Asynchronously gets whether the resource exists, running on the {@link AsyncUtil#getDefaultExecutor() default
+     * executor}.
+     *
+     * @see #existsAsync(Executor)
+     */
+    default CompletableFuture<Boolean> existsAsync() {
+        return existsAsync(AsyncUtil.getDefaultExecutor());
+    }
+
+    /**
+     * Asynchronously gets the moment the resource was last modified, running on given executor.
+     *
+     * @param executor The executor to run on.
+     * @return A future that completes with the moment the resource was last modified. Completes exceptionally when an
+     * I/O exception occurred.
+     * @see #getLastModifiedTime()
+     */
+    default CompletableFuture<Instant> getLastModifiedTimeAsync(Executor executor) {
+        return AsyncUtil.supplyAsync(this::getLastModifiedTime, executor);
+    }
+
+    /**
+     * Asynchronously gets the moment the resource was last modified, running on the {@link
+     * AsyncUtil#getDefaultExecutor() default executor}.
+     *
+     * @see #getLastModifiedTimeAsync(Executor)
+     */
+    default CompletableFuture<Instant> getLastModifiedTimeAsync() {
+        return getLastModifiedTimeAsync(AsyncUtil.getDefaultExecutor());
+    }
+
+    /**
+     * Asynchronously gets the size of the content of the resource, running on given executor.
+     *
+     * @param executor The executor to run on.
+     * @return A future that completes with the size of the content of the resource, in bytes. Completes exceptionally
+     * when an I/O exception occurred.
+     * @see #getSize()
+     */
+    default CompletableFuture<Long> getSizeAsync(Executor executor) {
+        return AsyncUtil.supplyAsync(this::getSize, executor);
+    }
+
+    /**
+     * Asynchronously gets the size of the content of the resource, running on the {@link AsyncUtil#getDefaultExecutor()
+     * default executor}.
+     *
+     * @see #getSizeAsync(Executor)
+     */
+    default CompletableFuture<Long> getSizeAsync() {
+        return getSizeAsync(AsyncUtil.getDefaultExecutor());
+    }
+
+    /**
+     * Asynchronously reads the content of the resource as an array of bytes, running on given executor.
+     *
+     * @param executor The executor to run on.
+     * @return A future that completes with an array with the read bytes. Completes exceptionally when an I/O exception
+     * occurred.
+     * @see #readBytes()
+     */
+    default CompletableFuture<byte[]> readBytesAsync(Executor executor) {
+        return AsyncUtil.supplyAsync(this::readBytes, executor);
+    }
+
+    /**
+     * Asynchronously reads the content of the resource as an array of bytes, running on the {@link
+     * AsyncUtil#getDefaultExecutor() default executor}.
+     *
+     * @see #readBytesAsync(Executor)
+     */
+    default CompletableFuture<byte[]> readBytesAsync() {
+        return readBytesAsync(AsyncUtil.getDefaultExecutor());
+    }
+
+    /**
+     * Asynchronously reads the content of the resource as a string, running on given executor.
+     *
+     * @param fromCharset The character set that the content is encoded with.
+     * @param executor    The executor to run on.
+     * @return A future that completes with a string with the read data. Completes exceptionally when an I/O exception
+     * occurred.
+     * @see #readString(Charset)
+     */
+    default CompletableFuture<String> readStringAsync(Charset fromCharset, Executor executor) {
+        return readBytesAsync(executor).thenApply(bytes -> new String(bytes, fromCharset));
+    }
+
+    /**
+     * Asynchronously reads the content of the resource as a string, running on the {@link
+     * AsyncUtil#getDefaultExecutor() default executor}.
+     *
+     * @see #readStringAsync(Charset, Executor)
+     */
+    default CompletableFuture<String> readStringAsync(Charset fromCharset) {
+        return readStringAsync(fromCharset, AsyncUtil.getDefaultExecutor());
+    }
+
+    /**
+     * Asynchronously reads the content of the resource as a string using the default character set, running on given
+     * executor.
+     *
+     * @see #readStringAsync(Charset, Executor)
+     */
+    default CompletableFuture<String> readStringAsync(Executor executor) {
+        return readStringAsync(StandardCharsets.UTF_8, executor);
+    }
+
+    /**
+     * Asynchronously reads the content of the resource as a string using the default character set, running on the
+     * {@link AsyncUtil#getDefaultExecutor() default executor}.
+     *
+     * @see #readStringAsync(Charset, Executor)
+     */
+    default CompletableFuture<String> readStringAsync() {
+        return readStringAsync(StandardCharsets.UTF_8, AsyncUtil.getDefaultExecutor());
+    }
+
     /**
      * Closes the resource.
      *
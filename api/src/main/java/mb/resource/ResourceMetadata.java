@@ -0,0 +1,96 @@
+package mb.resource;
+
+import mb.resource.hierarchical.HierarchicalResource;
+import mb.resource.hierarchical.HierarchicalResourceType;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Metadata of a {@link ReadableResource readable resource}: whether it exists, its {@link HierarchicalResourceType
+ * type}, last modified time, and size. Returned by {@link ResourceService#getMetadata(java.util.Collection)} to query
+ * the metadata of many resources at once.
+ */
+public class ResourceMetadata implements Serializable {
+    private static final ResourceMetadata nonExistent = new ResourceMetadata(false, null, Instant.EPOCH, 0);
+
+    /**
+     * Whether the resource exists.
+     */
+    public final boolean exists;
+    /**
+     * Type of the resource, or {@code null} if the resource does not exist, is not a {@link HierarchicalResource
+     * hierarchical resource}, or does not support getting its type (such as {@link mb.resource.url.URLResource}).
+     */
+    public final @Nullable HierarchicalResourceType type;
+    /**
+     * Moment the resource was last modified, or {@link Instant#EPOCH} if the resource does not exist.
+     */
+    public final Instant lastModifiedTime;
+    /**
+     * Size of the content of the resource in bytes, or {@code 0} if the resource does not exist.
+     */
+    public final long size;
+
+
+    public ResourceMetadata(boolean exists, @Nullable HierarchicalResourceType type, Instant lastModifiedTime, long size) {
+        this.exists = exists;
+        this.type = type;
+        this.lastModifiedTime = lastModifiedTime;
+        this.size = size;
+    }
+
+    /**
+     * Gets the metadata of a resource that does not exist.
+     */
+    public static ResourceMetadata ofNonExistent() {
+        return nonExistent;
+    }
+
+    /**
+     * Reads the metadata of given {@code resource}, one query at a time.
+     *
+     * @param resource Resource to read the metadata of.
+     * @return Metadata of {@code resource}.
+     * @throws IOException when reading the metadata of an existing resource fails.
+     */
+    public static ResourceMetadata read(ReadableResource resource) throws IOException {
+        if(!resource.exists()) return nonExistent;
+        @Nullable HierarchicalResourceType type = null;
+        if(resource instanceof HierarchicalResource) {
+            try {
+                type = ((HierarchicalResource)resource).getType();
+            } catch(UnsupportedOperationException e) {
+                // Type is unknown.
+            }
+        }
+        return new ResourceMetadata(true, type, resource.getLastModifiedTime(), resource.getSize());
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final ResourceMetadata that = (ResourceMetadata)o;
+        return exists == that.exists &&
+            size == that.size &&
+            type == that.type &&
+            lastModifiedTime.equals(that.lastModifiedTime);
+    }
+
+    @Override public int hashCode() {
+        return Objects.hash(exists, type, lastModifiedTime, size);
+    }
+
+    @Override public String toString() {
+        return "ResourceMetadata{" +
+            "exists=" + exists +
+            ", type=" + type +
+            ", lastModifiedTime=" + lastModifiedTime +
+            ", size=" + size +
+            '}';
+    }
+}
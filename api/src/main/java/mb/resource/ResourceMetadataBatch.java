@@ -0,0 +1,89 @@
+package mb.resource;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads the {@link ResourceMetadata metadata} of many resources of a {@link ResourceRegistry registry} by getting each
+ * resource and {@link ResourceMetadata#read(ReadableResource) reading} its metadata, splitting the keys over {@link
+ * RecursiveAction fork-join tasks}. Used by registries that have no faster way to query metadata in bulk.
+ *
+ * When reading the metadata of a resource fails, the metadata of the other resources is still read, and the failures
+ * are thrown together.
+ */
+class ResourceMetadataBatch {
+    // Number of keys read sequentially by a single task.
+    private static final int keysPerTask = 64;
+
+    private final ResourceRegistry registry;
+    private final ArrayList<ResourceKey> keys;
+    private final ConcurrentHashMap<ResourceKey, ResourceMetadata> results;
+    private final ConcurrentLinkedQueue<IOException> failures = new ConcurrentLinkedQueue<>();
+
+
+    ResourceMetadataBatch(ResourceRegistry registry, Collection<? extends ResourceKey> keys) {
+        this.registry = registry;
+        this.keys = new ArrayList<>(keys);
+        this.results = new ConcurrentHashMap<>(Math.max(16, this.keys.size() * 4 / 3 + 1));
+    }
+
+
+    Map<ResourceKey, ResourceMetadata> read(ForkJoinPool pool) throws IOException {
+        final RangeTask task = new RangeTask(0, keys.size());
+        if(keys.size() <= keysPerTask) {
+            task.compute(); // Not worth the overhead of submitting to the pool.
+        } else {
+            pool.invoke(task);
+        }
+        final @Nullable IOException failure = failures.poll();
+        if(failure != null) {
+            for(IOException suppressed : failures) {
+                failure.addSuppressed(suppressed);
+            }
+            throw failure;
+        }
+        return results;
+    }
+
+    private void read(ResourceKey key) {
+        final Resource resource = registry.getResource(key);
+        if(!(resource instanceof ReadableResource)) {
+            throw new ResourceRuntimeException("Resource '" + resource + "' is not a readable resource");
+        }
+        try(final ReadableResource readableResource = (ReadableResource)resource) {
+            results.put(key, ResourceMetadata.read(readableResource));
+        } catch(IOException e) {
+            failures.add(e);
+        }
+    }
+
+
+    private class RangeTask extends RecursiveAction {
+        private final int start;
+        private final int end;
+
+        RangeTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override protected void compute() {
+            if(end - start <= keysPerTask) {
+                for(int i = start; i < end; ++i) {
+                    read(keys.get(i));
+                }
+            } else {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new RangeTask(start, middle), new RangeTask(middle, end));
+            }
+        }
+    }
+}
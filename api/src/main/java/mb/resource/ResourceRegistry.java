@@ -3,6 +3,10 @@ package mb.resource;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 public interface ResourceRegistry {
     /**
@@ -60,4 +64,22 @@ public interface ResourceRegistry {
      * @throws ResourceRuntimeException when {@code resource} cannot be handled by this resource registry.
      */
     default @Nullable File toLocalFile(Resource resource) { return null; }
+
+
+    /**
+     * Gets the {@link ResourceMetadata metadata} of the resources for given keys, in parallel on given {@code pool}.
+     * The default implementation gets each resource and reads its metadata separately. Registries that can query the
+     * metadata of many resources at once override this method.
+     *
+     * @param keys Keys of the resources to get the metadata of.
+     * @param pool Pool to read metadata on.
+     * @return Map from each key in {@code keys} to the metadata of its resource.
+     * @throws ResourceRuntimeException when a key cannot be handled by this resource registry, or its resource is not
+     *                                  a {@link ReadableResource readable resource}.
+     * @throws IOException              when reading the metadata of one or more existing resources fails. Failures
+     *                                  other than the first are added as suppressed exceptions.
+     */
+    default Map<ResourceKey, ResourceMetadata> getMetadata(Collection<? extends ResourceKey> keys, ForkJoinPool pool) throws IOException {
+        return new ResourceMetadataBatch(this, keys).read(pool);
+    }
 }
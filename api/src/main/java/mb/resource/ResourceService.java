@@ -2,11 +2,19 @@ package mb.resource;
 
 import mb.resource.hierarchical.HierarchicalResource;
 import mb.resource.hierarchical.ResourcePath;
+import mb.resource.util.AsyncUtil;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The resource service, used to get a resource corresponding to a resource key.
@@ -227,6 +235,51 @@ public interface ResourceService {
     @Nullable File toLocalFile(Resource resource);
 
 
+    /**
+     * Gets the {@link ResourceMetadata metadata} of the resources for given {@link ResourceKey keys} in bulk. Keys are
+     * grouped by {@link ResourceKey#getQualifier() qualifier}, and the metadata of each group is read by its {@link
+     * ResourceRegistry resource registry} with {@link ResourceRegistry#getMetadata(Collection, ForkJoinPool)}, in
+     * parallel on given {@code pool}.
+     *
+     * @param keys Keys of the resources to get the metadata of.
+     * @param pool Pool to read metadata on.
+     * @return Map from each key in {@code keys} to the metadata of its resource.
+     * @throws ResourceRuntimeException when no {@link ResourceRegistry resource registry} is found for the {@link
+     *                                  ResourceKey#getQualifier() qualifier} of a key.
+     * @throws ResourceRuntimeException when the resource of a key is not a {@link ReadableResource readable
+     *                                  resource}.
+     * @throws IOException              when reading the metadata of one or more existing resources fails.
+     */
+    default Map<ResourceKey, ResourceMetadata> getMetadata(Collection<? extends ResourceKey> keys, ForkJoinPool pool) throws IOException {
+        final LinkedHashMap<String, ArrayList<ResourceKey>> keysPerQualifier = new LinkedHashMap<>();
+        for(ResourceKey key : keys) {
+            keysPerQualifier.computeIfAbsent(key.getQualifier(), q -> new ArrayList<>()).add(key);
+        }
+        final HashMap<ResourceKey, ResourceMetadata> metadata = new HashMap<>();
+        for(Map.Entry<String, ArrayList<ResourceKey>> entry : keysPerQualifier.entrySet()) {
+            final String qualifier = entry.getKey();
+            final @Nullable ResourceRegistry registry = getResourceRegistry(qualifier);
+            if(registry == null) {
+                throw new ResourceRuntimeException("No resource registry was found for qualifier '" + qualifier + "'");
+            }
+            final Map<ResourceKey, ResourceMetadata> registryMetadata = registry.getMetadata(entry.getValue(), pool);
+            if(keysPerQualifier.size() == 1) return registryMetadata;
+            metadata.putAll(registryMetadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * Gets the {@link ResourceMetadata metadata} of the resources for given {@link ResourceKey keys} in bulk, in
+     * parallel on the {@link AsyncUtil#getDefaultIOPool() default I/O pool}.
+     *
+     * @see #getMetadata(Collection, ForkJoinPool)
+     */
+    default Map<ResourceKey, ResourceMetadata> getMetadata(Collection<? extends ResourceKey> keys) throws IOException {
+        return getMetadata(keys, AsyncUtil.getDefaultIOPool());
+    }
+
+
     /**
      * Gets the default {@link ResourceRegistry resource registry}, which is used to get resources for string
      * representations of {@link ResourceKey#getId() resource identifier}s.
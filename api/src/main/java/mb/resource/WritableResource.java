@@ -1,13 +1,26 @@
 package mb.resource;
 
+import mb.resource.hash.ContentHashCache;
+import mb.resource.hash.HashFunction;
+import mb.resource.hash.Hasher;
+import mb.resource.util.AsyncUtil;
+import mb.resource.util.ContentUtil;
+import mb.resource.util.PooledBufferedOutputStream;
+import mb.resource.util.TransferUtil;
+
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * A writable resource.
@@ -53,7 +66,7 @@ public interface WritableResource extends ReadableResource {
      * @throws IOException An I/O exception occurred.
      */
     default BufferedOutputStream openWriteBuffered() throws IOException {
-        return new BufferedOutputStream(openWrite());
+        return new PooledBufferedOutputStream(openWrite());
     }
 
     /**
@@ -80,7 +93,7 @@ public interface WritableResource extends ReadableResource {
      * @throws IOException An I/O exception occurred.
      */
     default BufferedOutputStream openWriteAppendBuffered() throws IOException {
-        return new BufferedOutputStream(openWriteAppend());
+        return new PooledBufferedOutputStream(openWriteAppend());
     }
 
     /**
@@ -108,7 +121,7 @@ public interface WritableResource extends ReadableResource {
      * @throws IOException           An I/O exception occurred.
      */
     default BufferedOutputStream openWriteExistingBuffered() throws IOException {
-        return new BufferedOutputStream(openWriteExisting());
+        return new PooledBufferedOutputStream(openWriteExisting());
     }
 
     /**
@@ -136,10 +149,59 @@ public interface WritableResource extends ReadableResource {
      * @throws IOException                An I/O exception occurred.
      */
     default BufferedOutputStream openWriteNewBuffered() throws IOException {
-        return new BufferedOutputStream(openWriteNew());
+        return new PooledBufferedOutputStream(openWriteNew());
     }
 
 
+    /**
+     * Opens the resource for writing atomically: readers either see the previous content or all written content, but
+     * never partially written content. The content is only written when the returned output stream is closed, and
+     * replaces the previous content, unless {@code skipIfIdentical} is {@code true} and the written content is
+     * identical to the previous content, in which case the resource is not modified at all.
+     *
+     * When writing to or flushing the output stream fails, closing it discards the written content and leaves the
+     * resource untouched. However, because the content is written when the output stream is closed, closing it after
+     * any other failure (e.g., when reading the content to write throws inside a try-with-resources block) writes
+     * partial content. Use {@link #writeBytesAtomic} when all content is available up front.
+     *
+     * By default, the written content is buffered in memory and {@link #writeBytes(byte[]) written} on close, which
+     * does not prevent readers from seeing partially written content, but shortens the time in which they can.
+     * Implementations override this to write atomically.
+     *
+     * @param skipIfIdentical Whether to skip writing when the written content is identical to the existing content.
+     * @return The output stream to write to.
+     * @throws IOException An I/O exception occurred.
+     */
+    default OutputStream openWriteAtomic(boolean skipIfIdentical) throws IOException {
+        return new ByteArrayOutputStream() {
+            private boolean closed = false;
+
+            @Override public void close() throws IOException {
+                if(closed) return;
+                closed = true;
+                writeBytesAtomic(toByteArray(), skipIfIdentical);
+            }
+        };
+    }
+
+    /**
+     * Writes the content of the resource as an array of bytes {@link #openWriteAtomic(boolean) atomically}.
+     *
+     * @param bytes           An array with the bytes to write.
+     * @param skipIfIdentical Whether to skip writing when {@code bytes} is identical to the existing content.
+     * @return {@code true} when the content was written; {@code false} when writing was skipped.
+     * @throws IOException An I/O exception occurred.
+     */
+    default boolean writeBytesAtomic(byte[] bytes, boolean skipIfIdentical) throws IOException {
+        if(skipIfIdentical && exists() && getSize() == bytes.length) {
+            try(final InputStream inputStream = openRead()) {
+                if(ContentUtil.contentEquals(inputStream, bytes)) return false;
+            }
+        }
+        writeBytes(bytes);
+        return true;
+    }
+
     /**
      * Writes the content of the resource as an array of bytes.
      *
@@ -153,6 +215,84 @@ public interface WritableResource extends ReadableResource {
         }
     }
 
+    /**
+     * Asynchronously writes the content of the resource as an array of bytes, running on given executor.
+     *
+     * @param bytes    An array with the bytes to write.
+     * @param executor The executor to run on.
+     * @return A future that completes when the bytes have been written. Completes exceptionally when an I/O exception
+     * occurred.
+     * @see #writeBytes(byte[])
+     */
+    default CompletableFuture<Void> writeBytesAsync(byte[] bytes, Executor executor) {
+        return AsyncUtil.runAsync(() -> writeBytes(bytes), executor);
+    }
+
+    /**
+     * Asynchronously writes the content of the resource as an array of bytes, running on the {@link
+     * AsyncUtil#getDefaultExecutor() default executor}.
+     *
+     * @see #writeBytesAsync(byte[], Executor)
+     */
+    default CompletableFuture<Void> writeBytesAsync(byte[] bytes) {
+        return writeBytesAsync(bytes, AsyncUtil.getDefaultExecutor());
+    }
+
+    /**
+     * Writes the content of the resource as an array of bytes, only if {@code bytes} differs from the existing content.
+     * Sizes are compared first, after which the existing content is compared while streaming, stopping at the first
+     * difference. When the content is not written, the resource, including its last modified time, is left untouched.
+     *
+     * @param bytes An array with the bytes to write.
+     * @return {@code true} when the content was written; {@code false} when the content was unchanged.
+     * @throws IOException An I/O exception occurred.
+     */
+    default boolean writeBytesIfChanged(byte[] bytes) throws IOException {
+        if(exists() && getSize() == bytes.length) {
+            try(final InputStream inputStream = openRead()) {
+                if(ContentUtil.contentEquals(inputStream, bytes)) return false;
+            }
+        }
+        writeBytes(bytes);
+        return true;
+    }
+
+    /**
+     * Writes the content of the resource as an array of bytes, only if the hash of {@code bytes} differs from the hash
+     * of the existing content. The hash of the existing content is taken from {@code cache} when the resource is
+     * unchanged since it was cached, so that the existing content does not have to be read.
+     *
+     * @param bytes    An array with the bytes to write.
+     * @param cache    The {@link ContentHashCache cache} to get the hash of the existing content from.
+     * @param function The {@link HashFunction hash function} to compare hashes with.
+     * @return {@code true} when the content was written; {@code false} when the content was unchanged.
+     * @throws IOException An I/O exception occurred.
+     */
+    default boolean writeBytesIfChanged(byte[] bytes, ContentHashCache cache, HashFunction function) throws IOException {
+        if(exists() && getSize() == bytes.length) {
+            final Hasher hasher = function.newHasher();
+            hasher.update(bytes);
+            if(hasher.finish().equals(cache.hash(this, function))) return false;
+        }
+        writeBytes(bytes);
+        return true;
+    }
+
+    /**
+     * Writes the remaining bytes of given channel as the content of the resource. Does not close the channel.
+     *
+     * @param channel The channel to read the bytes to write from.
+     * @return The number of written bytes.
+     * @throws IOException An I/O exception occurred.
+     */
+    default long writeFrom(ReadableByteChannel channel) throws IOException {
+        try(final OutputStream outputStream = openWrite()) {
+            final long written = TransferUtil.transfer(channel, outputStream);
+            outputStream.flush();
+            return written;
+        }
+    }
+
     /**
      * Writes the content of the resource as a string.
      *
@@ -176,4 +316,30 @@ public interface WritableResource extends ReadableResource {
     default void writeString(String string) throws IOException {
         writeString(string, StandardCharsets.UTF_8);
     }
+
+    /**
+     * Writes the content of the resource as a string, only if the encoded string differs from the existing content.
+     *
+     * @param string    A string with the data to write.
+     * @param toCharset The character set that the content is encoded with.
+     * @return {@code true} when the content was written; {@code false} when the content was unchanged.
+     * @throws IOException An I/O exception occurred.
+     * @see #writeBytesIfChanged(byte[])
+     */
+    default boolean writeStringIfChanged(String string, Charset toCharset) throws IOException {
+        return writeBytesIfChanged(string.getBytes(toCharset));
+    }
+
+    /**
+     * Writes the content of the resource as a string using the default character set, only if the encoded string
+     * differs from the existing content.
+     *
+     * @param string A string with the data to write.
+     * @return {@code true} when the content was written; {@code false} when the content was unchanged.
+     * @throws IOException An I/O exception occurred.
+     * @see #writeBytesIfChanged(byte[])
+     */
+    default boolean writeStringIfChanged(String string) throws IOException {
+        return writeStringIfChanged(string, StandardCharsets.UTF_8);
+    }
 }
@@ -2,6 +2,7 @@ package mb.resource.classloader;
 
 import mb.resource.ReadableResource;
 import mb.resource.ResourceRuntimeException;
+import mb.resource.WritableResource;
 import mb.resource.fs.FSResource;
 import mb.resource.hierarchical.HierarchicalResource;
 import mb.resource.hierarchical.HierarchicalResourceType;
@@ -9,6 +10,7 @@ import mb.resource.hierarchical.SegmentsPath;
 import mb.resource.hierarchical.SegmentsResource;
 import mb.resource.hierarchical.match.ResourceMatcher;
 import mb.resource.hierarchical.walk.ResourceWalker;
+import mb.resource.util.ContentUtil;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.File;
@@ -20,28 +22,39 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.Map;
 import java.util.stream.Stream;
 
 public class ClassLoaderResource extends SegmentsResource<ClassLoaderResource> implements HierarchicalResource {
     private final ClassLoader classLoader;
     private final ClassLoaderUrlResolver urlResolver;
     private final ClassLoaderToNativeResolver toNativeResolver;
+    private final ClassLoaderResourceCache cache;
+    private final ClassLoaderResourceIndex index;
 
 
-    ClassLoaderResource(ClassLoader classLoader, ClassLoaderUrlResolver urlResolver, ClassLoaderToNativeResolver toNativeResolver, SegmentsPath path) {
+    ClassLoaderResource(ClassLoader classLoader, ClassLoaderUrlResolver urlResolver, ClassLoaderToNativeResolver toNativeResolver, ClassLoaderResourceCache cache, ClassLoaderResourceIndex index, SegmentsPath path) {
         super(path);
         this.classLoader = classLoader;
         this.urlResolver = urlResolver;
         this.toNativeResolver = toNativeResolver;
+        this.cache = cache;
+        this.index = index;
     }
 
-    ClassLoaderResource(ClassLoader classLoader, ClassLoaderUrlResolver urlResolver, ClassLoaderToNativeResolver toNativeResolver, String id, String qualifier) {
+    ClassLoaderResource(ClassLoader classLoader, ClassLoaderUrlResolver urlResolver, ClassLoaderToNativeResolver toNativeResolver, ClassLoaderResourceCache cache, ClassLoaderResourceIndex index, String id, String qualifier) {
         super(new SegmentsPath(qualifier, id));
         this.classLoader = classLoader;
         this.urlResolver = urlResolver;
         this.toNativeResolver = toNativeResolver;
+        this.cache = cache;
+        this.index = index;
     }
 
     @Override public void close() throws IOException {
@@ -49,23 +62,67 @@ public class ClassLoaderResource extends SegmentsResource<ClassLoaderResource> i
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * The type is looked up in the {@link ClassLoaderResourceIndex index} of the registry, as a child of the parent
+     * directory of this resource. Resources that exist but are not found in the index, such as directories in JAR
+     * files without directory entries that are not on the classpath of a {@link java.net.URLClassLoader} and have no
+     * manifest, are of {@link HierarchicalResourceType#Unknown unknown} type.
+     */
     @Override public HierarchicalResourceType getType() throws IOException {
-        throw new UnsupportedOperationException("Class loader resources do not support resource types");
+        final @Nullable HierarchicalResourceType type = index.getType(this);
+        return type != null ? type : HierarchicalResourceType.Unknown;
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * Lists the children of this directory in all its {@link #getLocations() locations}, merged and sorted by name,
+     * from the {@link ClassLoaderResourceIndex index} of the registry.
+     */
     @Override public Stream<ClassLoaderResource> list(ResourceMatcher matcher) throws IOException {
-        throw new UnsupportedOperationException("Class loader resources do not support listing");
+        final ArrayList<ClassLoaderResource> resources = new ArrayList<>();
+        for(String name : index.getChildren(this).keySet()) {
+            final ClassLoaderResource child = appendSegment(name);
+            if(matcher.matches(child, this)) {
+                resources.add(child);
+            }
+        }
+        return resources.stream();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Walks the directory tree in depth-first pre-order, starting with this directory, from the {@link
+     * ClassLoaderResourceIndex index} of the registry.
+     */
     @Override
     public Stream<ClassLoaderResource> walk(ResourceWalker walker, ResourceMatcher matcher) throws IOException {
-        throw new UnsupportedOperationException("Class loader resources do not support walking");
+        final ArrayList<ClassLoaderResource> resources = new ArrayList<>();
+        walk(this, HierarchicalResourceType.Directory, walker, matcher, resources);
+        return resources.stream();
+    }
+
+    private void walk(ClassLoaderResource resource, HierarchicalResourceType type, ResourceWalker walker, ResourceMatcher matcher, ArrayList<ClassLoaderResource> resources) throws IOException {
+        if(matcher.matches(resource, this)) {
+            resources.add(resource);
+        }
+        if(type == HierarchicalResourceType.Directory && walker.traverse(resource, this)) {
+            for(Map.Entry<String, HierarchicalResourceType> child : index.getChildren(resource).entrySet()) {
+                walk(resource.appendSegment(child.getKey()), child.getValue(), walker, matcher, resources);
+            }
+        }
     }
 
 
+    /**
+     * {@link #transferTo(WritableResource) Transfers} the content of this resource to {@code other}.
+     */
     @Override public void copyTo(HierarchicalResource other) throws IOException {
-        throw new UnsupportedOperationException("Class loader resources do not support copying");
+        transferTo(other);
     }
 
     @Override public void copyRecursivelyTo(HierarchicalResource other) throws IOException {
@@ -103,28 +160,90 @@ public class ClassLoaderResource extends SegmentsResource<ClassLoaderResource> i
         return true; // Don't know if it is readable; return true although opening an input stream may fail.
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Entries of local JAR files get their last modified time from the {@link ClassLoaderResourceCache cache} of the
+     * registry, and local files from the filesystem, without opening a connection.
+     */
     @Override public Instant getLastModifiedTime() throws IOException {
-        final URLConnection connection = openConnection();
+        final URL url = getExistingUrlToResource();
+        final @Nullable JarEntryMetadata entry = cache.getJarEntryMetadata(url);
+        if(entry != null) return entry.lastModifiedTime;
+        final @Nullable Path localPath = toLocalPath(url);
+        if(localPath != null) return Files.getLastModifiedTime(localPath).toInstant();
+        final URLConnection connection = url.openConnection();
         final Instant lastModified = Instant.ofEpochMilli(connection.getLastModified());
         closeConnection(connection);
         return lastModified;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Entries of local JAR files get their size from the {@link ClassLoaderResourceCache cache} of the registry, and
+     * local files from the filesystem, without opening a connection.
+     */
     @Override public long getSize() throws IOException {
-        final URLConnection connection = openConnection();
+        final URL url = getExistingUrlToResource();
+        final @Nullable JarEntryMetadata entry = cache.getJarEntryMetadata(url);
+        if(entry != null && entry.size >= 0) return entry.size;
+        final @Nullable Path localPath = toLocalPath(url);
+        if(localPath != null) return Files.size(localPath);
+        final URLConnection connection = url.openConnection();
         final long size = connection.getContentLengthLong();
         closeConnection(connection);
         return size;
     }
 
+    /**
+     * Gets the {@link JarEntryMetadata metadata} of this resource, including its CRC-32 checksum, if it is an entry of
+     * a JAR file on the local filesystem.
+     *
+     * @return Metadata of the JAR entry, or {@code null} if this resource does not exist or is not an entry of a local
+     * JAR file.
+     */
+    public @Nullable JarEntryMetadata getJarEntryMetadata() {
+        final @Nullable URL url = getUrlToResource();
+        if(url == null) return null;
+        return cache.getJarEntryMetadata(url);
+    }
+
     private void closeConnection(URLConnection connection) throws IOException {
         // URLConnection leaks its input stream when getting metadata: https://bugs.openjdk.java.net/browse/JDK-6956385.
         // HACK: get input stream and immediately close it, which closes the input stream it is leaking.
         connection.getInputStream().close();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Entries of local JAR files are read through the {@link JarFilePool JAR file pool} of the registry, which keeps
+     * the JAR file open for other reads, instead of through a URL connection.
+     */
     @Override public InputStream openRead() throws IOException {
-        return openConnection().getInputStream();
+        final URL url = getExistingUrlToResource();
+        final @Nullable InputStream jarEntryInputStream = cache.openJarEntry(url);
+        if(jarEntryInputStream != null) return jarEntryInputStream;
+        return url.openConnection().getInputStream();
+    }
+
+    @Override public byte[] readBytes() throws IOException {
+        final URL url = getExistingUrlToResource();
+        final @Nullable Path localPath = toLocalPath(url);
+        if(localPath != null) return Files.readAllBytes(localPath);
+        final @Nullable InputStream jarEntryInputStream = cache.openJarEntry(url);
+        if(jarEntryInputStream != null) {
+            // Get the size from the cache, to allocate an array of the right size once.
+            final @Nullable JarEntryMetadata entry = cache.getJarEntryMetadata(url);
+            try(final InputStream inputStream = jarEntryInputStream) {
+                return ContentUtil.readBytes(inputStream, entry != null ? entry.size : -1);
+            }
+        }
+        final URLConnection connection = url.openConnection();
+        try(final InputStream inputStream = connection.getInputStream()) {
+            return ContentUtil.readBytes(inputStream, connection.getContentLengthLong());
+        }
     }
 
 
@@ -372,17 +491,47 @@ public class ClassLoaderResource extends SegmentsResource<ClassLoaderResource> i
     }
 
 
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * Gets the directory containing this resource, which for resources without a parent path is the root directory of
+     * the class loader, or {@code null} if this resource is that root directory.
+     */
+    @Nullable ClassLoaderResource getParentDirectory() {
+        if(String.join("", path.getSegments()).isEmpty()) return null;
+        final @Nullable ClassLoaderResource parent = getParent();
+        return parent != null ? parent : create(new SegmentsPath(path.getQualifier(), ""));
+    }
+
+    ClassLoaderResourceCache getCache() {
+        return cache;
+    }
+
     private @Nullable URL getUrlToResource() {
-        return classLoader.getResource(path.getId().toString());
+        return cache.getUrl(path.getId().toString());
     }
 
-    private URLConnection openConnection() throws IOException {
-        final String resourcePath = path.getId().toString();
+    private URL getExistingUrlToResource() throws IOException {
         final @Nullable URL url = getUrlToResource();
         if(url == null) {
-            throw new IOException("Resource '" + resourcePath + "' could not be found in class loader '" + classLoader + "'");
+            throw new IOException("Resource '" + path.getId() + "' could not be found in class loader '" + classLoader + "'");
+        }
+        return url;
+    }
+
+    private URLConnection openConnection() throws IOException {
+        return getExistingUrlToResource().openConnection();
+    }
+
+    private static @Nullable Path toLocalPath(URL url) {
+        if(!"file".equals(url.getProtocol())) return null;
+        try {
+            return Paths.get(url.toURI());
+        } catch(URISyntaxException | IllegalArgumentException e) {
+            return null; // Not a valid local path: let the caller fall back to the URL connection.
         }
-        return url.openConnection();
     }
 
 
@@ -391,7 +540,7 @@ public class ClassLoaderResource extends SegmentsResource<ClassLoaderResource> i
     }
 
     @Override protected ClassLoaderResource create(SegmentsPath path) {
-        return new ClassLoaderResource(classLoader, urlResolver, toNativeResolver, path);
+        return new ClassLoaderResource(classLoader, urlResolver, toNativeResolver, cache, index, path);
     }
 
 
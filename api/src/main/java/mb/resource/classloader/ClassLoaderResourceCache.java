@@ -0,0 +1,182 @@
+package mb.resource.classloader;
+
+import mb.resource.ResourceRuntimeException;
+import mb.resource.fs.FSResource;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystemNotFoundException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the URLs that resources of a class loader resolve to, and of the {@link JarEntryMetadata metadata} of the
+ * entries of JAR files on its classpath, read once from the central directory of each JAR file. JAR files are opened
+ * through a {@link JarFilePool pool}, which keeps each JAR file open and serves its entries to concurrent readers. The
+ * cache is shared by all resources of a {@link ClassLoaderResourceRegistry}, and assumes that the classpath of its
+ * class loader does not change; call {@link #invalidate()} when it does, or {@link #evict(FSResource)} when a single
+ * JAR file is no longer used, for example when the plugin it belongs to is unloaded.
+ *
+ * Thread-safe.
+ */
+public class ClassLoaderResourceCache {
+    private final ClassLoader classLoader;
+    private final JarFilePool jarFilePool;
+    // Resolved URL per resource path, or an empty optional for resources that were not found.
+    private final ConcurrentHashMap<String, Optional<URL>> urls = new ConcurrentHashMap<>();
+    // Metadata of all entries per JAR file, from entry name (without leading or trailing separators) to metadata.
+    private final ConcurrentHashMap<FSResource, Map<String, JarEntryMetadata>> jarFiles = new ConcurrentHashMap<>();
+
+
+    public ClassLoaderResourceCache(ClassLoader classLoader, JarFilePool jarFilePool) {
+        this.classLoader = classLoader;
+        this.jarFilePool = jarFilePool;
+    }
+
+    public ClassLoaderResourceCache(ClassLoader classLoader) {
+        this(classLoader, new JarFilePool());
+    }
+
+
+    /**
+     * Gets the URL that the resource at {@code path} resolves to with {@link ClassLoader#getResource(String)},
+     * resolving it only the first time.
+     *
+     * @return URL of the resource, or {@code null} if the class loader cannot find the resource.
+     */
+    public @Nullable URL getUrl(String path) {
+        return urls.computeIfAbsent(path, p -> Optional.ofNullable(classLoader.getResource(p))).orElse(null);
+    }
+
+    /**
+     * Gets the metadata of the entry that {@code url} points to, if it is a {@code jar:} URL pointing into a JAR file
+     * on the local filesystem.
+     *
+     * @return Metadata of the entry, or {@code null} if {@code url} does not point to an entry of a local JAR file, or
+     * reading the JAR file fails.
+     */
+    public @Nullable JarEntryMetadata getJarEntryMetadata(URL url) {
+        final @Nullable JarEntryLocation location = JarEntryLocation.of(url);
+        if(location == null) return null;
+        try {
+            return getJarEntries(location.jarFile).get(trimSeparators(location.entryName));
+        } catch(IOException e) {
+            return null; // JAR file cannot be read: let the caller fall back to the URL connection.
+        }
+    }
+
+    /**
+     * Opens the entry that {@code url} points to for reading through the {@link #getJarFilePool() JAR file pool}, if it
+     * is a {@code jar:} URL pointing into a JAR file on the local filesystem.
+     *
+     * @return Input stream of the entry, or {@code null} if {@code url} does not point to an entry of a local JAR file.
+     * @throws IOException when opening the JAR file or the entry fails.
+     */
+    public @Nullable InputStream openJarEntry(URL url) throws IOException {
+        final @Nullable JarEntryLocation location = JarEntryLocation.of(url);
+        if(location == null) return null;
+        return jarFilePool.openEntry(location.jarFile.getJavaPath(), location.entryName);
+    }
+
+    /**
+     * Gets the metadata of all entries of {@code jarFile}, reading its central directory only the first time.
+     *
+     * @return Map from entry name, without leading or trailing separators, to metadata.
+     * @throws IOException when reading the JAR file fails.
+     */
+    public Map<String, JarEntryMetadata> getJarEntries(FSResource jarFile) throws IOException {
+        final @Nullable Map<String, JarEntryMetadata> entries = jarFiles.get(jarFile);
+        if(entries != null) return entries;
+        final Map<String, JarEntryMetadata> read = Collections.unmodifiableMap(readJarEntries(jarFile));
+        final @Nullable Map<String, JarEntryMetadata> existing = jarFiles.putIfAbsent(jarFile, read);
+        return existing != null ? existing : read;
+    }
+
+    /**
+     * Gets the pool through which JAR files are opened, which is shared by all resources of the registry.
+     */
+    public JarFilePool getJarFilePool() {
+        return jarFilePool;
+    }
+
+    /**
+     * Removes the metadata of {@code jarFile} from the cache, and {@link JarFilePool#evict evicts} it from the {@link
+     * #getJarFilePool() JAR file pool}, closing it once all its open entry streams are closed.
+     *
+     * @throws IOException when closing the JAR file fails.
+     */
+    public void evict(FSResource jarFile) throws IOException {
+        jarFiles.remove(jarFile);
+        jarFilePool.evict(jarFile.getJavaPath());
+    }
+
+    /**
+     * Removes all entries from the cache, so that URLs are resolved and JAR files are read again, and {@link
+     * JarFilePool#evictAll() evicts} all JAR files from the {@link #getJarFilePool() JAR file pool}.
+     *
+     * @throws UncheckedIOException when closing a JAR file fails.
+     */
+    public void invalidate() {
+        urls.clear();
+        jarFiles.clear();
+        try {
+            jarFilePool.evictAll();
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    private HashMap<String, JarEntryMetadata> readJarEntries(FSResource jarFile) throws IOException {
+        final HashMap<String, JarEntryMetadata> entries = new HashMap<>();
+        for(Map.Entry<String, JarEntryMetadata> entry : jarFilePool.getEntriesMetadata(jarFile.getJavaPath()).entrySet()) {
+            entries.put(trimSeparators(entry.getKey()), entry.getValue());
+        }
+        return entries;
+    }
+
+    static String trimSeparators(String path) {
+        int start = 0;
+        int end = path.length();
+        while(start < end && path.charAt(start) == '/') ++start;
+        while(end > start && path.charAt(end - 1) == '/') --end;
+        return path.substring(start, end);
+    }
+
+
+    /**
+     * JAR file and entry name that a {@code jar:} URL points to.
+     */
+    private static class JarEntryLocation {
+        final FSResource jarFile;
+        final String entryName;
+
+        private JarEntryLocation(FSResource jarFile, String entryName) {
+            this.jarFile = jarFile;
+            this.entryName = entryName;
+        }
+
+        static @Nullable JarEntryLocation of(URL url) {
+            if(!"jar".equals(url.getProtocol())) return null;
+            final String urlPath = url.getPath();
+            final int separatorIndex = urlPath.indexOf("!/");
+            if(separatorIndex < 0) return null;
+            try {
+                final FSResource jarFile = new FSResource(new URI(urlPath.substring(0, separatorIndex))); // before '!'
+                final @Nullable String entryPath = new URI(urlPath.substring(separatorIndex + 2)).getPath(); // + 2 to skip past '!/'
+                if(entryPath == null) return null;
+                return new JarEntryLocation(jarFile, entryPath);
+            } catch(URISyntaxException | IllegalArgumentException | FileSystemNotFoundException | ResourceRuntimeException e) {
+                return null; // Not a local JAR file: let the caller fall back to the URL connection.
+            }
+        }
+    }
+}
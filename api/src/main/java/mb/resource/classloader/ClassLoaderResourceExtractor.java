@@ -0,0 +1,329 @@
+package mb.resource.classloader;
+
+import mb.resource.ResourceRuntimeException;
+import mb.resource.fs.FSResource;
+import mb.resource.hash.HashFunction;
+import mb.resource.hash.Hasher;
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
+import mb.resource.util.AsyncUtil;
+import mb.resource.util.BufferUtil;
+import mb.resource.util.SeparatorUtil;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/**
+ * Extracts the files of a class loader directory, merged over all its {@link ClassLoaderResource#getLocations()
+ * locations}, into a directory on the local filesystem, so that tools that need native files do not have to unpack JAR
+ * files themselves on every startup.
+ *
+ * Each class loader directory is extracted into a subdirectory of the cache directory whose name is a SHA-256 hash of
+ * the path of the class loader directory and the paths of its locations. Next to it, a manifest records the size and
+ * last modified time of the JAR files it was extracted from, and the size and CRC-32 of each extracted entry.
+ * Extracting again with unchanged JAR files only reads the manifest, the attributes of the JAR files, and checks that
+ * the extracted files still exist; extracted files that were deleted are extracted again. When a JAR file has changed,
+ * its entries are compared against the manifest by size and CRC-32 from the central directory of the JAR file, and only
+ * changed entries are extracted, in parallel in a fork-join pool, which defaults to the {@link
+ * AsyncUtil#getDefaultIOPool() default I/O pool}. Entries that no longer exist are deleted. Files from directory
+ * locations are compared by size and last modified time, which requires walking those directories on every extraction.
+ *
+ * When a file is in multiple locations, directories take precedence over JAR files, and the location that comes first
+ * in the class loader takes precedence, as in the {@link ClassLoaderResourceIndex index}. Files are written atomically,
+ * and the manifest is written last, so that an interrupted extraction is continued by the next extraction.
+ */
+public class ClassLoaderResourceExtractor {
+    private static final String manifestHeader = "mb.resource.classloader.extract 1";
+    private static final String manifestExtension = ".manifest";
+    private static final int entriesPerTask = 16;
+
+    private final FSResource cacheDirectory;
+    private final ForkJoinPool pool;
+
+
+    /**
+     * @param cacheDirectory Directory to extract into.
+     * @param pool           Pool to extract entries in.
+     */
+    public ClassLoaderResourceExtractor(FSResource cacheDirectory, ForkJoinPool pool) {
+        this.cacheDirectory = cacheDirectory;
+        this.pool = pool;
+    }
+
+    /**
+     * Creates an extractor that extracts entries in the {@link AsyncUtil#getDefaultIOPool() default I/O pool}.
+     *
+     * @param cacheDirectory Directory to extract into.
+     */
+    public ClassLoaderResourceExtractor(FSResource cacheDirectory) {
+        this(cacheDirectory, AsyncUtil.getDefaultIOPool());
+    }
+
+
+    /**
+     * Extracts the files of {@code directory} and its subdirectories into the cache directory, skipping files that are
+     * unchanged since the previous extraction.
+     *
+     * @return Directory containing the extracted files.
+     * @throws ResourceRuntimeException when {@code directory} has no locations.
+     * @throws IOException              when reading a location or writing an extracted file fails. Failures to write
+     *                                  other files are added as suppressed exceptions.
+     */
+    public FSResource extract(ClassLoaderResource directory) throws IOException {
+        final ClassLoaderResourceLocations<FSResource> locations = directory.getLocations();
+        final String key = key(directory, locations);
+        final FSResource targetDirectory = cacheDirectory.appendSegment(key);
+        final FSResource manifestFile = cacheDirectory.appendSegment(key + manifestExtension);
+
+        final ArrayList<String> jarFileLines = new ArrayList<>();
+        for(JarFileWithPath<FSResource> jarFile : locations.jarFiles) {
+            jarFileLines.add("J " + jarFile.file.getSize() + " " + jarFile.file.getLastModifiedTime().toEpochMilli() + " " + jarFile.file.getJavaPath().toAbsolutePath());
+        }
+        final @Nullable Manifest previous = Manifest.read(manifestFile);
+        if(previous != null && locations.directories.isEmpty() && previous.jarFileLines.equals(jarFileLines) && allExtracted(targetDirectory, previous)) {
+            return targetDirectory; // Unchanged JAR files and no deleted files: nothing to extract.
+        }
+
+        final LinkedHashMap<String, Source> sources = collectSources(directory, locations);
+        final ArrayList<Map.Entry<String, Source>> changed = new ArrayList<>();
+        for(Map.Entry<String, Source> entry : sources.entrySet()) {
+            final @Nullable String previousStamp = previous != null ? previous.entries.get(entry.getKey()) : null;
+            if(!entry.getValue().stamp.equals(previousStamp) || !Files.exists(resolve(targetDirectory, entry.getKey()))) {
+                changed.add(entry);
+            }
+        }
+
+        targetDirectory.ensureDirectoryExists();
+        final ConcurrentLinkedQueue<IOException> failures = new ConcurrentLinkedQueue<>();
+        final ExtractTask task = new ExtractTask(directory.getCache().getJarFilePool(), targetDirectory, changed, 0, changed.size(), failures);
+        if(changed.size() <= entriesPerTask) {
+            task.compute(); // Not worth the overhead of submitting to the pool.
+        } else {
+            pool.invoke(task);
+        }
+        if(previous != null) {
+            for(String path : previous.entries.keySet()) {
+                if(!sources.containsKey(path)) {
+                    try {
+                        Files.deleteIfExists(resolve(targetDirectory, path));
+                    } catch(IOException e) {
+                        failures.add(e);
+                    }
+                }
+            }
+        }
+        final @Nullable IOException failure = failures.poll();
+        if(failure != null) {
+            for(IOException suppressed : failures) {
+                failure.addSuppressed(suppressed);
+            }
+            throw failure; // Do not write the manifest, so that the next extraction tries again.
+        }
+
+        final StringBuilder manifest = new StringBuilder(manifestHeader).append('\n');
+        for(String line : jarFileLines) {
+            manifest.append(line).append('\n');
+        }
+        for(Map.Entry<String, Source> entry : sources.entrySet()) {
+            manifest.append("E ").append(entry.getValue().stamp).append(' ').append(entry.getKey()).append('\n');
+        }
+        manifestFile.writeBytesAtomic(manifest.toString().getBytes(StandardCharsets.UTF_8), true);
+        return targetDirectory;
+    }
+
+
+    private static boolean allExtracted(FSResource targetDirectory, Manifest manifest) throws IOException {
+        if(!targetDirectory.isDirectory()) return false;
+        for(String path : manifest.entries.keySet()) {
+            if(!Files.exists(resolve(targetDirectory, path))) return false;
+        }
+        return true;
+    }
+
+    private static String key(ClassLoaderResource directory, ClassLoaderResourceLocations<FSResource> locations) {
+        final Hasher hasher = HashFunction.ofSha256().newHasher();
+        hasher.update(directory.getPath().getIdAsString() + '\n', StandardCharsets.UTF_8);
+        for(FSResource location : locations.directories) {
+            hasher.update("D " + location.getJavaPath().toAbsolutePath() + '\n', StandardCharsets.UTF_8);
+        }
+        for(JarFileWithPath<FSResource> jarFile : locations.jarFiles) {
+            hasher.update("J " + jarFile.file.getJavaPath().toAbsolutePath() + '!' + jarFile.path + '\n', StandardCharsets.UTF_8);
+        }
+        return hasher.finish().toHexString();
+    }
+
+    /**
+     * Collects the files to extract, from relative path (separated by {@code /}) to the location to extract it from.
+     */
+    private static LinkedHashMap<String, Source> collectSources(ClassLoaderResource directory, ClassLoaderResourceLocations<FSResource> locations) throws IOException {
+        final LinkedHashMap<String, Source> sources = new LinkedHashMap<>();
+        for(FSResource location : locations.directories) {
+            if(!location.isDirectory()) continue;
+            final Path locationPath = location.getJavaPath();
+            try(final Stream<FSResource> stream = location.walk(ResourceWalker.ofTrue(), ResourceMatcher.ofFile())) {
+                for(FSResource file : (Iterable<FSResource>)stream::iterator) {
+                    final String path = toRelativePath(locationPath.relativize(file.getJavaPath()));
+                    if(sources.containsKey(path)) continue;
+                    sources.put(path, new Source(file, null, file.getSize() + " t" + file.getLastModifiedTime().toEpochMilli()));
+                }
+            }
+        }
+        for(JarFileWithPath<FSResource> jarFile : locations.jarFiles) {
+            final String prefix = ClassLoaderResourceCache.trimSeparators(jarFile.path);
+            for(Map.Entry<String, JarEntryMetadata> entry : directory.getCache().getJarEntries(jarFile.file).entrySet()) {
+                final JarEntryMetadata metadata = entry.getValue();
+                final String name = entry.getKey();
+                if(metadata.directory) continue;
+                final String path;
+                if(prefix.isEmpty()) {
+                    path = name;
+                } else if(name.startsWith(prefix) && name.length() > prefix.length() && name.charAt(prefix.length()) == '/') {
+                    path = name.substring(prefix.length() + 1);
+                } else {
+                    continue;
+                }
+                if(!isSafeRelativePath(path) || sources.containsKey(path)) continue;
+                sources.put(path, new Source(jarFile.file, name, metadata.size + " c" + metadata.crc));
+            }
+        }
+        return sources;
+    }
+
+    private static String toRelativePath(Path path) {
+        final ArrayList<String> segments = new ArrayList<>();
+        for(Path segment : path) {
+            segments.add(segment.toString());
+        }
+        return String.join(SeparatorUtil.unixSeparator, segments);
+    }
+
+    /**
+     * Checks that {@code path} stays inside the target directory, which may not be the case for malicious JAR entries.
+     */
+    private static boolean isSafeRelativePath(String path) {
+        for(String segment : path.split("/", -1)) {
+            if(segment.isEmpty() || segment.equals(".") || segment.equals("..") || segment.contains("\\")) return false;
+        }
+        return true;
+    }
+
+    private static Path resolve(FSResource targetDirectory, String path) {
+        return targetDirectory.getJavaPath().resolve(path);
+    }
+
+
+    /**
+     * Location of a file to extract: a file in a directory location, or an entry of a JAR file.
+     */
+    private static class Source {
+        final FSResource file;
+        final @Nullable String entryName;
+        // Size and CRC-32 or last modified time, to compare against the manifest.
+        final String stamp;
+
+        Source(FSResource file, @Nullable String entryName, String stamp) {
+            this.file = file;
+            this.entryName = entryName;
+            this.stamp = stamp;
+        }
+    }
+
+    private static class Manifest {
+        final ArrayList<String> jarFileLines = new ArrayList<>();
+        // Stamp of each extracted file, from relative path to stamp.
+        final HashMap<String, String> entries = new HashMap<>();
+
+        static @Nullable Manifest read(FSResource manifestFile) throws IOException {
+            if(!manifestFile.exists()) return null;
+            final Manifest manifest = new Manifest();
+            try(final Stream<String> lines = manifestFile.lines(StandardCharsets.UTF_8)) {
+                boolean first = true;
+                for(String line : (Iterable<String>)lines::iterator) {
+                    if(first) {
+                        if(!manifestHeader.equals(line)) return null; // Different version: extract everything.
+                        first = false;
+                    } else if(line.startsWith("J ")) {
+                        manifest.jarFileLines.add(line);
+                    } else if(line.startsWith("E ")) {
+                        // Format: 'E <size> <c<crc>|t<time>> <path>', where the path may contain spaces.
+                        final int sizeEnd = line.indexOf(' ', 2);
+                        final int stampEnd = sizeEnd < 0 ? -1 : line.indexOf(' ', sizeEnd + 1);
+                        if(stampEnd < 0) return null; // Corrupt: extract everything.
+                        manifest.entries.put(line.substring(stampEnd + 1), line.substring(2, stampEnd));
+                    }
+                }
+            }
+            return manifest;
+        }
+    }
+
+    private static class ExtractTask extends RecursiveAction {
+        private final JarFilePool jarFilePool;
+        private final FSResource targetDirectory;
+        private final ArrayList<Map.Entry<String, Source>> entries;
+        private final int start;
+        private final int end;
+        private final ConcurrentLinkedQueue<IOException> failures;
+
+        ExtractTask(JarFilePool jarFilePool, FSResource targetDirectory, ArrayList<Map.Entry<String, Source>> entries, int start, int end, ConcurrentLinkedQueue<IOException> failures) {
+            this.jarFilePool = jarFilePool;
+            this.targetDirectory = targetDirectory;
+            this.entries = entries;
+            this.start = start;
+            this.end = end;
+            this.failures = failures;
+        }
+
+        @Override protected void compute() {
+            if(end - start <= entriesPerTask) {
+                for(int i = start; i < end; ++i) {
+                    final Map.Entry<String, Source> entry = entries.get(i);
+                    try {
+                        extract(entry.getKey(), entry.getValue());
+                    } catch(IOException e) {
+                        failures.add(e);
+                    }
+                }
+            } else {
+                final int middle = (start + end) >>> 1;
+                invokeAll(
+                    new ExtractTask(jarFilePool, targetDirectory, entries, start, middle, failures),
+                    new ExtractTask(jarFilePool, targetDirectory, entries, middle, end, failures)
+                );
+            }
+        }
+
+        private void extract(String path, Source source) throws IOException {
+            final FSResource target = targetDirectory.appendRelativePath(path);
+            target.createParents();
+            final @Nullable InputStream inputStream = source.entryName != null
+                ? jarFilePool.openEntry(source.file.getJavaPath(), source.entryName)
+                : source.file.openRead();
+            if(inputStream == null) {
+                throw new IOException("Cannot extract entry '" + source.entryName + "' of JAR file '" + source.file + "'; it does not exist");
+            }
+            final byte[] buffer = BufferUtil.acquire();
+            try(final InputStream in = inputStream; final OutputStream out = target.openWriteAtomic(false)) {
+                int read;
+                while((read = in.read(buffer, 0, buffer.length)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                BufferUtil.release(buffer);
+            }
+        }
+    }
+}
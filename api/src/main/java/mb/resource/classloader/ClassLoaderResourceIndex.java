@@ -0,0 +1,226 @@
+package mb.resource.classloader;
+
+import mb.resource.ResourceRuntimeException;
+import mb.resource.fs.FSResource;
+import mb.resource.hierarchical.HierarchicalResourceType;
+import mb.resource.util.SeparatorUtil;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Index of the directories of a class loader, used to {@link ClassLoaderResource#list list} and {@link
+ * ClassLoaderResource#walk walk} class loader resources. The index is shared by all resources of a {@link
+ * ClassLoaderResourceRegistry}, and is built lazily: the children of a directory are collected the first time the
+ * directory is listed, by merging the children of all its {@link ClassLoaderResource#getLocations() locations}. The
+ * entries of JAR files are taken from the {@link ClassLoaderResourceCache cache} of the registry, which reads each JAR
+ * file once.
+ *
+ * When a name is a file in one location and a directory in another, the type of the location that comes first in the
+ * class loader is used. The class loader only returns a directory inside a JAR file as a location when the JAR file has
+ * an entry for the directory. Therefore, the JAR file locations of a directory also include those of its parent in
+ * which the directory exists implicitly, as the parent of an entry. The JAR file locations of the root directory are
+ * the JAR files on the classpath of {@link URLClassLoader URL class loaders}, and the JAR files with a manifest. The
+ * index assumes that the classpath does not change; call {@link #invalidate()} when it does.
+ *
+ * Thread-safe.
+ */
+public class ClassLoaderResourceIndex {
+    private final ClassLoaderResourceCache cache;
+    // Merged children of directories, from the path of a directory (without leading or trailing separators) to the
+    // names of its children, sorted by name.
+    private final ConcurrentHashMap<String, SortedMap<String, HierarchicalResourceType>> directories = new ConcurrentHashMap<>();
+    // Locations of directories inside JAR files, from the path of a directory to its locations, without duplicate JAR
+    // files, in class loader order.
+    private final ConcurrentHashMap<String, List<JarFileWithPath<FSResource>>> jarLocations = new ConcurrentHashMap<>();
+    // Children of directories inside JAR files, per JAR file.
+    private final ConcurrentHashMap<FSResource, Map<String, SortedMap<String, HierarchicalResourceType>>> jarFiles = new ConcurrentHashMap<>();
+
+
+    /**
+     * @param cache Cache to get the entries of JAR files from.
+     */
+    public ClassLoaderResourceIndex(ClassLoaderResourceCache cache) {
+        this.cache = cache;
+    }
+
+
+    /**
+     * Gets the children of {@code directory}, merged over all its locations, from the index.
+     *
+     * @return Map from child name to type, sorted by name. Empty if {@code directory} does not exist or is not a
+     * directory.
+     * @throws IOException when listing a location fails.
+     */
+    public SortedMap<String, HierarchicalResourceType> getChildren(ClassLoaderResource directory) throws IOException {
+        final String path = toIndexPath(directory);
+        final @Nullable SortedMap<String, HierarchicalResourceType> children = directories.get(path);
+        if(children != null) return children;
+        final SortedMap<String, HierarchicalResourceType> collected = Collections.unmodifiableSortedMap(collectChildren(directory));
+        final @Nullable SortedMap<String, HierarchicalResourceType> existing = directories.putIfAbsent(path, collected);
+        return existing != null ? existing : collected;
+    }
+
+    /**
+     * Gets the type of {@code resource} from the {@link #getChildren children} of its parent in the index.
+     *
+     * @return Type of the resource, or {@code null} if its parent does not contain it.
+     * @throws IOException when listing a location of its parent fails.
+     */
+    public @Nullable HierarchicalResourceType getType(ClassLoaderResource resource) throws IOException {
+        final @Nullable String leaf = resource.getLeaf();
+        final @Nullable ClassLoaderResource parent = resource.getParentDirectory();
+        if(leaf == null || parent == null) {
+            return HierarchicalResourceType.Directory; // The root of the class loader is a directory.
+        }
+        return getChildren(parent).get(leaf);
+    }
+
+    /**
+     * Removes all entries from the index, so that it is rebuilt when it is used again.
+     */
+    public void invalidate() {
+        directories.clear();
+        jarLocations.clear();
+        jarFiles.clear();
+    }
+
+
+    private TreeMap<String, HierarchicalResourceType> collectChildren(ClassLoaderResource directory) throws IOException {
+        final TreeMap<String, HierarchicalResourceType> children = new TreeMap<>();
+        for(FSResource location : getLocations(directory).directories) {
+            if(!location.isDirectory()) continue;
+            try(final Stream<FSResource> stream = location.list()) {
+                for(FSResource child : (Iterable<FSResource>)stream::iterator) {
+                    final @Nullable String name = child.getLeaf();
+                    if(name == null) continue;
+                    children.putIfAbsent(name, child.isDirectory() ? HierarchicalResourceType.Directory : HierarchicalResourceType.File);
+                }
+            }
+        }
+        for(JarFileWithPath<FSResource> jarFile : getJarLocations(directory)) {
+            final @Nullable SortedMap<String, HierarchicalResourceType> jarChildren = getJarFileDirectories(jarFile.file).get(ClassLoaderResourceCache.trimSeparators(jarFile.path));
+            if(jarChildren == null) continue;
+            for(Map.Entry<String, HierarchicalResourceType> entry : jarChildren.entrySet()) {
+                children.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Gets the locations of {@code directory} inside JAR files: the locations that the class loader returns, followed
+     * by the locations inside JAR files of its parent in which {@code directory} exists implicitly.
+     */
+    private List<JarFileWithPath<FSResource>> getJarLocations(ClassLoaderResource directory) throws IOException {
+        final String path = toIndexPath(directory);
+        final @Nullable List<JarFileWithPath<FSResource>> cached = jarLocations.get(path);
+        if(cached != null) return cached;
+        final LinkedHashMap<FSResource, JarFileWithPath<FSResource>> locations = new LinkedHashMap<>();
+        for(JarFileWithPath<FSResource> jarFile : getLocations(directory).jarFiles) {
+            locations.putIfAbsent(jarFile.file, jarFile);
+        }
+        final @Nullable ClassLoaderResource parent = directory.getParentDirectory();
+        final @Nullable String leaf = directory.getLeaf();
+        if(parent == null || leaf == null) {
+            for(FSResource jarFile : findClasspathJarFiles(directory)) {
+                locations.putIfAbsent(jarFile, new JarFileWithPath<>(jarFile, SeparatorUtil.unixSeparator));
+            }
+        } else {
+            for(JarFileWithPath<FSResource> parentLocation : getJarLocations(parent)) {
+                if(locations.containsKey(parentLocation.file)) continue;
+                final String parentPath = ClassLoaderResourceCache.trimSeparators(parentLocation.path);
+                final String childPath = parentPath.isEmpty() ? leaf : parentPath + SeparatorUtil.unixSeparator + leaf;
+                if(getJarFileDirectories(parentLocation.file).containsKey(childPath)) {
+                    locations.put(parentLocation.file, new JarFileWithPath<>(parentLocation.file, SeparatorUtil.unixSeparator + childPath + SeparatorUtil.unixSeparator));
+                }
+            }
+        }
+        final List<JarFileWithPath<FSResource>> collected = Collections.unmodifiableList(new ArrayList<>(locations.values()));
+        final @Nullable List<JarFileWithPath<FSResource>> existing = jarLocations.putIfAbsent(path, collected);
+        return existing != null ? existing : collected;
+    }
+
+    /**
+     * Finds the JAR files on the classpath of the class loader of {@code root}, which the class loader does not return
+     * as locations of the root directory. Only finds JAR files on the classpath of {@link URLClassLoader URL class
+     * loaders}, and JAR files that have a manifest.
+     */
+    private static Set<FSResource> findClasspathJarFiles(ClassLoaderResource root) throws IOException {
+        final LinkedHashSet<FSResource> jarFiles = new LinkedHashSet<>();
+        for(@Nullable ClassLoader classLoader = root.getClassLoader(); classLoader != null; classLoader = classLoader.getParent()) {
+            if(!(classLoader instanceof URLClassLoader)) continue;
+            for(URL url : ((URLClassLoader)classLoader).getURLs()) {
+                if(!"file".equals(url.getProtocol()) || !url.getPath().endsWith(".jar")) continue;
+                try {
+                    jarFiles.add(new FSResource(url.toURI()));
+                } catch(URISyntaxException | IllegalArgumentException e) {
+                    // Not a local file: ignore.
+                }
+            }
+        }
+        for(JarFileWithPath<FSResource> manifest : getLocations(root.appendRelativePath("META-INF/MANIFEST.MF")).jarFiles) {
+            jarFiles.add(manifest.file);
+        }
+        return jarFiles;
+    }
+
+    private static ClassLoaderResourceLocations<FSResource> getLocations(ClassLoaderResource resource) throws IOException {
+        try {
+            return resource.getLocations();
+        } catch(ResourceRuntimeException e) {
+            return new ClassLoaderResourceLocations<>(); // No locations: resource does not exist.
+        }
+    }
+
+    private Map<String, SortedMap<String, HierarchicalResourceType>> getJarFileDirectories(FSResource jarFile) throws IOException {
+        final @Nullable Map<String, SortedMap<String, HierarchicalResourceType>> directories = jarFiles.get(jarFile);
+        if(directories != null) return directories;
+        final Map<String, SortedMap<String, HierarchicalResourceType>> read = toDirectories(cache.getJarEntries(jarFile));
+        final @Nullable Map<String, SortedMap<String, HierarchicalResourceType>> existing = jarFiles.putIfAbsent(jarFile, read);
+        return existing != null ? existing : read;
+    }
+
+    /**
+     * Converts the entries of a JAR file into a map from directory path to children, including directories that only
+     * exist implicitly as the parent of an entry.
+     */
+    private static Map<String, SortedMap<String, HierarchicalResourceType>> toDirectories(Map<String, JarEntryMetadata> entries) {
+        final HashMap<String, SortedMap<String, HierarchicalResourceType>> directories = new HashMap<>();
+        for(Map.Entry<String, JarEntryMetadata> entry : entries.entrySet()) {
+            String path = entry.getKey();
+            HierarchicalResourceType type = entry.getValue().directory ? HierarchicalResourceType.Directory : HierarchicalResourceType.File;
+            while(!path.isEmpty()) {
+                final int separatorIndex = path.lastIndexOf('/');
+                final String parent = separatorIndex < 0 ? "" : path.substring(0, separatorIndex);
+                final String name = path.substring(separatorIndex + 1);
+                final SortedMap<String, HierarchicalResourceType> children = directories.computeIfAbsent(parent, p -> new TreeMap<>());
+                final @Nullable HierarchicalResourceType existing = children.get(name);
+                if(existing == HierarchicalResourceType.Directory || existing == type) break; // Parents were already added.
+                children.put(name, type);
+                path = parent;
+                type = HierarchicalResourceType.Directory;
+            }
+        }
+        return directories;
+    }
+
+    private static String toIndexPath(ClassLoaderResource resource) {
+        return String.join(SeparatorUtil.unixSeparator, resource.getPath().getSegments());
+    }
+}
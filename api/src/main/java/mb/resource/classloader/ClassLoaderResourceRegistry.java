@@ -21,6 +21,8 @@ public class ClassLoaderResourceRegistry implements ResourceRegistry {
     private final ClassLoader classLoader;
     private final ClassLoaderUrlResolver urlResolver;
     private final ClassLoaderToNativeResolver toNativeResolver;
+    private final ClassLoaderResourceCache cache;
+    private final ClassLoaderResourceIndex index;
 
 
     public ClassLoaderResourceRegistry(
@@ -33,6 +35,8 @@ public class ClassLoaderResourceRegistry implements ResourceRegistry {
         this.classLoader = classLoader;
         this.urlResolver = urlResolver;
         this.toNativeResolver = toNativeResolver;
+        this.cache = new ClassLoaderResourceCache(classLoader);
+        this.index = new ClassLoaderResourceIndex(cache);
     }
 
     public ClassLoaderResourceRegistry(String qualifier, ClassLoader classLoader, ClassLoaderUrlResolver urlResolver) {
@@ -106,6 +110,33 @@ public class ClassLoaderResourceRegistry implements ResourceRegistry {
     }
 
 
+    /**
+     * Gets the cache of resolved URLs and JAR entry metadata of this registry, which is shared by all its resources.
+     */
+    public ClassLoaderResourceCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets the index used to list and walk the resources of this registry, which is shared by all its resources.
+     */
+    public ClassLoaderResourceIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Invalidates the {@link #getCache() cache} and {@link #getIndex() index} of this registry, which assume that the
+     * classpath of the class loader does not change, and closes the JAR files opened by the cache once they are no
+     * longer being read. Call this when the classpath changes, or when the class loader is no longer used.
+     *
+     * @throws java.io.UncheckedIOException when closing a JAR file fails.
+     */
+    public void invalidate() {
+        cache.invalidate();
+        index.invalidate();
+    }
+
+
     public String getPathIdentifierForClass(Class<?> clazz) {
         return clazz.getCanonicalName().replace(".", SeparatorUtil.unixSeparator) + ".class";
     }
@@ -121,15 +152,15 @@ public class ClassLoaderResourceRegistry implements ResourceRegistry {
 
 
     public ClassLoaderResource getResource(String path) {
-        return new ClassLoaderResource(classLoader, urlResolver, toNativeResolver, path, qualifier);
+        return new ClassLoaderResource(classLoader, urlResolver, toNativeResolver, cache, index, path, qualifier);
     }
 
     public ClassLoaderResource getResource(Class<?> clazz) {
-        return new ClassLoaderResource(classLoader, urlResolver, toNativeResolver, getPathIdentifierForClass(clazz), qualifier);
+        return new ClassLoaderResource(classLoader, urlResolver, toNativeResolver, cache, index, getPathIdentifierForClass(clazz), qualifier);
     }
 
     public ClassLoaderResource getResource(SegmentsPath path) {
-        return new ClassLoaderResource(classLoader, urlResolver, toNativeResolver, path);
+        return new ClassLoaderResource(classLoader, urlResolver, toNativeResolver, cache, index, path);
     }
 
 
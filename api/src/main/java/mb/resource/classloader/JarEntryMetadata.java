@@ -0,0 +1,67 @@
+package mb.resource.classloader;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.zip.ZipEntry;
+
+/**
+ * Metadata of an entry in a JAR file, as read from the central directory of the JAR file.
+ */
+public class JarEntryMetadata implements Serializable {
+    /**
+     * Whether the entry is a directory.
+     */
+    public final boolean directory;
+    /**
+     * Uncompressed size of the entry in bytes, or {@code -1} if unknown.
+     */
+    public final long size;
+    /**
+     * Moment the entry was last modified, or {@link Instant#EPOCH} if unknown.
+     */
+    public final Instant lastModifiedTime;
+    /**
+     * CRC-32 checksum of the uncompressed content of the entry, or {@code -1} if unknown.
+     */
+    public final long crc;
+
+
+    public JarEntryMetadata(boolean directory, long size, Instant lastModifiedTime, long crc) {
+        this.directory = directory;
+        this.size = size;
+        this.lastModifiedTime = lastModifiedTime;
+        this.crc = crc;
+    }
+
+    public static JarEntryMetadata of(ZipEntry entry) {
+        final long time = entry.getTime();
+        return new JarEntryMetadata(entry.isDirectory(), entry.getSize(), time == -1 ? Instant.EPOCH : Instant.ofEpochMilli(time), entry.getCrc());
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final JarEntryMetadata that = (JarEntryMetadata)o;
+        return directory == that.directory && size == that.size && crc == that.crc && lastModifiedTime.equals(that.lastModifiedTime);
+    }
+
+    @Override public int hashCode() {
+        int result = Boolean.hashCode(directory);
+        result = 31 * result + Long.hashCode(size);
+        result = 31 * result + lastModifiedTime.hashCode();
+        result = 31 * result + Long.hashCode(crc);
+        return result;
+    }
+
+    @Override public String toString() {
+        return "JarEntryMetadata{" +
+            "directory=" + directory +
+            ", size=" + size +
+            ", lastModifiedTime=" + lastModifiedTime +
+            ", crc=" + crc +
+            '}';
+    }
+}
@@ -0,0 +1,215 @@
+package mb.resource.classloader;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * Pool of open {@link JarFile} handles, which opens each JAR file once and serves its entries to concurrent readers.
+ * Each open entry stream holds a reference to the handle of its JAR file, so that {@link #evict evicting} a JAR file,
+ * for example when the plugin it belongs to is unloaded, only closes the handle once all its entry streams are closed.
+ * A JAR file that is used again after it is evicted is opened again.
+ *
+ * Unlike reading entries through {@code jar:} URL connections, which share JAR files in a JVM-wide cache that can be
+ * closed by any connection, handles are only closed by the pool.
+ *
+ * Thread-safe.
+ */
+public class JarFilePool implements AutoCloseable {
+    private final ConcurrentHashMap<Path, Handle> handles = new ConcurrentHashMap<>();
+
+
+    /**
+     * Opens the entry with given {@code entryName} of {@code jarFile} for reading, opening the JAR file if it is not
+     * open yet. The JAR file handle stays open at least until the returned stream is closed.
+     *
+     * @return Input stream of the entry, or {@code null} if the JAR file has no entry with that name.
+     * @throws IOException when opening the JAR file or the entry fails.
+     */
+    public @Nullable InputStream openEntry(Path jarFile, String entryName) throws IOException {
+        final Handle handle = retain(jarFile);
+        try {
+            final @Nullable ZipEntry entry = handle.jarFile.getEntry(entryName);
+            if(entry == null) {
+                handle.release();
+                return null;
+            }
+            return new EntryInputStream(handle.jarFile.getInputStream(entry), handle);
+        } catch(IOException | RuntimeException e) {
+            handle.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the metadata of the entry with given {@code entryName} of {@code jarFile} from its central directory,
+     * without opening the entry.
+     *
+     * @return Metadata of the entry, or {@code null} if the JAR file has no entry with that name.
+     * @throws IOException when opening the JAR file fails.
+     */
+    public @Nullable JarEntryMetadata getEntryMetadata(Path jarFile, String entryName) throws IOException {
+        final Handle handle = retain(jarFile);
+        try {
+            final @Nullable ZipEntry entry = handle.jarFile.getEntry(entryName);
+            return entry != null ? JarEntryMetadata.of(entry) : null;
+        } finally {
+            handle.release();
+        }
+    }
+
+    /**
+     * Gets the metadata of all entries of {@code jarFile} from its central directory, without opening the entries.
+     *
+     * @return Map from entry name, as stored in the JAR file, to metadata.
+     * @throws IOException when opening the JAR file fails.
+     */
+    public Map<String, JarEntryMetadata> getEntriesMetadata(Path jarFile) throws IOException {
+        final Handle handle = retain(jarFile);
+        try {
+            final HashMap<String, JarEntryMetadata> entries = new HashMap<>();
+            final Enumeration<JarEntry> jarEntries = handle.jarFile.entries();
+            while(jarEntries.hasMoreElements()) {
+                final ZipEntry entry = jarEntries.nextElement();
+                entries.put(entry.getName(), JarEntryMetadata.of(entry));
+            }
+            return entries;
+        } finally {
+            handle.release();
+        }
+    }
+
+    /**
+     * Evicts {@code jarFile} from the pool. Its handle is closed immediately when no entry streams are open, or
+     * otherwise when the last entry stream is closed.
+     *
+     * @throws IOException when closing the handle fails.
+     */
+    public void evict(Path jarFile) throws IOException {
+        final @Nullable Handle handle = handles.remove(jarFile);
+        if(handle != null) {
+            handle.evict();
+        }
+    }
+
+    /**
+     * Evicts all JAR files from the pool.
+     *
+     * @throws IOException when closing one or more handles fails. Failures other than the first are added as
+     *                     suppressed exceptions.
+     */
+    public void evictAll() throws IOException {
+        @Nullable IOException exception = null;
+        for(Path jarFile : new ArrayList<>(handles.keySet())) {
+            try {
+                evict(jarFile);
+            } catch(IOException e) {
+                if(exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if(exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Gets whether {@code jarFile} is open in this pool.
+     */
+    public boolean isOpen(Path jarFile) {
+        return handles.containsKey(jarFile);
+    }
+
+    /**
+     * {@link #evictAll() Evicts} all JAR files from the pool.
+     */
+    @Override public void close() throws IOException {
+        evictAll();
+    }
+
+
+    private Handle retain(Path jarFile) throws IOException {
+        while(true) {
+            @Nullable Handle handle = handles.get(jarFile);
+            if(handle == null) {
+                final Handle opened = new Handle(new JarFile(jarFile.toFile()));
+                handle = handles.putIfAbsent(jarFile, opened);
+                if(handle == null) {
+                    handle = opened;
+                } else {
+                    opened.jarFile.close(); // Opened concurrently by another thread; use theirs.
+                }
+            }
+            if(handle.retain()) {
+                return handle;
+            }
+            handles.remove(jarFile, handle); // Evicted concurrently; open it again.
+        }
+    }
+
+
+    private static class Handle {
+        final JarFile jarFile;
+        private int references = 0;
+        private boolean evicted = false;
+
+        Handle(JarFile jarFile) {
+            this.jarFile = jarFile;
+        }
+
+        synchronized boolean retain() {
+            if(evicted) return false;
+            ++references;
+            return true;
+        }
+
+        synchronized void release() throws IOException {
+            --references;
+            if(evicted && references == 0) {
+                jarFile.close();
+            }
+        }
+
+        synchronized void evict() throws IOException {
+            if(evicted) return;
+            evicted = true;
+            if(references == 0) {
+                jarFile.close();
+            }
+        }
+    }
+
+    private static class EntryInputStream extends FilterInputStream {
+        private final Handle handle;
+        private boolean closed = false;
+
+        EntryInputStream(InputStream inputStream, Handle handle) {
+            super(inputStream);
+            this.handle = handle;
+        }
+
+        @Override public void close() throws IOException {
+            if(closed) return;
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                handle.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package mb.resource.compress;
+
+import mb.resource.ReadableResource;
+import mb.resource.ResourceRuntimeException;
+import mb.resource.WritableResource;
+import mb.resource.util.BufferUtil;
+import mb.resource.util.ContentUtil;
+import mb.resource.util.DecodeUtil;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.time.Instant;
+
+/**
+ * A resource whose content is transparently compressed with a {@link CompressionCodec} in another resource, for example
+ * an {@link mb.resource.fs.FSResource}. Content is compressed while it is written and decompressed while it is read,
+ * without holding the entire content in memory.
+ *
+ * The {@link #getSize() size} of this resource is the logical size of the uncompressed content, while the {@link
+ * #getPhysicalSize() physical size} is the size of the compressed content. Getting the size decompresses the entire
+ * content, as the {@link CompressionCodec#getUncompressedSize estimate} of the codec is not guaranteed to be exact.
+ * That size is cached until the physical size or last modified time of the compressed content changes. The estimate of
+ * the codec is only used as a hint when reading. Writing requires the resource holding the compressed content to be a
+ * {@link WritableResource}.
+ */
+public class CompressedResource implements WritableResource {
+    private final CompressedResourceKey key;
+    private final ReadableResource compressed;
+    private final CompressionCodec codec;
+    private volatile @Nullable DecompressedSize decompressedSize;
+
+
+    public CompressedResource(String qualifier, ReadableResource compressed, CompressionCodec codec) {
+        this.key = new CompressedResourceKey(qualifier, compressed.getKey());
+        this.compressed = compressed;
+        this.codec = codec;
+    }
+
+    /**
+     * Creates a resource with the {@link CompressionCodec#getName() name} of {@code codec} as qualifier.
+     */
+    public CompressedResource(ReadableResource compressed, CompressionCodec codec) {
+        this(codec.getName(), compressed, codec);
+    }
+
+    @Override public void close() throws IOException {
+        compressed.close();
+    }
+
+
+    @Override public CompressedResourceKey getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the resource that holds the compressed content.
+     */
+    public ReadableResource getCompressed() {
+        return compressed;
+    }
+
+    public CompressionCodec getCodec() {
+        return codec;
+    }
+
+
+    @Override public boolean exists() throws IOException {
+        return compressed.exists();
+    }
+
+    @Override public boolean isReadable() throws IOException {
+        return compressed.isReadable();
+    }
+
+    @Override public Instant getLastModifiedTime() throws IOException {
+        return compressed.getLastModifiedTime();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Returns the logical size of the uncompressed content. The content is decompressed to count its bytes, as the
+     * {@link CompressionCodec#getUncompressedSize estimate} of the codec may be wrong, for example for concatenated
+     * gzip files. The counted size is cached until the physical size or last modified time of the compressed content
+     * changes.
+     */
+    @Override public long getSize() throws IOException {
+        final long physicalSize = compressed.getSize();
+        final Instant lastModified = compressed.getLastModifiedTime();
+        final @Nullable DecompressedSize decompressedSize = this.decompressedSize;
+        if(decompressedSize != null && decompressedSize.physicalSize == physicalSize && decompressedSize.lastModified.equals(lastModified)) {
+            return decompressedSize.size;
+        }
+        final byte[] buffer = BufferUtil.acquire();
+        try(final InputStream inputStream = openRead()) {
+            long count = 0;
+            int read;
+            while((read = inputStream.read(buffer, 0, buffer.length)) != -1) {
+                count += read;
+            }
+            this.decompressedSize = new DecompressedSize(physicalSize, lastModified, count);
+            return count;
+        } finally {
+            BufferUtil.release(buffer);
+        }
+    }
+
+    /**
+     * Gets the physical size of the compressed content.
+     *
+     * @return The size of the compressed content, in bytes.
+     * @throws IOException An I/O exception occurred.
+     */
+    public long getPhysicalSize() throws IOException {
+        return compressed.getSize();
+    }
+
+    @Override public InputStream openRead() throws IOException {
+        return codec.decompress(compressed.openRead());
+    }
+
+    @Override public byte[] readBytes() throws IOException {
+        try(final InputStream inputStream = openRead()) {
+            return ContentUtil.readBytes(inputStream, getSizeHint());
+        }
+    }
+
+    @Override public CharSequence readCharSequence(Charset fromCharset) throws IOException {
+        try(final InputStream inputStream = openRead()) {
+            return DecodeUtil.decode(inputStream, fromCharset, getSizeHint());
+        }
+    }
+
+
+    @Override public boolean isWritable() throws IOException {
+        return compressed instanceof WritableResource && ((WritableResource)compressed).isWritable();
+    }
+
+    @Override public void setLastModifiedTime(Instant moment) throws IOException {
+        getWritable().setLastModifiedTime(moment);
+    }
+
+    @Override public OutputStream openWrite() throws IOException {
+        return codec.compress(getWritable().openWrite());
+    }
+
+    @Override public OutputStream openWriteAppend() throws IOException {
+        throw new UnsupportedOperationException("Compressed resources do not support appending");
+    }
+
+    @Override public OutputStream openWriteExisting() throws IOException {
+        return codec.compress(getWritable().openWriteExisting());
+    }
+
+    @Override public OutputStream openWriteNew() throws IOException {
+        return codec.compress(getWritable().openWriteNew());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Without {@code skipIfIdentical}, content is compressed while writing to the {@link
+     * WritableResource#openWriteAtomic(boolean) atomic output stream} of the resource holding the compressed content.
+     */
+    @Override public OutputStream openWriteAtomic(boolean skipIfIdentical) throws IOException {
+        if(skipIfIdentical) {
+            return WritableResource.super.openWriteAtomic(true);
+        }
+        return codec.compress(getWritable().openWriteAtomic(false));
+    }
+
+    @Override public boolean writeBytesAtomic(byte[] bytes, boolean skipIfIdentical) throws IOException {
+        if(skipIfIdentical && contentEquals(bytes)) return false;
+        try(final OutputStream outputStream = openWriteAtomic(false)) {
+            outputStream.write(bytes);
+        }
+        return true;
+    }
+
+    @Override public boolean writeBytesIfChanged(byte[] bytes) throws IOException {
+        if(contentEquals(bytes)) return false;
+        writeBytes(bytes);
+        return true;
+    }
+
+
+    private WritableResource getWritable() {
+        if(!(compressed instanceof WritableResource)) {
+            throw new ResourceRuntimeException("Cannot write to compressed resource '" + key + "'; resource '" + compressed.getKey() + "' holding its compressed content is not writable");
+        }
+        return (WritableResource)compressed;
+    }
+
+    /**
+     * Gets the {@link CompressionCodec#getUncompressedSize estimated} uncompressed size if it can be estimated without
+     * decompressing, or {@code -1} otherwise. Only used where a wrong estimate is harmless.
+     */
+    private long getSizeHint() {
+        try {
+            return codec.getUncompressedSize(compressed);
+        } catch(IOException e) {
+            return -1; // Size is only used as a hint; read without it.
+        }
+    }
+
+    /**
+     * Compares the uncompressed content with {@code bytes}, comparing the estimated uncompressed size first if it can
+     * be estimated without decompressing, and otherwise decompressing until the first difference. A wrong estimate only
+     * causes identical content to be written again.
+     */
+    private boolean contentEquals(byte[] bytes) throws IOException {
+        if(!exists()) return false;
+        final long size = getSizeHint();
+        if(size >= 0 && size != bytes.length) return false;
+        try(final InputStream inputStream = openRead()) {
+            return ContentUtil.contentEquals(inputStream, bytes);
+        }
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final CompressedResource that = (CompressedResource)o;
+        if(!key.equals(that.key)) return false;
+        return codec.equals(that.codec);
+    }
+
+    @Override public int hashCode() {
+        int result = key.hashCode();
+        result = 31 * result + codec.hashCode();
+        return result;
+    }
+
+    @Override public String toString() {
+        return key.toString();
+    }
+
+
+    private static class DecompressedSize {
+        final long physicalSize;
+        final Instant lastModified;
+        final long size;
+
+        DecompressedSize(long physicalSize, Instant lastModified, long size) {
+            this.physicalSize = physicalSize;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package mb.resource.compress;
+
+import mb.resource.ResourceKey;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Key of a {@link CompressedResource compressed resource}, identified by the key of the resource that holds the
+ * compressed content. The identifier string is the {@link ResourceKey#asString() qualified string} of that key, so
+ * that the key string of a compressed resource is, for example, {@code gzip##java##file:///data/index.bin}.
+ */
+public class CompressedResourceKey implements ResourceKey {
+    private final String qualifier;
+    private final ResourceKey compressedKey;
+
+
+    public CompressedResourceKey(String qualifier, ResourceKey compressedKey) {
+        this.qualifier = qualifier;
+        this.compressedKey = compressedKey;
+    }
+
+
+    @Override public String getQualifier() {
+        return qualifier;
+    }
+
+    @Override public ResourceKey getId() {
+        return compressedKey;
+    }
+
+    @Override public String getIdAsString() {
+        return compressedKey.asString();
+    }
+
+    /**
+     * Gets the key of the resource that holds the compressed content.
+     */
+    public ResourceKey getCompressedKey() {
+        return compressedKey;
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final CompressedResourceKey that = (CompressedResourceKey)o;
+        if(!qualifier.equals(that.qualifier)) return false;
+        return compressedKey.equals(that.compressedKey);
+    }
+
+    @Override public int hashCode() {
+        int result = qualifier.hashCode();
+        result = 31 * result + compressedKey.hashCode();
+        return result;
+    }
+
+    @Override public String toString() {
+        return asString();
+    }
+}
@@ -0,0 +1,75 @@
+package mb.resource.compress;
+
+import mb.resource.ReadableResource;
+import mb.resource.Resource;
+import mb.resource.ResourceKey;
+import mb.resource.ResourceKeyString;
+import mb.resource.ResourceRegistry;
+import mb.resource.ResourceRuntimeException;
+
+/**
+ * Resource registry for {@link CompressedResource compressed resources}, whose compressed content is held by resources
+ * of another registry. For example, a registry composed with an {@link mb.resource.fs.FSResourceRegistry} compresses
+ * content into files, and can be added to a {@link mb.resource.ResourceService} to get compressed resources by key.
+ */
+public class CompressedResourceRegistry implements ResourceRegistry {
+    private final String qualifier;
+    private final ResourceRegistry compressedRegistry;
+    private final CompressionCodec codec;
+
+
+    /**
+     * @param qualifier          Qualifier of this registry.
+     * @param compressedRegistry Registry of the resources that hold the compressed content.
+     * @param codec              Codec to compress and decompress content with.
+     */
+    public CompressedResourceRegistry(String qualifier, ResourceRegistry compressedRegistry, CompressionCodec codec) {
+        this.qualifier = qualifier;
+        this.compressedRegistry = compressedRegistry;
+        this.codec = codec;
+    }
+
+    /**
+     * Creates a registry with the {@link CompressionCodec#getName() name} of {@code codec} as qualifier.
+     */
+    public CompressedResourceRegistry(ResourceRegistry compressedRegistry, CompressionCodec codec) {
+        this(codec.getName(), compressedRegistry, codec);
+    }
+
+
+    @Override public String qualifier() {
+        return qualifier;
+    }
+
+
+    @Override public CompressedResourceKey getResourceKey(ResourceKeyString keyStr) {
+        if(!keyStr.qualifierMatchesOrMissing(qualifier)) {
+            throw new ResourceRuntimeException("Qualifier of '" + keyStr + "' does not match qualifier '" + qualifier + "' of this resource registry");
+        }
+        return new CompressedResourceKey(qualifier, compressedRegistry.getResourceKey(ResourceKeyString.parse(keyStr.getId())));
+    }
+
+    @Override public CompressedResource getResource(ResourceKey key) {
+        if(!(key instanceof CompressedResourceKey)) {
+            throw new ResourceRuntimeException("Cannot get compressed resource with key '" + key + "'; it is not of type CompressedResourceKey");
+        }
+        return wrap(compressedRegistry.getResource(((CompressedResourceKey)key).getCompressedKey()));
+    }
+
+    @Override public CompressedResource getResource(ResourceKeyString keyStr) {
+        return getResource(getResourceKey(keyStr));
+    }
+
+
+    /**
+     * Gets a compressed resource whose compressed content is held by {@code compressed}.
+     *
+     * @throws ResourceRuntimeException when {@code compressed} is not a {@link ReadableResource readable resource}.
+     */
+    public CompressedResource wrap(Resource compressed) {
+        if(!(compressed instanceof ReadableResource)) {
+            throw new ResourceRuntimeException("Cannot get compressed resource for '" + compressed + "'; it is not a readable resource");
+        }
+        return new CompressedResource(qualifier, (ReadableResource)compressed, codec);
+    }
+}
@@ -0,0 +1,65 @@
+package mb.resource.compress;
+
+import mb.resource.ReadableResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.zip.Deflater;
+
+/**
+ * Codec that compresses and decompresses the content of {@link CompressedResource compressed resources} while it is
+ * streamed.
+ */
+public interface CompressionCodec extends Serializable {
+    /**
+     * Gets the name of this codec, which is the default {@link CompressedResourceRegistry#qualifier() qualifier} of
+     * registries for resources compressed with this codec.
+     */
+    String getName();
+
+    /**
+     * Wraps {@code inputStream} with compressed content into an input stream that decompresses while reading. Closing
+     * the returned stream closes {@code inputStream}.
+     *
+     * @throws IOException when the header of the compressed content cannot be read, or is invalid.
+     */
+    InputStream decompress(InputStream inputStream) throws IOException;
+
+    /**
+     * Wraps {@code outputStream} into an output stream that compresses while writing. Closing the returned stream
+     * finishes the compressed content and closes {@code outputStream}.
+     *
+     * @throws IOException when writing the header of the compressed content fails.
+     */
+    OutputStream compress(OutputStream outputStream) throws IOException;
+
+    /**
+     * Estimates the size of the uncompressed content of {@code compressed} without decompressing the content, for
+     * example from a trailer of the compressed content. The estimate is only used as a hint, for example to size a
+     * buffer before reading, and may be wrong for content that was not written by this codec.
+     *
+     * @return Estimated size of the uncompressed content, or a negative number when it cannot be estimated without
+     * decompressing.
+     * @throws IOException when reading fails.
+     */
+    default long getUncompressedSize(ReadableResource compressed) throws IOException {
+        return -1;
+    }
+
+
+    /**
+     * Creates a codec for the gzip format, with the default compression level.
+     */
+    static GzipCompressionCodec ofGzip() {
+        return new GzipCompressionCodec(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a codec for the zlib-wrapped deflate format, with the default compression level.
+     */
+    static DeflateCompressionCodec ofDeflate() {
+        return new DeflateCompressionCodec(Deflater.DEFAULT_COMPRESSION);
+    }
+}
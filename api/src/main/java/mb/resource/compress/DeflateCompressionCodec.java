@@ -0,0 +1,83 @@
+package mb.resource.compress;
+
+import mb.resource.util.BufferUtil;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression codec for the zlib-wrapped deflate format, using {@link InflaterInputStream} and {@link
+ * DeflaterOutputStream}.
+ */
+public class DeflateCompressionCodec implements CompressionCodec {
+    public static final String name = "deflate";
+
+    private final int level;
+
+
+    /**
+     * @param level Compression level from {@code 0} to {@code 9}, or {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public DeflateCompressionCodec(int level) {
+        this.level = level;
+    }
+
+
+    @Override public String getName() {
+        return name;
+    }
+
+    @Override public InputStream decompress(InputStream inputStream) {
+        return new InflaterInputStream(inputStream, new Inflater(), BufferUtil.bufferSize) {
+            private boolean closed = false;
+
+            @Override public void close() throws IOException {
+                if(closed) return;
+                closed = true;
+                try {
+                    super.close();
+                } finally {
+                    inf.end(); // Release the native memory of the inflater, which is not done for a given inflater.
+                }
+            }
+        };
+    }
+
+    @Override public OutputStream compress(OutputStream outputStream) {
+        return new DeflaterOutputStream(outputStream, new Deflater(level), BufferUtil.bufferSize) {
+            private boolean closed = false;
+
+            @Override public void close() throws IOException {
+                if(closed) return;
+                closed = true;
+                try {
+                    super.close();
+                } finally {
+                    def.end(); // Release the native memory of the deflater, which is not done for a given deflater.
+                }
+            }
+        };
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final DeflateCompressionCodec that = (DeflateCompressionCodec)o;
+        return level == that.level;
+    }
+
+    @Override public int hashCode() {
+        return level;
+    }
+
+    @Override public String toString() {
+        return name;
+    }
+}
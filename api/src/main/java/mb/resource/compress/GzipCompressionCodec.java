@@ -0,0 +1,108 @@
+package mb.resource.compress;
+
+import mb.resource.ReadableResource;
+import mb.resource.util.BufferUtil;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression codec for the gzip format, using {@link GZIPInputStream} and {@link GZIPOutputStream}.
+ */
+public class GzipCompressionCodec implements CompressionCodec {
+    public static final String name = "gzip";
+    // Size of the gzip header without optional fields.
+    private static final int headerSize = 10;
+    // Size of the gzip header and trailer without optional fields.
+    private static final int minimumSize = 18;
+    // Deflate compresses at most 1032:1, so the uncompressed size of smaller files is below 4 GiB, and is thus exactly
+    // the size stored in the trailer, which is the uncompressed size modulo 2^32.
+    private static final long maximumExactTrailerSize = (1L << 32) / 1032;
+
+    private final int level;
+
+
+    /**
+     * @param level Compression level from {@code 0} to {@code 9}, or {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public GzipCompressionCodec(int level) {
+        this.level = level;
+    }
+
+
+    @Override public String getName() {
+        return name;
+    }
+
+    @Override public InputStream decompress(InputStream inputStream) throws IOException {
+        try {
+            return new GZIPInputStream(inputStream, BufferUtil.bufferSize);
+        } catch(IOException | RuntimeException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    @Override public OutputStream compress(OutputStream outputStream) throws IOException {
+        try {
+            return new GZIPOutputStream(outputStream, BufferUtil.bufferSize) {{
+                def.setLevel(level);
+            }};
+        } catch(IOException | RuntimeException e) {
+            outputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Reads the estimated uncompressed size from the trailer of files smaller than about 4 MiB. The size of larger
+     * files cannot be determined from the trailer, as it only stores the uncompressed size modulo 2^32.
+     *
+     * The trailer only holds the size of the last gzip member, so the file must consist of a single member, as written
+     * by this codec. Because that cannot be verified without decompressing, the trailer is only trusted when the file
+     * starts with a deflate-compressed gzip header without optional fields, as written by this codec, and when the
+     * size in the trailer is plausible for the size of the compressed data. Otherwise, such as for files concatenated
+     * from multiple gzip files where the last one is smaller than the others, {@code -1} is returned. Concatenated
+     * files whose last member has a plausible size are not detected, which is why the returned size is only a hint.
+     */
+    @Override public long getUncompressedSize(ReadableResource compressed) throws IOException {
+        final long size = compressed.getSize();
+        if(size < minimumSize || size > maximumExactTrailerSize) return -1;
+        final byte[] header = compressed.readRange(0, headerSize);
+        // Magic number, compression method 8 (deflate), and no flags.
+        if(header.length < headerSize || (header[0] & 0xFF) != 0x1F || (header[1] & 0xFF) != 0x8B || header[2] != 8 || header[3] != 0) {
+            return -1;
+        }
+        final byte[] trailer = compressed.readRange(size - 4, 4);
+        if(trailer.length < 4) return -1;
+        final long uncompressedSize = (trailer[0] & 0xFFL) | (trailer[1] & 0xFFL) << 8 | (trailer[2] & 0xFFL) << 16 | (trailer[3] & 0xFFL) << 24;
+        // Deflate expands incompressible data by at most a few bytes per block of 16 KiB, so a size much smaller than
+        // the compressed data indicates that the trailer does not describe all compressed data.
+        final long deflatedSize = size - minimumSize;
+        if(deflatedSize > uncompressedSize + (uncompressedSize >> 10) + 64) return -1;
+        return uncompressedSize;
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final GzipCompressionCodec that = (GzipCompressionCodec)o;
+        return level == that.level;
+    }
+
+    @Override public int hashCode() {
+        return level;
+    }
+
+    @Override public String toString() {
+        return name;
+    }
+}
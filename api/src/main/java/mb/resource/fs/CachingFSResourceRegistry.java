@@ -0,0 +1,105 @@
+package mb.resource.fs;
+
+import mb.resource.Resource;
+import mb.resource.ResourceKey;
+import mb.resource.ResourceKeyString;
+import mb.resource.ResourceMetadata;
+import mb.resource.ResourceRegistry;
+import mb.resource.ResourceRuntimeException;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Resource registry for {@link FSResource}s that share an {@link FSAttributesCache attribute cache}. Handles the same
+ * qualifier and keys as {@link FSResourceRegistry}, and can therefore be used in its place.
+ */
+public class CachingFSResourceRegistry implements ResourceRegistry {
+    private final FSResourceRegistry registry;
+    private final FSAttributesCache cache;
+
+
+    public CachingFSResourceRegistry(FSResourceRegistry registry, FSAttributesCache cache) {
+        this.registry = registry;
+        this.cache = cache;
+    }
+
+    public CachingFSResourceRegistry(FSAttributesCache cache) {
+        this(new FSResourceRegistry(), cache);
+    }
+
+
+    public FSAttributesCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @see FSAttributesCache#invalidate(FSPath)
+     */
+    public void invalidate(FSPath path) {
+        cache.invalidate(path);
+    }
+
+    /**
+     * @see FSAttributesCache#invalidateSubtree(FSPath)
+     */
+    public void invalidateSubtree(FSPath path) {
+        cache.invalidateSubtree(path);
+    }
+
+
+    @Override public String qualifier() {
+        return registry.qualifier();
+    }
+
+
+    @Override public FSPath getResourceKey(ResourceKeyString keyStr) {
+        return registry.getResourceKey(keyStr);
+    }
+
+    @Override public FSResource getResource(ResourceKey key) {
+        if(!(key instanceof FSPath)) {
+            throw new ResourceRuntimeException(
+                "Cannot get FSResource for key '" + key + "'; it is not of type FSPath");
+        }
+        return getResource((FSPath)key);
+    }
+
+    @Override public FSResource getResource(ResourceKeyString keyStr) {
+        return getResource(registry.getResourceKey(keyStr));
+    }
+
+    public FSResource getResource(FSPath path) {
+        return new FSResource(path, cache);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * Reads metadata like {@link FSResourceRegistry#getMetadata(Collection, ForkJoinPool)}, bypassing the cache, and
+     * stores the read attributes in the cache.
+     */
+    @Override public Map<ResourceKey, ResourceMetadata> getMetadata(Collection<? extends ResourceKey> keys, ForkJoinPool pool) {
+        return new FSMetadataBatch(keys, cache).read(pool);
+    }
+
+
+    @Override public @Nullable File toLocalFile(ResourceKey key) {
+        return registry.toLocalFile(key);
+    }
+
+    @Override public @Nullable File toLocalFile(Resource resource) {
+        return registry.toLocalFile(resource);
+    }
+
+
+    @Override public String toString() {
+        return "CachingFSResourceRegistry{" +
+            "cache=" + cache +
+            '}';
+    }
+}
@@ -0,0 +1,113 @@
+package mb.resource.fs;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Reads and writes files with an {@link AsynchronousFileChannel}, completing futures from its completion handlers.
+ */
+class FSAsyncIO {
+    static CompletableFuture<byte[]> readBytes(Path path, @Nullable ExecutorService executor) {
+        final CompletableFuture<byte[]> future = new CompletableFuture<>();
+        final AsynchronousFileChannel channel;
+        try {
+            channel = AsynchronousFileChannel.open(path, new HashSet<>(EnumSet.of(StandardOpenOption.READ)), executor);
+        } catch(IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        try {
+            final long size = channel.size();
+            if(size > Integer.MAX_VALUE) {
+                throw new IOException("Cannot read '" + path + "' into an array, its size " + size + " exceeds " + Integer.MAX_VALUE + " bytes");
+            }
+            read(channel, ByteBuffer.allocate((int)size), future);
+        } catch(IOException | RuntimeException e) {
+            closeAndCompleteExceptionally(channel, e, future);
+        }
+        return future;
+    }
+
+    private static void read(AsynchronousFileChannel channel, ByteBuffer buffer, CompletableFuture<byte[]> future) {
+        channel.read(buffer, buffer.position(), null, new CompletionHandler<Integer, Void>() {
+            @Override public void completed(Integer read, @Nullable Void attachment) {
+                if(read == -1 || !buffer.hasRemaining()) {
+                    final byte[] bytes = buffer.hasRemaining() ? Arrays.copyOf(buffer.array(), buffer.position()) : buffer.array();
+                    closeAndComplete(channel, bytes, future);
+                } else {
+                    read(channel, buffer, future);
+                }
+            }
+
+            @Override public void failed(Throwable exception, @Nullable Void attachment) {
+                closeAndCompleteExceptionally(channel, exception, future);
+            }
+        });
+    }
+
+
+    static CompletableFuture<Void> writeBytes(Path path, byte[] bytes, @Nullable ExecutorService executor) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final AsynchronousFileChannel channel;
+        try {
+            final HashSet<OpenOption> options = new HashSet<>(EnumSet.of(StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING));
+            channel = AsynchronousFileChannel.open(path, options, executor);
+        } catch(IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        try {
+            write(channel, ByteBuffer.wrap(bytes), future);
+        } catch(RuntimeException e) {
+            closeAndCompleteExceptionally(channel, e, future);
+        }
+        return future;
+    }
+
+    private static void write(AsynchronousFileChannel channel, ByteBuffer buffer, CompletableFuture<Void> future) {
+        channel.write(buffer, buffer.position(), null, new CompletionHandler<Integer, Void>() {
+            @Override public void completed(Integer written, @Nullable Void attachment) {
+                if(buffer.hasRemaining()) {
+                    write(channel, buffer, future);
+                } else {
+                    closeAndComplete(channel, null, future);
+                }
+            }
+
+            @Override public void failed(Throwable exception, @Nullable Void attachment) {
+                closeAndCompleteExceptionally(channel, exception, future);
+            }
+        });
+    }
+
+
+    private static <T> void closeAndComplete(AsynchronousFileChannel channel, T result, CompletableFuture<T> future) {
+        try {
+            channel.close();
+            future.complete(result);
+        } catch(IOException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static void closeAndCompleteExceptionally(AsynchronousFileChannel channel, Throwable exception, CompletableFuture<?> future) {
+        try {
+            channel.close();
+        } catch(IOException e) {
+            exception.addSuppressed(e);
+        }
+        future.completeExceptionally(exception);
+    }
+}
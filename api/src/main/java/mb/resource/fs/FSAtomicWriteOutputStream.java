@@ -0,0 +1,101 @@
+package mb.resource.fs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Output stream that writes to a temporary sibling of a file, and atomically moves the temporary file over the file
+ * when closed. When the written content is identical to the content of the file and identical writes are skipped, the
+ * temporary file is deleted instead, leaving the file untouched. When writing or flushing fails, the temporary file is
+ * also deleted when closed, so that partially written content never replaces the file.
+ */
+class FSAtomicWriteOutputStream extends OutputStream {
+    private final FSResource target;
+    private final Path temporaryPath;
+    private final OutputStream outputStream;
+    private final boolean skipIfIdentical;
+    private boolean failed = false;
+    private boolean closed = false;
+
+
+    FSAtomicWriteOutputStream(FSResource target, boolean skipIfIdentical) throws IOException {
+        this.target = target;
+        this.temporaryPath = temporarySibling(target.path.javaPath);
+        // Create a new file instead of using Files.createTempFile, which restricts permissions to the owner on POSIX
+        // filesystems, as the temporary file becomes the target file.
+        this.outputStream = Files.newOutputStream(temporaryPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        this.skipIfIdentical = skipIfIdentical;
+    }
+
+    static Path temporarySibling(Path path) {
+        final Path fileName = path.getFileName();
+        return path.resolveSibling("." + (fileName != null ? fileName : "") + "." + UUID.randomUUID() + ".tmp");
+    }
+
+
+    @Override public void write(int b) throws IOException {
+        try {
+            outputStream.write(b);
+        } catch(IOException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    @Override public void write(byte[] b, int off, int len) throws IOException {
+        try {
+            outputStream.write(b, off, len);
+        } catch(IOException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    @Override public void flush() throws IOException {
+        try {
+            outputStream.flush();
+        } catch(IOException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    @Override public void close() throws IOException {
+        if(closed) return;
+        closed = true;
+        boolean moved = false;
+        try {
+            outputStream.close();
+            if(failed) {
+                return; // Do not replace the file with partially written content.
+            }
+            if(skipIfIdentical && FSResource.contentEquals(temporaryPath, target.path.javaPath)) {
+                return;
+            }
+            target.invalidateAttributesWithParent();
+            replace(temporaryPath, target.path.javaPath);
+            moved = true;
+        } finally {
+            if(!moved) {
+                Files.deleteIfExists(temporaryPath);
+            }
+        }
+    }
+
+    /**
+     * Atomically replaces {@code target} with {@code source}, or non-atomically if the filesystem does not support it.
+     */
+    static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch(AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
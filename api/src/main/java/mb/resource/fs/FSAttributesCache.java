@@ -0,0 +1,215 @@
+package mb.resource.fs;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of the {@link BasicFileAttributes attributes} of {@link FSPath filesystem paths}, including whether
+ * they exist. Used by {@link FSResource}s created by a {@link CachingFSResourceRegistry} to answer {@link
+ * FSResource#exists()}, {@link FSResource#getType()}, {@link FSResource#getSize()}, and {@link
+ * FSResource#getLastModifiedTime()} without accessing the filesystem every time.
+ *
+ * When the cache is full, the least recently used entry is evicted. Entries expire after a fixed amount of time, after
+ * a number of {@link #nextGeneration() generations}, or both. Modifications made through cached {@link FSResource}s
+ * invalidate the affected entries automatically. Modifications made in any other way must be reported with {@link
+ * #invalidate(FSPath)}, {@link #invalidateSubtree(FSPath)}, or {@link #invalidateAll()}.
+ *
+ * Paths are not normalized, so a modification through one path does not invalidate entries of a different path to the
+ * same file.
+ */
+public class FSAttributesCache {
+    private final int maximumSize;
+    private final long expireAfterNanos;
+    private final long expireAfterGenerations;
+    private final LinkedHashMap<FSPath, CachedAttributes> entries;
+    private long generation = 0;
+    // Incremented on every invalidation, to prevent storing attributes that were read before an invalidation.
+    private long invalidations = 0;
+
+
+    /**
+     * Creates a cache.
+     *
+     * @param maximumSize            Maximum number of entries to keep.
+     * @param expireAfter            Amount of time after which entries expire, or {@code 0} to not expire entries
+     *                               after some time.
+     * @param expireAfterUnit        Unit of {@code expireAfter}.
+     * @param expireAfterGenerations Number of {@link #nextGeneration() generations} after which entries expire, or
+     *                               {@code 0} to not expire entries after some generations.
+     */
+    public FSAttributesCache(int maximumSize, long expireAfter, TimeUnit expireAfterUnit, long expireAfterGenerations) {
+        this.maximumSize = maximumSize;
+        this.expireAfterNanos = expireAfterUnit.toNanos(expireAfter);
+        this.expireAfterGenerations = expireAfterGenerations;
+        this.entries = new LinkedHashMap<FSPath, CachedAttributes>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<FSPath, CachedAttributes> eldest) {
+                return size() > FSAttributesCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Creates a cache whose entries expire after given number of {@link #nextGeneration() generations}.
+     */
+    public FSAttributesCache(int maximumSize, long expireAfterGenerations) {
+        this(maximumSize, 0, TimeUnit.NANOSECONDS, expireAfterGenerations);
+    }
+
+    /**
+     * Creates a cache whose entries do not expire.
+     */
+    public FSAttributesCache(int maximumSize) {
+        this(maximumSize, 0);
+    }
+
+
+    /**
+     * Starts a new generation, expiring entries that have reached the maximum number of generations.
+     *
+     * @return The new generation.
+     */
+    public synchronized long nextGeneration() {
+        return ++generation;
+    }
+
+    /**
+     * Invalidates the entry of given {@code path}.
+     */
+    public synchronized void invalidate(FSPath path) {
+        ++invalidations;
+        entries.remove(path);
+    }
+
+    /**
+     * Invalidates the entries of given {@code path} and all paths that start with given {@code path}.
+     */
+    public synchronized void invalidateSubtree(FSPath path) {
+        ++invalidations;
+        final Iterator<FSPath> iterator = entries.keySet().iterator();
+        while(iterator.hasNext()) {
+            if(iterator.next().javaPath.startsWith(path.javaPath)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Invalidates all entries.
+     */
+    public synchronized void invalidateAll() {
+        ++invalidations;
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of entries in this cache, including entries that have expired but have not been removed yet.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+
+    /**
+     * Gets the attributes of given {@code path}, reading and caching them if they are not cached.
+     *
+     * @throws NoSuchFileException when the file at {@code path} does not exist.
+     * @throws IOException         when reading attributes fails.
+     */
+    BasicFileAttributes readAttributes(FSPath path) throws IOException {
+        final long invalidationsBefore;
+        synchronized(this) {
+            final @Nullable CachedAttributes entry = get(path);
+            if(entry != null) {
+                if(entry.attributes == null) {
+                    throw new NoSuchFileException(path.javaPath.toString());
+                }
+                return entry.attributes;
+            }
+            invalidationsBefore = invalidations;
+        }
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(path.javaPath, BasicFileAttributes.class);
+            put(path, attributes, invalidationsBefore);
+            return attributes;
+        } catch(NoSuchFileException e) {
+            put(path, null, invalidationsBefore);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets whether the file at given {@code path} exists, reading and caching its attributes if they are not cached.
+     */
+    boolean exists(FSPath path) {
+        try {
+            readAttributes(path);
+            return true;
+        } catch(IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Caches attributes that were read while discovering given {@code path}, for example while walking. Attributes of
+     * symbolic links are not cached, as they describe the link instead of its target.
+     */
+    synchronized void putDiscovered(FSPath path, BasicFileAttributes attributes) {
+        if(attributes.isSymbolicLink()) return;
+        put(path, attributes, invalidations);
+    }
+
+    /**
+     * Caches that given {@code path} was discovered to not exist, for example while listing its parent directory.
+     */
+    synchronized void putDiscoveredNonExistent(FSPath path) {
+        put(path, null, invalidations);
+    }
+
+
+    private @Nullable CachedAttributes get(FSPath path) {
+        final @Nullable CachedAttributes entry = entries.get(path);
+        if(entry == null) return null;
+        if((expireAfterNanos > 0 && System.nanoTime() - entry.createdNanos >= expireAfterNanos)
+            || (expireAfterGenerations > 0 && generation - entry.generation >= expireAfterGenerations)) {
+            entries.remove(path);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void put(FSPath path, @Nullable BasicFileAttributes attributes, long invalidationsBefore) {
+        if(invalidations != invalidationsBefore) return; // Invalidated while reading; attributes may be outdated.
+        entries.put(path, new CachedAttributes(attributes, System.nanoTime(), generation));
+    }
+
+
+    private static class CachedAttributes {
+        // Attributes, or null if the file does not exist.
+        final @Nullable BasicFileAttributes attributes;
+        final long createdNanos;
+        final long generation;
+
+        CachedAttributes(@Nullable BasicFileAttributes attributes, long createdNanos, long generation) {
+            this.attributes = attributes;
+            this.createdNanos = createdNanos;
+            this.generation = generation;
+        }
+    }
+
+
+    @Override public String toString() {
+        return "FSAttributesCache{" +
+            "maximumSize=" + maximumSize +
+            ", expireAfterNanos=" + expireAfterNanos +
+            ", expireAfterGenerations=" + expireAfterGenerations +
+            '}';
+    }
+}
@@ -0,0 +1,20 @@
+package mb.resource.fs;
+
+/**
+ * Listener for the progress of {@link FSResource#copyRecursivelyTo(FSResource, FSCopyOptions) copying directory trees}.
+ * When copying in parallel, the listener is called concurrently from multiple threads.
+ */
+@FunctionalInterface
+public interface FSCopyListener {
+    /**
+     * Called after {@code source} was copied to {@code target}.
+     *
+     * @param size Number of copied bytes.
+     */
+    void copied(FSResource source, FSResource target, long size);
+
+    /**
+     * Called when copying {@code source} was skipped, because {@code target} has the same size and last modified time.
+     */
+    default void skipped(FSResource source, FSResource target) {}
+}
@@ -0,0 +1,77 @@
+package mb.resource.fs;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Options for {@link FSResource#copyRecursivelyTo(FSResource, FSCopyOptions) copying directory trees}. Immutable; the
+ * {@code with} methods return modified copies.
+ */
+public class FSCopyOptions {
+    final int parallelism;
+    final boolean skipUnchanged;
+    final @Nullable FSCopyListener listener;
+
+
+    /**
+     * Creates options.
+     *
+     * @param parallelism   Maximum number of files that are copied concurrently. A parallelism of {@code 1} copies
+     *                      files one at a time on the calling thread.
+     * @param skipUnchanged Whether to skip copying files when the target file has the same size and last modified time.
+     *                      Copied files then get the last modified time of their source file, so that they are skipped
+     *                      when copying again.
+     * @param listener      Listener that is called for each copied or skipped file, or {@code null} to not report
+     *                      progress.
+     */
+    public FSCopyOptions(int parallelism, boolean skipUnchanged, @Nullable FSCopyListener listener) {
+        if(parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism " + parallelism + " must be at least 1");
+        }
+        this.parallelism = parallelism;
+        this.skipUnchanged = skipUnchanged;
+        this.listener = listener;
+    }
+
+    /**
+     * Creates options that copy as many files concurrently as there are available processors, that do not skip
+     * unchanged files, and that do not report progress.
+     */
+    public FSCopyOptions() {
+        this(Runtime.getRuntime().availableProcessors(), false, null);
+    }
+
+
+    public FSCopyOptions withParallelism(int parallelism) {
+        return new FSCopyOptions(parallelism, skipUnchanged, listener);
+    }
+
+    public FSCopyOptions withSkipUnchanged(boolean skipUnchanged) {
+        return new FSCopyOptions(parallelism, skipUnchanged, listener);
+    }
+
+    public FSCopyOptions withListener(@Nullable FSCopyListener listener) {
+        return new FSCopyOptions(parallelism, skipUnchanged, listener);
+    }
+
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isSkipUnchanged() {
+        return skipUnchanged;
+    }
+
+    public @Nullable FSCopyListener getListener() {
+        return listener;
+    }
+
+
+    @Override public String toString() {
+        return "FSCopyOptions{" +
+            "parallelism=" + parallelism +
+            ", skipUnchanged=" + skipUnchanged +
+            ", listener=" + listener +
+            '}';
+    }
+}
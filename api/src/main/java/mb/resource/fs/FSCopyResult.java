@@ -0,0 +1,39 @@
+package mb.resource.fs;
+
+/**
+ * Result of {@link FSResource#copyRecursivelyTo(FSResource, FSCopyOptions) copying a directory tree}.
+ */
+public class FSCopyResult {
+    /**
+     * Number of directories that were created or already existed in the target directory.
+     */
+    public final long directories;
+    /**
+     * Number of files that were copied.
+     */
+    public final long filesCopied;
+    /**
+     * Number of files that were skipped because they were unchanged.
+     */
+    public final long filesSkipped;
+    /**
+     * Number of bytes that were copied.
+     */
+    public final long bytesCopied;
+
+    public FSCopyResult(long directories, long filesCopied, long filesSkipped, long bytesCopied) {
+        this.directories = directories;
+        this.filesCopied = filesCopied;
+        this.filesSkipped = filesSkipped;
+        this.bytesCopied = bytesCopied;
+    }
+
+    @Override public String toString() {
+        return "FSCopyResult{" +
+            "directories=" + directories +
+            ", filesCopied=" + filesCopied +
+            ", filesSkipped=" + filesSkipped +
+            ", bytesCopied=" + bytesCopied +
+            '}';
+    }
+}
@@ -0,0 +1,225 @@
+package mb.resource.fs;
+
+import mb.resource.ResourceKey;
+import mb.resource.ResourceMetadata;
+import mb.resource.ResourceRuntimeException;
+import mb.resource.hierarchical.HierarchicalResourceType;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads the {@link ResourceMetadata metadata} of many {@link FSPath filesystem paths} at once. Paths are grouped by
+ * their parent directory, and the groups are read in parallel in {@link RecursiveAction fork-join tasks}.
+ *
+ * When many paths share a parent directory, the directory is listed once instead of querying each path: paths that are
+ * not listed do not exist and are not queried at all, and a directory that does not exist is listed in a single failed
+ * call. Listing only pays off when the paths make up a large part of the directory, which is not known before listing.
+ * Therefore, listing stops once the directory turns out to have many more entries than there are paths, and the
+ * remaining paths are queried separately. Names are matched exactly; names that only match a listed name when ignoring
+ * case are queried separately, to support case-insensitive filesystems.
+ *
+ * Like {@link FSResource#exists()}, paths whose attributes cannot be read are reported as non-existent. Symbolic links
+ * are followed.
+ */
+class FSMetadataBatch {
+    // Minimum number of paths in a directory for which the directory is listed instead of querying each path.
+    private static final int listingThreshold = 8;
+    // Maximum number of directory entries listed per path in a directory, before giving up on listing the directory.
+    private static final int maximumListedPerPath = 4;
+    // Number of paths read sequentially by a single task.
+    private static final int pathsPerTask = 64;
+
+    private final @Nullable FSAttributesCache cache;
+    private final ArrayList<Group> groups = new ArrayList<>();
+    // Number of paths in groups before the group at each index, to split tasks evenly by number of paths.
+    private final int[] pathsBefore;
+    private final ConcurrentHashMap<ResourceKey, ResourceMetadata> results;
+
+
+    FSMetadataBatch(Collection<? extends ResourceKey> keys, @Nullable FSAttributesCache cache) {
+        this.cache = cache;
+        final LinkedHashMap<@Nullable Path, Group> groupsPerDirectory = new LinkedHashMap<>();
+        for(ResourceKey key : keys) {
+            if(!(key instanceof FSPath)) {
+                throw new ResourceRuntimeException(
+                    "Cannot get metadata for key '" + key + "'; it is not of type FSPath");
+            }
+            final FSPath path = (FSPath)key;
+            final @Nullable Path directory = path.javaPath.getParent();
+            groupsPerDirectory.computeIfAbsent(directory, Group::new).paths.add(path);
+        }
+        groups.addAll(groupsPerDirectory.values());
+        pathsBefore = new int[groups.size() + 1];
+        for(int i = 0; i < groups.size(); ++i) {
+            pathsBefore[i + 1] = pathsBefore[i] + groups.get(i).paths.size();
+        }
+        this.results = new ConcurrentHashMap<>(Math.max(16, keys.size() * 4 / 3 + 1));
+    }
+
+
+    Map<ResourceKey, ResourceMetadata> read(ForkJoinPool pool) {
+        final RangeTask task = new RangeTask(0, groups.size());
+        if(pathsBefore[groups.size()] <= pathsPerTask) {
+            task.compute(); // Not worth the overhead of submitting to the pool.
+        } else {
+            pool.invoke(task);
+        }
+        return results;
+    }
+
+    private void read(Group group) {
+        if(group.directory == null || group.paths.size() < listingThreshold) {
+            for(FSPath path : group.paths) {
+                readSingle(path);
+            }
+        } else {
+            readListing(group.directory, group.paths);
+        }
+    }
+
+    private void readListing(Path directory, ArrayList<FSPath> paths) {
+        final HashMap<Path, ArrayList<FSPath>> pathsPerName = new HashMap<>();
+        for(FSPath path : paths) {
+            final @Nullable Path name = path.javaPath.getFileName();
+            if(name == null || name.toString().equals(".") || name.toString().equals("..")) {
+                readSingle(path); // Never listed.
+            } else {
+                pathsPerName.computeIfAbsent(name, n -> new ArrayList<>()).add(path);
+            }
+        }
+        final HashSet<String> listedNamesIgnoringCase = new HashSet<>();
+        final long maximumListed = (long)paths.size() * maximumListedPerPath;
+        long listed = 0;
+        boolean listedAll = true;
+        try(final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for(Path entry : stream) {
+                if(listed == maximumListed) {
+                    listedAll = false; // Directory is too large compared to the number of paths.
+                    break;
+                }
+                ++listed;
+                final Path name = entry.getFileName();
+                listedNamesIgnoringCase.add(name.toString().toLowerCase(Locale.ROOT));
+                final @Nullable ArrayList<FSPath> namePaths = pathsPerName.remove(name);
+                if(namePaths == null) continue;
+                @Nullable BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                } catch(IOException e) {
+                    attributes = null;
+                }
+                for(FSPath path : namePaths) {
+                    put(path, attributes);
+                }
+            }
+        } catch(NoSuchFileException | NotDirectoryException e) {
+            // Parent does not exist or is not a directory: none of the paths exist.
+            for(ArrayList<FSPath> namePaths : pathsPerName.values()) {
+                for(FSPath path : namePaths) {
+                    put(path, null);
+                }
+            }
+            return;
+        } catch(IOException | DirectoryIteratorException e) {
+            // Listing failed; query the paths that were not listed yet separately.
+            for(ArrayList<FSPath> namePaths : pathsPerName.values()) {
+                for(FSPath path : namePaths) {
+                    readSingle(path);
+                }
+            }
+            return;
+        }
+        for(Map.Entry<Path, ArrayList<FSPath>> entry : pathsPerName.entrySet()) {
+            final boolean mayExist = !listedAll || listedNamesIgnoringCase.contains(entry.getKey().toString().toLowerCase(Locale.ROOT));
+            for(FSPath path : entry.getValue()) {
+                if(mayExist) {
+                    readSingle(path);
+                } else {
+                    put(path, null);
+                }
+            }
+        }
+    }
+
+    private void readSingle(FSPath path) {
+        @Nullable BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path.javaPath, BasicFileAttributes.class);
+        } catch(IOException e) {
+            attributes = null;
+        }
+        put(path, attributes);
+    }
+
+    private void put(FSPath path, @Nullable BasicFileAttributes attributes) {
+        if(attributes == null) {
+            results.put(path, ResourceMetadata.ofNonExistent());
+            if(cache != null) {
+                cache.putDiscoveredNonExistent(path);
+            }
+            return;
+        }
+        final HierarchicalResourceType type;
+        if(attributes.isRegularFile()) {
+            type = HierarchicalResourceType.File;
+        } else if(attributes.isDirectory()) {
+            type = HierarchicalResourceType.Directory;
+        } else {
+            type = HierarchicalResourceType.Unknown;
+        }
+        results.put(path, new ResourceMetadata(true, type, attributes.lastModifiedTime().toInstant(), attributes.size()));
+        if(cache != null) {
+            cache.putDiscovered(path, attributes);
+        }
+    }
+
+
+    private static class Group {
+        // Parent directory of the paths, or null for paths without a parent.
+        final @Nullable Path directory;
+        final ArrayList<FSPath> paths = new ArrayList<>();
+
+        Group(@Nullable Path directory) {
+            this.directory = directory;
+        }
+    }
+
+    private class RangeTask extends RecursiveAction {
+        private final int start;
+        private final int end;
+
+        RangeTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override protected void compute() {
+            if(end - start <= 1 || pathsBefore[end] - pathsBefore[start] <= pathsPerTask) {
+                for(int i = start; i < end; ++i) {
+                    read(groups.get(i));
+                }
+            } else {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new RangeTask(start, middle), new RangeTask(middle, end));
+            }
+        }
+    }
+}
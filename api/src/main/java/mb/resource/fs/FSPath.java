@@ -12,6 +12,7 @@ import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.FileSystem;
 import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.FileSystems;
 import java.nio.file.InvalidPathException;
@@ -196,7 +197,10 @@ public class FSPath extends ResourcePathDefaults<FSPath> implements ResourcePath
     }
 
     @Override public FSPath appendSegments(Collection<String> segments) {
-        final Path relJavaPath = createLocalPath(segments);
+        if(segments.isEmpty()) {
+            return this;
+        }
+        final Path relJavaPath = createLocalPath(javaPath.getFileSystem(), segments);
         final Path javaPath = this.javaPath.resolve(relJavaPath);
         return new FSPath(javaPath);
     }
@@ -279,10 +283,10 @@ public class FSPath extends ResourcePathDefaults<FSPath> implements ResourcePath
         }
     }
 
-    private static Path createLocalPath(Collection<String> segments) {
+    private static Path createLocalPath(FileSystem fileSystem, Collection<String> segments) {
         final int segmentsSize = segments.size();
         if(segmentsSize == 0) {
-            return FileSystems.getDefault().getPath(SeparatorUtil.unixSeparator);
+            return fileSystem.getPath(SeparatorUtil.unixSeparator);
         } else {
             @Nullable String first = null;
             final String[] more = new String[segmentsSize - 1];
@@ -291,10 +295,10 @@ public class FSPath extends ResourcePathDefaults<FSPath> implements ResourcePath
                 if(first == null) {
                     first = segment;
                 } else {
-                    more[++i] = segment;
+                    more[i++] = segment;
                 }
             }
-            return FileSystems.getDefault().getPath(first, more);
+            return fileSystem.getPath(first, more);
         }
     }
 
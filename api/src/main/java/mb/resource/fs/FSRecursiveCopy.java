@@ -0,0 +1,180 @@
+package mb.resource.fs;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.CopyOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies a directory tree, creating each directory before the files inside it, and copying files concurrently on a
+ * fixed number of threads. The tree is walked once without collecting or sorting paths, and the number of files that
+ * are queued for copying is bounded.
+ *
+ * When copying a file fails, no further files are queued, files that are being copied are completed, and the failures
+ * are thrown together.
+ */
+class FSRecursiveCopy extends SimpleFileVisitor<Path> {
+    // Maximum number of queued files per thread, to bound memory usage when walking is faster than copying.
+    private static final int queuedFilesPerThread = 64;
+
+    private final FSResource sourceDirectory;
+    private final FSResource targetDirectory;
+    private final Path sourceDirectoryJavaPath;
+    private final Path targetDirectoryJavaPath;
+    private final FSCopyOptions options;
+    private final CopyOption[] copyOptions;
+    private final @Nullable ExecutorService executor;
+    private final Semaphore queuedFiles;
+
+    private long directories = 0;
+    private final AtomicLong filesCopied = new AtomicLong();
+    private final AtomicLong filesSkipped = new AtomicLong();
+    private final AtomicLong bytesCopied = new AtomicLong();
+    private final ConcurrentLinkedQueue<IOException> failures = new ConcurrentLinkedQueue<>();
+
+
+    FSRecursiveCopy(FSResource sourceDirectory, FSResource targetDirectory, FSCopyOptions options) {
+        this.sourceDirectory = sourceDirectory;
+        this.targetDirectory = targetDirectory;
+        this.sourceDirectoryJavaPath = sourceDirectory.path.javaPath;
+        // Normalize target directory to ensure that copied files have the target directory as prefix.
+        this.targetDirectoryJavaPath = targetDirectory.path.javaPath.normalize();
+        this.options = options;
+        if(options.skipUnchanged) {
+            // Copy last modified times, so that files are skipped when copying again.
+            this.copyOptions = new CopyOption[]{StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES};
+        } else {
+            this.copyOptions = new CopyOption[]{StandardCopyOption.REPLACE_EXISTING};
+        }
+        if(options.parallelism > 1) {
+            this.executor = Executors.newFixedThreadPool(options.parallelism, runnable -> {
+                final Thread thread = new Thread(runnable, "FSResource copy of " + sourceDirectory);
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+        this.queuedFiles = new Semaphore(options.parallelism * queuedFilesPerThread);
+    }
+
+
+    FSCopyResult copy() throws IOException {
+        try {
+            Files.walkFileTree(sourceDirectoryJavaPath, this);
+        } catch(IOException e) {
+            failures.add(e);
+        } finally {
+            awaitCopies();
+        }
+        final @Nullable IOException failure = failures.poll();
+        if(failure != null) {
+            for(IOException suppressed : failures) {
+                failure.addSuppressed(suppressed);
+            }
+            throw failure;
+        }
+        return new FSCopyResult(directories, filesCopied.get(), filesSkipped.get(), bytesCopied.get());
+    }
+
+    @Override public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+        if(!failures.isEmpty()) return FileVisitResult.TERMINATE;
+        final Path target = resolveTarget(directory);
+        if(!Files.isDirectory(target)) {
+            Files.copy(directory, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        ++directories;
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+        if(!failures.isEmpty()) return FileVisitResult.TERMINATE;
+        final Path target = resolveTarget(file);
+        if(executor == null) {
+            copyFile(file, attributes, target);
+            return FileVisitResult.CONTINUE;
+        }
+        try {
+            queuedFiles.acquire();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while copying '" + sourceDirectory + "'");
+        }
+        executor.execute(() -> {
+            try {
+                if(failures.isEmpty()) {
+                    copyFile(file, attributes, target);
+                }
+            } catch(IOException e) {
+                failures.add(e);
+            } finally {
+                queuedFiles.release();
+            }
+        });
+        return FileVisitResult.CONTINUE;
+    }
+
+    private Path resolveTarget(Path source) throws IOException {
+        final Path relativePath = sourceDirectoryJavaPath.relativize(source);
+        final Path target = targetDirectoryJavaPath.resolve(relativePath);
+        if(!target.normalize().startsWith(targetDirectoryJavaPath)) {
+            throw new IOException("Cannot copy '" + relativePath + "' from '" + sourceDirectory + "', resulting path '" + target + "' is not in the target directory '" + targetDirectory + "'");
+        }
+        return target;
+    }
+
+    private void copyFile(Path source, BasicFileAttributes attributes, Path target) throws IOException {
+        final @Nullable FSCopyListener listener = options.listener;
+        if(options.skipUnchanged && isUnchanged(attributes, target)) {
+            filesSkipped.incrementAndGet();
+            if(listener != null) {
+                listener.skipped(sourceDirectory.createDiscovered(source, attributes), targetDirectory.create(target));
+            }
+            return;
+        }
+        Files.copy(source, target, copyOptions);
+        filesCopied.incrementAndGet();
+        bytesCopied.addAndGet(attributes.size());
+        if(listener != null) {
+            listener.copied(sourceDirectory.createDiscovered(source, attributes), targetDirectory.create(target), attributes.size());
+        }
+    }
+
+    private static boolean isUnchanged(BasicFileAttributes attributes, Path target) {
+        final BasicFileAttributes targetAttributes;
+        try {
+            targetAttributes = Files.readAttributes(target, BasicFileAttributes.class);
+        } catch(IOException e) {
+            return false; // Target does not exist or cannot be read: copy it.
+        }
+        return targetAttributes.isRegularFile() && targetAttributes.size() == attributes.size()
+            && targetAttributes.lastModifiedTime().equals(attributes.lastModifiedTime());
+    }
+
+    private void awaitCopies() throws IOException {
+        if(executor == null) return;
+        executor.shutdown();
+        try {
+            while(!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Keep waiting until all queued files are copied.
+            }
+        } catch(InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while copying '" + sourceDirectory + "'");
+        }
+    }
+}
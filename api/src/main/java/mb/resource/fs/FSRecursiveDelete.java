@@ -0,0 +1,113 @@
+package mb.resource.fs;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Deletes a directory tree in post-order (the entries of a directory before the directory itself), deleting the
+ * subdirectories of each directory in separate {@link RecursiveTask fork-join tasks}. Entries are deleted while
+ * directories are being listed, without collecting or sorting the paths of the tree. Symbolic links are deleted, not
+ * followed.
+ *
+ * When deleting an entry fails, deletion of the rest of the tree continues, directories that still contain entries are
+ * not deleted, and the failures are thrown together.
+ */
+class FSRecursiveDelete {
+    private final ConcurrentLinkedQueue<IOException> failures = new ConcurrentLinkedQueue<>();
+
+
+    void delete(Path path, ForkJoinPool pool) throws IOException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch(NoSuchFileException e) {
+            return; // Nothing to delete.
+        }
+        if(attributes.isDirectory()) {
+            pool.invoke(new DirectoryTask(path));
+        } else {
+            deleteEntry(path);
+        }
+        final @Nullable IOException failure = failures.poll();
+        if(failure != null) {
+            for(IOException suppressed : failures) {
+                failure.addSuppressed(suppressed);
+            }
+            throw failure;
+        }
+    }
+
+    private boolean deleteEntry(Path path) {
+        try {
+            Files.deleteIfExists(path);
+            return true;
+        } catch(IOException e) {
+            failures.add(e);
+            return false;
+        }
+    }
+
+
+    private class DirectoryTask extends RecursiveTask<Boolean> {
+        private final Path directory;
+
+        DirectoryTask(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * @return {@code true} if the directory was deleted, {@code false} otherwise.
+         */
+        @Override protected Boolean compute() {
+            boolean deletedEntries = true;
+            final ArrayList<DirectoryTask> subtasks = new ArrayList<>();
+            try(final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for(Path path : stream) {
+                    final BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch(NoSuchFileException e) {
+                        continue; // Deleted concurrently.
+                    } catch(IOException e) {
+                        failures.add(e);
+                        deletedEntries = false;
+                        continue;
+                    }
+                    if(attributes.isDirectory()) {
+                        final DirectoryTask subtask = new DirectoryTask(path);
+                        subtask.fork();
+                        subtasks.add(subtask);
+                    } else {
+                        deletedEntries &= deleteEntry(path);
+                    }
+                }
+            } catch(NoSuchFileException e) {
+                return true; // Deleted concurrently.
+            } catch(IOException e) {
+                failures.add(e);
+                deletedEntries = false;
+            } catch(DirectoryIteratorException e) {
+                failures.add(e.getCause());
+                deletedEntries = false;
+            }
+            for(DirectoryTask subtask : subtasks) {
+                deletedEntries &= subtask.join();
+            }
+            // Do not try to delete the directory when it still contains entries, as that would add a failure for which
+            // the cause has already been reported.
+            return deletedEntries && deleteEntry(directory);
+        }
+    }
+}
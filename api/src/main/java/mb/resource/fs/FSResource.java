@@ -1,58 +1,123 @@
 package mb.resource.fs;
 
 import mb.resource.ResourceRuntimeException;
+import mb.resource.WritableResource;
+import mb.resource.hash.ContentHash;
+import mb.resource.hash.HashFunction;
+import mb.resource.hash.Hasher;
 import mb.resource.hierarchical.HierarchicalResource;
 import mb.resource.hierarchical.HierarchicalResourceDefaults;
 import mb.resource.hierarchical.HierarchicalResourceType;
 import mb.resource.hierarchical.ResourcePath;
 import mb.resource.hierarchical.match.ResourceMatcher;
 import mb.resource.hierarchical.walk.ResourceWalker;
+import mb.resource.hierarchical.watch.ResourceChangeListener;
+import mb.resource.hierarchical.watch.ResourceWatch;
+import mb.resource.util.AsyncUtil;
+import mb.resource.util.ContentUtil;
+import mb.resource.util.DecodeUtil;
+import mb.resource.util.TransferUtil;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
-
+import java.util.stream.StreamSupport;
+
+/**
+ * A resource on a {@link java.nio.file.FileSystem Java filesystem}.
+ *
+ * Resources returned from {@link #walk(ResourceWalker, ResourceMatcher) walking} carry a snapshot of the attributes
+ * they were discovered with. The snapshot is used to answer {@link #getType()}, {@link #isFile()}, {@link
+ * #isDirectory()}, {@link #getSize()}, and {@link #getLastModifiedTime()} without accessing the filesystem again, and
+ * is discarded when the resource is modified through this object. Create a new resource with {@link #getNormalized()}
+ * or {@link #FSResource(FSPath)} to query up-to-date attributes.
+ *
+ * Resources created by a {@link CachingFSResourceRegistry} share an {@link FSAttributesCache attribute cache}, which is
+ * used for {@link #exists()} and the methods above, and which is passed on to resources derived from them.
+ */
 public class FSResource extends HierarchicalResourceDefaults<FSResource> implements HierarchicalResource, Serializable {
+    // Minimum size of local files that are read through memory-mapped regions instead of being copied to the heap.
+    private static final long mappedThreshold = 1024 * 1024;
+    // Size of memory-mapped regions, to limit the address space used when hashing large files.
+    private static final long mappedHashRegionSize = 64 * 1024 * 1024;
+
     final FSPath path;
+    // Snapshot of attributes this resource was discovered with, or null if attributes must be read from the filesystem.
+    private transient @Nullable BasicFileAttributes attributes;
+    // Attribute cache shared with resources created by a CachingFSResourceRegistry, or null if there is no cache.
+    private final transient @Nullable FSAttributesCache cache;
 
 
     public FSResource(FSPath path) {
         this.path = path;
+        this.cache = null;
+    }
+
+    FSResource(FSPath path, @Nullable FSAttributesCache cache) {
+        this.path = path;
+        this.cache = cache;
+    }
+
+    FSResource(FSPath path, @Nullable BasicFileAttributes attributes, @Nullable FSAttributesCache cache) {
+        this.path = path;
+        // Attributes of symbolic links describe the link instead of its target, so they cannot be used as a snapshot.
+        this.attributes = attributes != null && !attributes.isSymbolicLink() ? attributes : null;
+        this.cache = cache;
     }
 
     public FSResource(java.nio.file.Path javaPath) {
         this.path = new FSPath(javaPath);
+        this.cache = null;
     }
 
     public FSResource(URI uri) {
         this.path = new FSPath(uri);
+        this.cache = null;
     }
 
     public FSResource(File file) {
         this.path = new FSPath(file);
+        this.cache = null;
     }
 
     public FSResource(String localPathStr) {
         this.path = new FSPath(localPathStr);
+        this.cache = null;
     }
 
     @Override public void close() {
@@ -138,7 +203,7 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
         if(newPath == null) {
             return null;
         }
-        return new FSResource(newPath);
+        return new FSResource(newPath, cache);
     }
 
     @Override public @Nullable FSResource getRoot() {
@@ -146,60 +211,60 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
         if(newPath == null) {
             return null;
         }
-        return new FSResource(newPath);
+        return new FSResource(newPath, cache);
     }
 
     @Override public FSResource getNormalized() {
         final FSPath newPath = path.getNormalized();
-        return new FSResource(newPath);
+        return new FSResource(newPath, cache);
     }
 
 
     @Override public FSResource appendSegment(String segment) {
         final FSPath newPath = path.appendSegment(segment);
-        return new FSResource(newPath);
+        return new FSResource(newPath, cache);
     }
 
     @Override public FSResource appendSegments(Iterable<String> segments) {
         final FSPath newPath = path.appendSegments(segments);
-        return new FSResource(newPath);
+        return new FSResource(newPath, cache);
     }
 
     @Override public FSResource appendSegments(Collection<String> segments) {
         final FSPath newPath = path.appendSegments(segments);
-        return new FSResource(newPath);
+        return new FSResource(newPath, cache);
     }
 
 
     @Override public FSResource appendRelativePath(String relativePath) {
         final FSPath newPath = path.appendRelativePath(relativePath);
-        return new FSResource(newPath);
+        return new FSResource(newPath, cache);
     }
 
     @Override public FSResource appendString(String other) {
         final FSPath newPath = path.appendString(other);
-        return new FSResource(newPath);
+        return new FSResource(newPath, cache);
     }
 
     @Override public FSResource appendOrReplaceWithPath(String other) {
         final FSPath newPath = path.appendOrReplaceWithPath(other);
-        return new FSResource(newPath);
+        return new FSResource(newPath, cache);
     }
 
     @Override public FSResource appendRelativePath(ResourcePath relativePath) {
         final FSPath newPath = path.appendRelativePath(relativePath);
-        return new FSResource(newPath);
+        return new FSResource(newPath, cache);
     }
 
 
     @Override public FSResource replaceLeaf(String segment) {
         final FSPath newPath = path.replaceLeaf(segment);
-        return new FSResource(newPath);
+        return new FSResource(newPath, cache);
     }
 
 
     @Override public HierarchicalResourceType getType() throws IOException {
-        final BasicFileAttributes attributes = Files.readAttributes(getJavaPath(), BasicFileAttributes.class);
+        final BasicFileAttributes attributes = readAttributes();
         if(attributes.isRegularFile()) {
             return HierarchicalResourceType.File;
         } else if(attributes.isDirectory()) {
@@ -210,17 +275,31 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
     }
 
     @Override public boolean isFile() throws IOException {
-        final BasicFileAttributes attributes = Files.readAttributes(getJavaPath(), BasicFileAttributes.class);
+        final BasicFileAttributes attributes = readAttributes();
         return attributes.isRegularFile();
     }
 
     @Override public boolean isDirectory() throws IOException {
-        final BasicFileAttributes attributes = Files.readAttributes(getJavaPath(), BasicFileAttributes.class);
+        final BasicFileAttributes attributes = readAttributes();
         return attributes.isDirectory();
     }
 
+    private BasicFileAttributes readAttributes() throws IOException {
+        final @Nullable BasicFileAttributes attributes = this.attributes;
+        if(attributes != null) {
+            return attributes;
+        }
+        if(cache != null) {
+            return cache.readAttributes(path);
+        }
+        return Files.readAttributes(path.javaPath, BasicFileAttributes.class);
+    }
+
 
     @Override public boolean exists() {
+        if(cache != null) {
+            return cache.exists(path);
+        }
         return Files.exists(path.javaPath);
     }
 
@@ -233,25 +312,26 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
     }
 
     @Override public Instant getLastModifiedTime() throws IOException {
-        return Files.getLastModifiedTime(path.javaPath).toInstant();
+        return readAttributes().lastModifiedTime().toInstant();
     }
 
     @Override public void setLastModifiedTime(Instant moment) throws IOException {
+        invalidateAttributes();
         Files.setLastModifiedTime(path.javaPath, FileTime.from(moment));
     }
 
     @Override public long getSize() throws IOException {
-        return Files.size(path.javaPath);
+        return readAttributes().size();
     }
 
 
     @Override public Stream<FSResource> list() throws IOException {
-        return Files.list(path.javaPath).map(FSResource::new);
+        return Files.list(path.javaPath).map(this::create);
     }
 
     @Override public Stream<FSResource> list(ResourceMatcher matcher) throws IOException {
         try {
-            return Files.list(path.javaPath).map(FSResource::new).filter((n) -> {
+            return Files.list(path.javaPath).map(this::create).filter((n) -> {
                 try {
                     return matcher.matches(n, this);
                 } catch(IOException e) {
@@ -265,14 +345,86 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
 
 
     @Override public Stream<FSResource> walk() throws IOException {
-        return Files.walk(path.javaPath).map(FSResource::new);
+        return Files.walk(path.javaPath).map(this::create);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Walks lazily: directories are listed while the returned stream is consumed, instead of before this method
+     * returns. Therefore, {@link IOException}s thrown by the {@code walker} or {@code matcher} are not thrown from this
+     * method, but are thrown as {@link UncheckedIOException} while consuming the stream. The handles of the directories
+     * on the current path of the walk stay open until they are fully visited or the stream is closed, so the stream
+     * must be closed, for example with try-with-resources, when it is not fully consumed. Files and directories that
+     * cannot be visited are skipped.
+     */
     @Override public Stream<FSResource> walk(ResourceWalker walker, ResourceMatcher matcher) throws IOException {
-        final Stream.Builder<FSResource> streamBuilder = Stream.builder();
-        final ResourceWalkerFileVisitor visitor = new ResourceWalkerFileVisitor(walker, matcher, this, streamBuilder);
-        Files.walkFileTree(path.javaPath, visitor);
-        return streamBuilder.build();
+        final ResourceWalkerIterator iterator = new ResourceWalkerIterator(walker, matcher, this);
+        final Spliterator<FSResource> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                iterator.close();
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Traverses into directories in parallel on the {@link AsyncUtil#getDefaultIOPool() default I/O pool}. When {@code
+     * ordered}, the children of a directory are visited in order of their names.
+     *
+     * @see #walkParallel(ResourceWalker, ResourceMatcher, boolean, ForkJoinPool)
+     */
+    @Override
+    public Stream<FSResource> walkParallel(ResourceWalker walker, ResourceMatcher matcher, boolean ordered) throws IOException {
+        return walkParallel(walker, matcher, ordered, AsyncUtil.getDefaultIOPool());
+    }
+
+    /**
+     * Recursively walks resources inside this directory, traversing into directories in parallel on given {@code pool}.
+     * Unlike {@link #walk(ResourceWalker, ResourceMatcher)}, all resources are collected before this method returns.
+     * When {@code ordered}, a directory is visited before its children, and the children of a directory are visited in
+     * order of their names.
+     *
+     * @see HierarchicalResource#walkParallel(ResourceWalker, ResourceMatcher, boolean)
+     */
+    public Stream<FSResource> walkParallel(ResourceWalker walker, ResourceMatcher matcher, boolean ordered, ForkJoinPool pool) throws IOException {
+        return new ParallelResourceWalk(walker, matcher, this, ordered).walk(pool);
+    }
+
+
+    @Override
+    public ResourceWatch watch(ResourceWalker walker, ResourceMatcher matcher, ResourceChangeListener listener) throws IOException {
+        return watch(walker, matcher, listener, Duration.ofMillis(100));
+    }
+
+    /**
+     * Watches resources inside this directory for changes with a {@link java.nio.file.WatchService}, reporting a batch
+     * of changes when no further changes have been observed for the {@code debounce} duration, or at the latest ten
+     * times the {@code debounce} duration after the first change of the batch.
+     *
+     * @see #watch(ResourceWalker, ResourceMatcher, ResourceChangeListener, Duration, Duration)
+     */
+    public ResourceWatch watch(ResourceWalker walker, ResourceMatcher matcher, ResourceChangeListener listener, Duration debounce) throws IOException {
+        return watch(walker, matcher, listener, debounce, debounce.multipliedBy(10));
+    }
+
+    /**
+     * Watches resources inside this directory for changes with a {@link java.nio.file.WatchService}, reporting a batch
+     * of changes when no further changes have been observed for the {@code debounce} duration, or when the {@code
+     * maximumDelay} has passed since the first change of the batch, even if changes keep being observed.
+     *
+     * A {@link RuntimeException} thrown from the listener ends the watch. When thrown from {@link
+     * ResourceChangeListener#changed}, it is first passed to {@link ResourceChangeListener#failed}, wrapped in an
+     * {@link IOException}.
+     *
+     * @see HierarchicalResource#watch(ResourceWalker, ResourceMatcher, ResourceChangeListener)
+     */
+    public ResourceWatch watch(ResourceWalker walker, ResourceMatcher matcher, ResourceChangeListener listener, Duration debounce, Duration maximumDelay) throws IOException {
+        return new FSResourceWatch(this, walker, matcher, listener, debounce, maximumDelay);
     }
 
 
@@ -280,10 +432,171 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
         return Files.newInputStream(path.javaPath, StandardOpenOption.READ);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Reads with an {@link AsynchronousFileChannel}. When {@code executor} is an {@link ExecutorService}, it is used as
+     * the thread pool of the channel. Otherwise, the default thread pool of the filesystem is used.
+     */
+    @Override public CompletableFuture<byte[]> readBytesAsync(Executor executor) {
+        return FSAsyncIO.readBytes(path.javaPath, executor instanceof ExecutorService ? (ExecutorService)executor : null);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Writes with an {@link AsynchronousFileChannel}. When {@code executor} is an {@link ExecutorService}, it is used
+     * as the thread pool of the channel. Otherwise, the default thread pool of the filesystem is used.
+     */
+    @Override public CompletableFuture<Void> writeBytesAsync(byte[] bytes, Executor executor) {
+        invalidateAttributesWithParent();
+        return FSAsyncIO.writeBytes(path.javaPath, bytes, executor instanceof ExecutorService ? (ExecutorService)executor : null)
+            .whenComplete((result, exception) -> invalidateAttributes());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Returns a {@link FileChannel}, which supports random access and zero-copy transfers.
+     */
+    @Override public FileChannel openReadChannel() throws IOException {
+        return FileChannel.open(path.javaPath, StandardOpenOption.READ);
+    }
+
     @Override public byte[] readBytes() throws IOException {
         return Files.readAllBytes(path.javaPath);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Returns a {@link FileChannel}, which seeks without reading the skipped bytes.
+     */
+    @Override public FileChannel openReadSeekableChannel() throws IOException {
+        return openReadChannel();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Reads the range with positional reads on a {@link FileChannel}, into an array of at most the remaining size of
+     * the file, without reading the bytes before {@code offset}.
+     */
+    @Override public byte[] readRange(long offset, int length) throws IOException {
+        ContentUtil.checkRange(offset, length);
+        try(final FileChannel channel = openReadChannel()) {
+            final long remaining = Math.max(0, channel.size() - offset);
+            final ByteBuffer buffer = ByteBuffer.allocate((int)Math.min(length, remaining));
+            while(buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) != -1) {
+                // Read until the buffer is full or the end of the file is reached.
+            }
+            return buffer.position() == buffer.capacity() ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Large files on the local filesystem are {@link #mapReadOnly() memory-mapped}, other files are read into a heap
+     * buffer of the size of the file.
+     *
+     * @throws IOException when the file is larger than 2 GiB, which is the maximum size of a buffer. Use {@link
+     *                     #mapReadOnly(long, long)} or {@link #openReadChannel()} to read such files in parts.
+     */
+    @Override public ByteBuffer readByteBuffer() throws IOException {
+        try(final FileChannel channel = openReadChannel()) {
+            final long size = channel.size();
+            if(size > Integer.MAX_VALUE) {
+                throw new IOException("Cannot read '" + path + "' into a single buffer, its size " + size + " exceeds " + Integer.MAX_VALUE + " bytes");
+            }
+            if(path.isLocalPath() && size >= mappedThreshold) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            final ByteBuffer buffer = ByteBuffer.allocate((int)size);
+            while(buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // Read until the buffer is full or the end of the file is reached.
+            }
+            buffer.flip();
+            return buffer.asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Large files on the local filesystem are decoded directly from a {@link #mapReadOnly() memory-mapped} buffer, and
+     * small files from a heap buffer of the size of the file. UTF-8, ISO-8859-1, and US-ASCII are decoded with a direct
+     * loop where possible. Other files are decoded while reading them.
+     */
+    @Override public CharSequence readCharSequence(Charset fromCharset) throws IOException {
+        try(final FileChannel channel = openReadChannel()) {
+            final long size = channel.size();
+            if(size < mappedThreshold) {
+                final ByteBuffer buffer = ByteBuffer.allocate((int)size);
+                while(buffer.hasRemaining() && channel.read(buffer) != -1) {
+                    // Read until the buffer is full or the end of the file is reached.
+                }
+                buffer.flip();
+                return DecodeUtil.decode(buffer, fromCharset);
+            }
+            if(path.isLocalPath() && size <= Integer.MAX_VALUE) {
+                return DecodeUtil.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), fromCharset);
+            }
+            return DecodeUtil.decode(Channels.newInputStream(channel), fromCharset, size);
+        }
+    }
+
+    /**
+     * Maps the entire file into memory, read-only. The mapping remains valid until the returned buffer is garbage
+     * collected, even after the file is closed. On some platforms, such as Windows, the file cannot be deleted while it
+     * is mapped.
+     *
+     * @throws IOException when the file is larger than 2 GiB, or when mapping fails, for example because the file is
+     *                     not on a filesystem that supports mapping.
+     */
+    public MappedByteBuffer mapReadOnly() throws IOException {
+        try(final FileChannel channel = openReadChannel()) {
+            final long size = channel.size();
+            if(size > Integer.MAX_VALUE) {
+                throw new IOException("Cannot map '" + path + "' into a single buffer, its size " + size + " exceeds " + Integer.MAX_VALUE + " bytes");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Maps the region of {@code size} bytes starting at {@code position} of the file into memory, read-only.
+     *
+     * @throws IOException when mapping fails.
+     * @see #mapReadOnly()
+     */
+    public MappedByteBuffer mapReadOnly(long position, long size) throws IOException {
+        try(final FileChannel channel = openReadChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Large files on the local filesystem are hashed by mapping them into memory, so that their contents are hashed
+     * without copying them into a buffer.
+     */
+    @Override public ContentHash hash(HashFunction function) throws IOException {
+        final Hasher hasher = function.newHasher();
+        try(final FileChannel channel = openReadChannel()) {
+            final long size = channel.size();
+            if(path.isLocalPath() && size >= mappedThreshold) {
+                for(long position = 0; position < size; position += mappedHashRegionSize) {
+                    hasher.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(mappedHashRegionSize, size - position)));
+                }
+            } else {
+                hasher.update(Channels.newInputStream(channel));
+            }
+        }
+        return hasher.finish();
+    }
+
     public List<String> readLines() throws IOException {
         return readLines(StandardCharsets.UTF_8);
     }
@@ -294,49 +607,159 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
 
 
     @Override public OutputStream openWrite() throws IOException {
-        return Files.newOutputStream(path.javaPath, StandardOpenOption.WRITE,
-            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE);
+        invalidateAttributesWithParent();
+        return invalidateAttributesOnClose(Files.newOutputStream(path.javaPath, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE));
     }
 
     @Override public OutputStream openWriteAppend() throws IOException {
-        return Files.newOutputStream(path.javaPath, StandardOpenOption.WRITE,
-            StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+        invalidateAttributesWithParent();
+        return invalidateAttributesOnClose(Files.newOutputStream(path.javaPath, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND, StandardOpenOption.CREATE));
     }
 
     @Override public OutputStream openWriteExisting() throws IOException {
-        return Files.newOutputStream(path.javaPath, StandardOpenOption.WRITE,
-            StandardOpenOption.TRUNCATE_EXISTING);
+        invalidateAttributes();
+        return invalidateAttributesOnClose(Files.newOutputStream(path.javaPath, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING));
     }
 
     @Override public OutputStream openWriteNew() throws IOException {
-        return Files.newOutputStream(path.javaPath, StandardOpenOption.CREATE_NEW);
+        invalidateAttributesWithParent();
+        return invalidateAttributesOnClose(Files.newOutputStream(path.javaPath, StandardOpenOption.CREATE_NEW));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Writes to a temporary sibling file, and atomically moves it over this file when the output stream is closed. The
+     * temporary file is created with default permissions, which the file then gets as well.
+     */
+    @Override public OutputStream openWriteAtomic(boolean skipIfIdentical) throws IOException {
+        return new FSAtomicWriteOutputStream(this, skipIfIdentical);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Compares {@code bytes} against the existing file without reading it into memory, and writes to a temporary
+     * sibling file that is atomically moved over this file.
+     */
+    @Override public boolean writeBytesAtomic(byte[] bytes, boolean skipIfIdentical) throws IOException {
+        if(skipIfIdentical && contentEquals(bytes)) {
+            return false;
+        }
+        final Path temporaryPath = FSAtomicWriteOutputStream.temporarySibling(path.javaPath);
+        try {
+            Files.write(temporaryPath, bytes, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            invalidateAttributesWithParent();
+            FSAtomicWriteOutputStream.replace(temporaryPath, path.javaPath);
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Compares against the file on the filesystem, ignoring attribute snapshots and caches, without reading the file
+     * into memory.
+     */
+    @Override public boolean writeBytesIfChanged(byte[] bytes) throws IOException {
+        if(contentEquals(bytes)) {
+            return false;
+        }
+        writeBytes(bytes);
+        return true;
+    }
+
+    /**
+     * Gets whether the content of this file is equal to {@code bytes}, comparing sizes first and then streaming the
+     * content. Returns {@code false} if this file does not exist.
+     */
+    boolean contentEquals(byte[] bytes) throws IOException {
+        final long size;
+        try {
+            size = Files.size(path.javaPath);
+        } catch(NoSuchFileException e) {
+            return false;
+        }
+        if(size != bytes.length) return false;
+        try(final InputStream inputStream = openRead()) {
+            return ContentUtil.contentEquals(inputStream, bytes);
+        }
+    }
+
+    /**
+     * Gets whether the contents of the files at {@code path} and {@code otherPath} are equal, comparing sizes first and
+     * then streaming the contents. Returns {@code false} if either file does not exist.
+     */
+    static boolean contentEquals(Path path, Path otherPath) throws IOException {
+        try {
+            if(Files.size(path) != Files.size(otherPath)) return false;
+        } catch(NoSuchFileException e) {
+            return false;
+        }
+        try(
+            final InputStream inputStream = Files.newInputStream(path);
+            final InputStream otherInputStream = Files.newInputStream(otherPath)
+        ) {
+            return ContentUtil.contentEquals(inputStream, otherInputStream);
+        }
     }
 
     @Override public void writeBytes(byte[] bytes) throws IOException {
+        invalidateAttributesWithParent();
         Files.write(path.javaPath, bytes);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Writes through a {@link FileChannel}, so that the operating system can copy the bytes directly when {@code
+     * channel} is a {@link FileChannel}, for example when {@link #transferTo(WritableResource) transferring} from
+     * another {@link FSResource}.
+     */
+    @Override public long writeFrom(ReadableByteChannel channel) throws IOException {
+        invalidateAttributesWithParent();
+        try(final FileChannel fileChannel = FileChannel.open(path.javaPath, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE)) {
+            return TransferUtil.transfer(channel, fileChannel);
+        } finally {
+            invalidateAttributes();
+        }
+    }
+
     public void writeLines(Iterable<String> lines) throws IOException {
         writeLines(lines, StandardCharsets.UTF_8);
     }
 
     public void writeLines(Iterable<String> lines, Charset fromCharset) throws IOException {
+        invalidateAttributesWithParent();
         Files.write(path.javaPath, lines, fromCharset);
     }
 
     @Override public void writeString(String string, Charset fromCharset) throws IOException {
+        invalidateAttributesWithParent();
         Files.write(path.javaPath, string.getBytes(fromCharset));
     }
 
 
+    /**
+     * Copies this file to {@code other}. When {@code other} is not an {@link FSResource}, the content of this file is
+     * {@link #transferTo(WritableResource) transferred} to it instead.
+     */
     @Override public void copyTo(HierarchicalResource other) throws IOException {
         if(!(other instanceof FSResource)) {
-            throw new ResourceRuntimeException("Cannot copy to '" + other + "', it is not an FSResource");
+            transferTo(other);
+            return;
         }
         copyTo((FSResource)other);
     }
 
     public void copyTo(FSResource other) throws IOException {
+        other.invalidateAttributesWithParent();
         Files.copy(path.javaPath, other.path.javaPath, StandardCopyOption.REPLACE_EXISTING);
     }
 
@@ -351,6 +774,7 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
         // Normalize target directory to ensure that unpacked files have the target directory as prefix.
         final FSResource targetDirectory = other.getNormalized();
         final Path targetDirectoryJavaPath = targetDirectory.getJavaPath();
+        other.invalidateAttributesOfSubtree();
 
         try {
             try(Stream<Path> stream = Files.walk(this.path.javaPath)) {
@@ -372,6 +796,24 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
         }
     }
 
+    /**
+     * Copies this directory tree into {@code other}, creating directories before the files inside them, and copying
+     * files concurrently with the {@link FSCopyOptions#getParallelism() parallelism} of {@code options}. Copying fails
+     * when a path would end up outside of {@code other}.
+     *
+     * @return Statistics of the copied directories, files, and bytes.
+     * @throws IOException when copying one or more files fails. Failures of files that were being copied concurrently
+     *                     are added as suppressed exceptions.
+     */
+    public FSCopyResult copyRecursivelyTo(FSResource other, FSCopyOptions options) throws IOException {
+        other.invalidateAttributesOfSubtree();
+        try {
+            return new FSRecursiveCopy(this, other, options).copy();
+        } finally {
+            other.invalidateAttributesOfSubtree();
+        }
+    }
+
     @Override public void moveTo(HierarchicalResource other) throws IOException {
         if(!(other instanceof FSResource)) {
             throw new ResourceRuntimeException("Cannot move to '" + other + "', it is not an FSResource");
@@ -380,11 +822,14 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
     }
 
     public void moveTo(FSResource other) throws IOException {
+        invalidateAttributesOfSubtree();
+        other.invalidateAttributesOfSubtree();
         Files.move(path.javaPath, other.path.javaPath, StandardCopyOption.REPLACE_EXISTING);
     }
 
 
     @Override public FSResource createFile(boolean createParents) throws IOException {
+        invalidateAttributesWithParent();
         if(createParents) {
             createParents();
         }
@@ -393,6 +838,7 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
     }
 
     @Override public FSResource createDirectory(boolean createParents) throws IOException {
+        invalidateAttributesWithParent();
         if(createParents) {
             createParents();
         }
@@ -401,6 +847,7 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
     }
 
     @Override public FSResource ensureDirectoryExists() throws IOException {
+        invalidateAttributesWithAncestors();
         Files.createDirectories(path.javaPath);
         return this;
     }
@@ -408,33 +855,180 @@ public class FSResource extends HierarchicalResourceDefaults<FSResource> impleme
     @Override public FSResource createParents() throws IOException {
         final @Nullable FSResource parent = getParent();
         if(parent == null) return this;
+        parent.invalidateAttributesWithAncestors();
         Files.createDirectories(parent.path.javaPath);
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Deletes directory trees in parallel on the {@link AsyncUtil#getDefaultIOPool() default I/O pool}.
+     *
+     * @see #deleteRecursively(ForkJoinPool)
+     */
     @Override public void delete(boolean deleteRecursively) throws IOException {
         if(deleteRecursively) {
-            try {
-                if(!Files.exists(path.javaPath)) {
-                    return;
-                }
-                Files.walk(path.javaPath)
-                    .sorted(Comparator.reverseOrder())
-                    .forEach(path -> {
-                        try {
-                            Files.deleteIfExists(path);
-                        } catch(IOException e) {
-                            throw new UncheckedIOException(e);
-                        }
-                    });
-            } catch(UncheckedIOException e) {
-                throw e.getCause();
-            }
+            invalidateAttributesOfSubtree();
+        } else {
+            invalidateAttributesWithParent();
+        }
+        if(deleteRecursively) {
+            new FSRecursiveDelete().delete(path.javaPath, AsyncUtil.getDefaultIOPool());
         } else {
             Files.deleteIfExists(path.javaPath);
         }
     }
 
+    /**
+     * Deletes this file or directory tree, deleting subdirectories in parallel in given fork-join {@code pool}. Entries
+     * are deleted while directories are listed, without collecting the paths of the entire tree first. When deleting an
+     * entry fails, the rest of the tree is still deleted.
+     *
+     * @throws IOException when deleting one or more entries fails. Further failures are added as suppressed exceptions.
+     */
+    public void deleteRecursively(ForkJoinPool pool) throws IOException {
+        invalidateAttributesOfSubtree();
+        new FSRecursiveDelete().delete(path.javaPath, pool);
+    }
+
+    /**
+     * Renames this file or directory tree to a hidden sibling, and {@link #deleteRecursively(ForkJoinPool) deletes} the
+     * renamed tree in the background in given fork-join {@code pool}. This resource no longer exists when this method
+     * returns, unless renaming fails, in which case the tree is deleted in place in the background instead, and may
+     * still (partially) exist until the returned future completes. Renamed trees of which
+     * deletion was interrupted, for example by the application exiting, are left behind as {@code .<name>.deleting-*}.
+     *
+     * @return Future that completes when the tree has been deleted, or completes exceptionally with an {@link
+     * IOException} when deleting one or more entries failed.
+     */
+    public CompletableFuture<Void> deleteRecursivelyInBackground(ForkJoinPool pool) {
+        invalidateAttributesOfSubtree();
+        final Path javaPath = path.javaPath;
+        final @Nullable Path fileName = javaPath.getFileName();
+        final Path trashPath = javaPath.resolveSibling("." + (fileName != null ? fileName : "") + ".deleting-" + UUID.randomUUID());
+        try {
+            Files.move(javaPath, trashPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch(NoSuchFileException e) {
+            return CompletableFuture.completedFuture(null);
+        } catch(IOException | UnsupportedOperationException e) {
+            // Cannot rename, for example because a file is in use or this is the root of a filesystem: delete in place.
+            return deleteInBackground(javaPath, pool);
+        }
+        return deleteInBackground(trashPath, pool);
+    }
+
+    /**
+     * Renames this file or directory tree to a hidden sibling, and deletes the renamed tree in the background in the
+     * {@link AsyncUtil#getDefaultIOPool() default I/O pool}.
+     *
+     * @see #deleteRecursivelyInBackground(ForkJoinPool)
+     */
+    public CompletableFuture<Void> deleteRecursivelyInBackground() {
+        return deleteRecursivelyInBackground(AsyncUtil.getDefaultIOPool());
+    }
+
+
+    /**
+     * Creates a resource for a {@code javaPath} that shares the attribute cache of this resource.
+     */
+    FSResource create(Path javaPath) {
+        return new FSResource(new FSPath(javaPath), cache);
+    }
+
+    /**
+     * Creates a resource for a {@code javaPath} that was discovered with {@code attributes}, for example while walking.
+     */
+    FSResource createDiscovered(Path javaPath, BasicFileAttributes attributes) {
+        final FSPath newPath = new FSPath(javaPath);
+        if(cache != null) {
+            cache.putDiscovered(newPath, attributes);
+        }
+        return new FSResource(newPath, attributes, cache);
+    }
+
+    /**
+     * Creates a resource for a {@code javaPath} that was deleted, with the {@code attributes} it had before it was
+     * deleted, for example to report the deletion to a {@link ResourceMatcher matcher}.
+     */
+    FSResource createDeleted(Path javaPath, BasicFileAttributes attributes) {
+        final FSPath newPath = new FSPath(javaPath);
+        if(cache != null) {
+            cache.invalidate(newPath);
+        }
+        return new FSResource(newPath, attributes, cache);
+    }
+
+
+    private static CompletableFuture<Void> deleteInBackground(Path javaPath, ForkJoinPool pool) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                new FSRecursiveDelete().delete(javaPath, pool);
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, pool);
+    }
+
+    private void invalidateAttributes() {
+        attributes = null;
+        if(cache != null) {
+            cache.invalidate(path);
+        }
+    }
+
+    // Creating or deleting a resource also changes the modification time of its parent.
+    void invalidateAttributesWithParent() {
+        invalidateAttributes();
+        if(cache != null) {
+            final @Nullable FSPath parent = path.getParent();
+            if(parent != null) {
+                cache.invalidate(parent);
+            }
+        }
+    }
+
+    // Creating parent directories may create and change any ancestor.
+    private void invalidateAttributesWithAncestors() {
+        invalidateAttributes();
+        if(cache != null) {
+            for(@Nullable FSPath ancestor = path.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+                cache.invalidate(ancestor);
+            }
+        }
+    }
+
+    private void invalidateAttributesOfSubtree() {
+        attributes = null;
+        if(cache != null) {
+            cache.invalidateSubtree(path);
+            final @Nullable FSPath parent = path.getParent();
+            if(parent != null) {
+                cache.invalidate(parent);
+            }
+        }
+    }
+
+    private OutputStream invalidateAttributesOnClose(OutputStream outputStream) {
+        if(cache == null) {
+            return outputStream;
+        }
+        // Attributes may be cached again while writing, so invalidate them once more after writing.
+        return new FilterOutputStream(outputStream) {
+            @Override public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    invalidateAttributes();
+                }
+            }
+        };
+    }
+
 
     @Override protected FSResource self() {
         return this;
@@ -3,14 +3,19 @@ package mb.resource.fs;
 import mb.resource.Resource;
 import mb.resource.ResourceKey;
 import mb.resource.ResourceKeyString;
+import mb.resource.ResourceMetadata;
 import mb.resource.ResourceRegistry;
 import mb.resource.ResourceRuntimeException;
 import mb.resource.util.SeparatorUtil;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 public class FSResourceRegistry implements ResourceRegistry {
     static final String qualifier = "java";
@@ -53,6 +58,18 @@ public class FSResourceRegistry implements ResourceRegistry {
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * Paths are grouped by parent directory. When many paths share a parent directory, the directory is listed once
+     * instead of querying each path. Like {@link FSResource#exists()}, paths whose attributes cannot be read are
+     * reported as non-existent, so this method does not throw {@link IOException}s.
+     */
+    @Override public Map<ResourceKey, ResourceMetadata> getMetadata(Collection<? extends ResourceKey> keys, ForkJoinPool pool) {
+        return new FSMetadataBatch(keys, null).read(pool);
+    }
+
+
     @Override public @Nullable File toLocalFile(ResourceKey key) {
         if(!(key instanceof FSPath)) {
             throw new ResourceRuntimeException(
@@ -0,0 +1,350 @@
+package mb.resource.fs;
+
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
+import mb.resource.hierarchical.watch.ResourceChange;
+import mb.resource.hierarchical.watch.ResourceChangeKind;
+import mb.resource.hierarchical.watch.ResourceChangeListener;
+import mb.resource.hierarchical.watch.ResourceWatch;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a directory tree for changes with a {@link WatchService}, registering each directory that passes the {@link
+ * ResourceWalker walker}, and reporting changes to resources that pass the {@link ResourceMatcher matcher}.
+ *
+ * Changes are collected until no events have been received for the debounce duration, or until the maximum delay has
+ * passed since the first collected change, and are then coalesced and reported as a single batch (e.g., a file that is
+ * created and then modified is reported as created). The maximum delay ensures that changes are reported even when
+ * events keep arriving faster than the debounce duration. The attributes of
+ * all visited resources are kept, to detect modifications and to report deleted resources with the attributes they had
+ * before being deleted. When the watch service reports that events were lost, the affected directory tree is rescanned
+ * and compared against the kept attributes.
+ */
+class FSResourceWatch implements ResourceWatch, Runnable {
+    private final FSResource rootDirectory;
+    private final ResourceWalker walker;
+    private final ResourceMatcher matcher;
+    private final ResourceChangeListener listener;
+    private final long debounceNanos;
+    private final long maximumDelayNanos;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    // Only accessed from the watch thread after construction.
+    private final HashMap<WatchKey, Path> directories = new HashMap<>();
+    private final HashMap<Path, BasicFileAttributes> known = new HashMap<>();
+    private final LinkedHashMap<Path, PendingChange> pending = new LinkedHashMap<>();
+    private long firstPendingNanos;
+
+    private volatile boolean active = true;
+
+
+    FSResourceWatch(
+        FSResource rootDirectory,
+        ResourceWalker walker,
+        ResourceMatcher matcher,
+        ResourceChangeListener listener,
+        Duration debounce,
+        Duration maximumDelay
+    ) throws IOException {
+        this.rootDirectory = rootDirectory;
+        this.walker = walker;
+        this.matcher = matcher;
+        this.listener = listener;
+        this.debounceNanos = debounce.toNanos();
+        this.maximumDelayNanos = maximumDelay.toNanos();
+        final Path root = rootDirectory.path.javaPath;
+        this.watchService = root.getFileSystem().newWatchService();
+        try {
+            update(root, false);
+        } catch(IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+        this.thread = new Thread(this, "FSResource watch of " + rootDirectory);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+
+    @Override public boolean isActive() {
+        return active;
+    }
+
+    @Override public void close() throws IOException {
+        active = false;
+        watchService.close();
+    }
+
+
+    /**
+     * Processes events until the watch is closed. A {@link RuntimeException} thrown from the listener ends the watch;
+     * it is passed to {@link ResourceChangeListener#failed} (wrapped in an {@link IOException}) when it was thrown from
+     * {@link ResourceChangeListener#changed}. The watch service is closed when the watch ends for any reason.
+     */
+    @Override public void run() {
+        try {
+            while(active) {
+                final @Nullable WatchKey key;
+                if(pending.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    final long remainingNanos = firstPendingNanos + maximumDelayNanos - System.nanoTime();
+                    if(remainingNanos <= 0) {
+                        report();
+                        continue;
+                    }
+                    key = watchService.poll(Math.min(debounceNanos, remainingNanos), TimeUnit.NANOSECONDS);
+                }
+                if(key == null) {
+                    report();
+                    continue;
+                }
+                final @Nullable Path directory = directories.get(key);
+                if(directory != null) {
+                    try {
+                        processEvents(directory, key);
+                    } catch(IOException e) {
+                        listener.failed(e); // Keep watching; the failure only affects this batch of events.
+                    }
+                }
+                if(!key.reset()) {
+                    directories.remove(key);
+                }
+            }
+        } catch(ClosedWatchServiceException | InterruptedException e) {
+            // Watch was closed.
+        } catch(RuntimeException e) {
+            // Listener threw; end the watch.
+        } finally {
+            active = false;
+            try {
+                watchService.close();
+            } catch(IOException e) {
+                // Ignore; the watch has ended regardless.
+            }
+        }
+    }
+
+    private void processEvents(Path directory, WatchKey key) throws IOException {
+        for(WatchEvent<?> event : key.pollEvents()) {
+            final WatchEvent.Kind<?> kind = event.kind();
+            if(kind == StandardWatchEventKinds.OVERFLOW) {
+                rescan(directory);
+                continue;
+            }
+            final Path path = directory.resolve((Path)event.context());
+            if(kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                delete(path);
+            } else {
+                update(path, true);
+            }
+        }
+    }
+
+
+    /**
+     * Reads the attributes of given {@code path}, reporting it as created or modified when {@code report} is true, and
+     * registers and scans it if it is a directory that passes the walker. Reports it as deleted if it no longer exists.
+     */
+    private void update(Path path, boolean report) throws IOException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch(IOException e) {
+            delete(path);
+            return;
+        }
+        final @Nullable BasicFileAttributes previous = known.put(path, attributes);
+        if(report) {
+            if(previous == null) {
+                addPending(path, ResourceChangeKind.Created, attributes);
+            } else if(!previous.lastModifiedTime().equals(attributes.lastModifiedTime()) || previous.size() != attributes.size()) {
+                addPending(path, ResourceChangeKind.Modified, attributes);
+            }
+        }
+        if(previous == null && attributes.isDirectory()) {
+            final FSResource directory = rootDirectory.createDiscovered(path, attributes);
+            if(walker.traverse(directory, rootDirectory)) {
+                register(path, report);
+            }
+        }
+    }
+
+    private void register(Path directory, boolean report) throws IOException {
+        try {
+            final WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            directories.put(key, directory);
+        } catch(IOException e) {
+            return; // Skip directories that cannot be watched, for example because they were deleted in the meantime.
+        }
+        // Scan after registering, so that entries created in between are reported by the scan or an event.
+        for(Path path : listEntries(directory)) {
+            update(path, report);
+        }
+    }
+
+    /**
+     * Reports given {@code path} and all known paths inside it as deleted.
+     */
+    private void delete(Path path) {
+        final @Nullable BasicFileAttributes attributes = known.remove(path);
+        if(attributes == null) return;
+        if(attributes.isDirectory()) {
+            final Iterator<Map.Entry<Path, BasicFileAttributes>> iterator = known.entrySet().iterator();
+            while(iterator.hasNext()) {
+                final Map.Entry<Path, BasicFileAttributes> entry = iterator.next();
+                if(entry.getKey().startsWith(path)) {
+                    iterator.remove();
+                    addPending(entry.getKey(), ResourceChangeKind.Deleted, entry.getValue());
+                }
+            }
+            final Iterator<Map.Entry<WatchKey, Path>> keys = directories.entrySet().iterator();
+            while(keys.hasNext()) {
+                final Map.Entry<WatchKey, Path> entry = keys.next();
+                if(entry.getValue().startsWith(path)) {
+                    entry.getKey().cancel();
+                    keys.remove();
+                }
+            }
+        }
+        addPending(path, ResourceChangeKind.Deleted, attributes);
+    }
+
+    /**
+     * Compares the entries of {@code directory} and its known subdirectories against the known attributes, after events
+     * for them may have been lost.
+     */
+    private void rescan(Path directory) throws IOException {
+        final HashSet<Path> existing = new HashSet<>(listEntries(directory));
+        final ArrayList<Path> removed = new ArrayList<>();
+        for(Path path : known.keySet()) {
+            if(directory.equals(path.getParent()) && !existing.contains(path)) {
+                removed.add(path);
+            }
+        }
+        for(Path path : removed) {
+            delete(path);
+        }
+        for(Path path : existing) {
+            final boolean wasKnownDirectory = isKnownDirectory(path);
+            update(path, true);
+            if(wasKnownDirectory && isKnownDirectory(path) && directories.containsValue(path)) {
+                rescan(path);
+            }
+        }
+    }
+
+    private boolean isKnownDirectory(Path path) {
+        final @Nullable BasicFileAttributes attributes = known.get(path);
+        return attributes != null && attributes.isDirectory();
+    }
+
+    private static ArrayList<Path> listEntries(Path directory) {
+        final ArrayList<Path> paths = new ArrayList<>();
+        try(final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for(Path path : stream) {
+                paths.add(path);
+            }
+        } catch(IOException | DirectoryIteratorException e) {
+            // Skip directories that cannot be read, but still return the entries that were read.
+        }
+        return paths;
+    }
+
+
+    private void addPending(Path path, ResourceChangeKind kind, BasicFileAttributes attributes) {
+        if(pending.isEmpty()) {
+            firstPendingNanos = System.nanoTime();
+        }
+        final @Nullable PendingChange previous = pending.get(path);
+        if(previous == null) {
+            pending.put(path, new PendingChange(kind, attributes));
+        } else if(previous.kind == ResourceChangeKind.Created && kind == ResourceChangeKind.Deleted) {
+            pending.remove(path); // Created and deleted within the same batch: nothing changed.
+        } else if(previous.kind == ResourceChangeKind.Created) {
+            pending.put(path, new PendingChange(ResourceChangeKind.Created, attributes));
+        } else if(previous.kind == ResourceChangeKind.Deleted && kind == ResourceChangeKind.Created) {
+            pending.put(path, new PendingChange(ResourceChangeKind.Modified, attributes));
+        } else {
+            pending.put(path, new PendingChange(kind, attributes));
+        }
+    }
+
+    /**
+     * Reports pending changes to the listener. Changes for which the matcher throws are skipped, and the first
+     * exception is passed to the listener after the other changes are reported.
+     *
+     * @throws RuntimeException When the listener throws, which ends the watch.
+     */
+    private void report() {
+        final ArrayList<ResourceChange> changes = new ArrayList<>(pending.size());
+        @Nullable IOException failure = null;
+        for(Map.Entry<Path, PendingChange> entry : pending.entrySet()) {
+            final PendingChange change = entry.getValue();
+            final FSResource resource;
+            if(change.kind == ResourceChangeKind.Deleted) {
+                resource = rootDirectory.createDeleted(entry.getKey(), change.attributes);
+            } else {
+                resource = rootDirectory.createDiscovered(entry.getKey(), change.attributes);
+            }
+            try {
+                if(matcher.matches(resource, rootDirectory)) {
+                    changes.add(new ResourceChange(resource, change.kind));
+                }
+            } catch(IOException e) {
+                if(failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        pending.clear();
+        if(!changes.isEmpty()) {
+            try {
+                listener.changed(changes);
+            } catch(RuntimeException e) {
+                listener.failed(new IOException("Cannot report changes of watch '" + rootDirectory + "'; listener threw, ending the watch", e));
+                throw e;
+            }
+        }
+        if(failure != null) {
+            listener.failed(failure);
+        }
+    }
+
+
+    private static class PendingChange {
+        final ResourceChangeKind kind;
+        // Attributes after the change, or before the change if the resource was deleted.
+        final BasicFileAttributes attributes;
+
+        PendingChange(ResourceChangeKind kind, BasicFileAttributes attributes) {
+            this.kind = kind;
+            this.attributes = attributes;
+        }
+    }
+}
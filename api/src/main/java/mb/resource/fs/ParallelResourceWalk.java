@@ -0,0 +1,137 @@
+package mb.resource.fs;
+
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/**
+ * Walks a directory tree in parallel by visiting each directory in a separate {@link RecursiveAction fork-join task}.
+ * Only directories that pass the {@link ResourceWalker walker} are traversed into, and only resources that pass the
+ * {@link ResourceMatcher matcher} are returned. The walker and matcher are called concurrently from multiple threads.
+ *
+ * When walking ordered, the entries of each directory are sorted by name and the result is in depth-first pre-order
+ * (a directory is visited before its children), making the result deterministic. When walking unordered, entries are
+ * not sorted and the result is in no particular order.
+ *
+ * Like {@link ResourceWalkerIterator}, files and directories that cannot be visited are skipped.
+ */
+class ParallelResourceWalk {
+    private final ResourceWalker walker;
+    private final ResourceMatcher matcher;
+    private final FSResource rootDirectory;
+    private final boolean ordered;
+    private final ConcurrentLinkedQueue<FSResource> unorderedResults = new ConcurrentLinkedQueue<>();
+
+
+    ParallelResourceWalk(ResourceWalker walker, ResourceMatcher matcher, FSResource rootDirectory, boolean ordered) {
+        this.walker = walker;
+        this.matcher = matcher;
+        this.rootDirectory = rootDirectory;
+        this.ordered = ordered;
+    }
+
+
+    Stream<FSResource> walk(ForkJoinPool pool) throws IOException {
+        final ArrayList<Object> rootEntries = new ArrayList<>();
+        final ArrayList<DirectoryTask> rootSubtasks = new ArrayList<>();
+        try {
+            visit(rootDirectory.path.javaPath, rootEntries, rootSubtasks);
+            for(DirectoryTask subtask : rootSubtasks) {
+                pool.invoke(subtask);
+            }
+        } catch(UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if(ordered) {
+            final ArrayList<FSResource> results = new ArrayList<>();
+            flattenInto(rootEntries, results);
+            return results.stream();
+        } else {
+            return unorderedResults.parallelStream().unordered();
+        }
+    }
+
+    private void visit(Path path, ArrayList<Object> entries, ArrayList<DirectoryTask> subtasks) throws IOException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch(IOException e) {
+            return; // Skip files whose attributes cannot be read.
+        }
+        final FSResource resource = rootDirectory.createDiscovered(path, attributes);
+        if(matcher.matches(resource, rootDirectory)) {
+            if(ordered) {
+                entries.add(resource);
+            } else {
+                unorderedResults.add(resource);
+            }
+        }
+        if(attributes.isDirectory() && walker.traverse(resource, rootDirectory)) {
+            final DirectoryTask subtask = new DirectoryTask(path);
+            subtasks.add(subtask);
+            if(ordered) {
+                entries.add(subtask);
+            }
+        }
+    }
+
+
+    private static void flattenInto(ArrayList<Object> entries, ArrayList<FSResource> results) {
+        for(Object entry : entries) {
+            if(entry instanceof FSResource) {
+                results.add((FSResource)entry);
+            } else {
+                flattenInto(((DirectoryTask)entry).entries, results);
+            }
+        }
+    }
+
+
+    private class DirectoryTask extends RecursiveAction {
+        private final Path directory;
+        // Matched resources and tasks of traversed subdirectories, in visiting order. Only used when walking ordered.
+        private final ArrayList<Object> entries = new ArrayList<>();
+
+        DirectoryTask(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override protected void compute() {
+            // Read all entries up front so that the directory handle is closed before traversing into subdirectories.
+            final ArrayList<Path> paths = new ArrayList<>();
+            try(final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for(Path path : stream) {
+                    paths.add(path);
+                }
+            } catch(IOException | DirectoryIteratorException e) {
+                // Skip directories that cannot be read, but still visit the entries that were read.
+            }
+            if(ordered) {
+                Collections.sort(paths);
+            }
+            final ArrayList<DirectoryTask> subtasks = new ArrayList<>();
+            try {
+                for(Path path : paths) {
+                    visit(path, entries, subtasks);
+                }
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(subtasks);
+        }
+    }
+}
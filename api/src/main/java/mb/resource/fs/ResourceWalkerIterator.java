@@ -0,0 +1,151 @@
+package mb.resource.fs;
+
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily walks a directory tree in depth-first pre-order (a directory is visited before its children), in the same
+ * order as {@link Files#walkFileTree}. Only directories that pass the {@link ResourceWalker walker} are traversed into,
+ * and only resources that pass the {@link ResourceMatcher matcher} are returned. At most one directory handle is kept
+ * open per level of the directory currently being traversed, and each handle is closed as soon as its directory has
+ * been fully visited.
+ *
+ * Files and directories that cannot be visited are skipped, as they were with {@link Files#walkFileTree}. Exceptions
+ * thrown by the walker or matcher are rethrown as {@link UncheckedIOException}.
+ */
+class ResourceWalkerIterator implements Iterator<FSResource>, Closeable {
+    private final ResourceWalker walker;
+    private final ResourceMatcher matcher;
+    private final FSResource rootDirectory;
+    private final ArrayDeque<DirectoryEntries> stack = new ArrayDeque<>();
+
+    private @Nullable Path root;
+    private @Nullable FSResource next;
+    private boolean closed = false;
+
+
+    ResourceWalkerIterator(ResourceWalker walker, ResourceMatcher matcher, FSResource rootDirectory) {
+        this.walker = walker;
+        this.matcher = matcher;
+        this.rootDirectory = rootDirectory;
+        this.root = rootDirectory.path.javaPath;
+    }
+
+
+    @Override public boolean hasNext() {
+        if(next != null) return true;
+        if(closed) return false;
+        try {
+            next = advance();
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return next != null;
+    }
+
+    @Override public FSResource next() {
+        hasNext();
+        final @Nullable FSResource resource = next;
+        if(resource == null) {
+            throw new NoSuchElementException();
+        }
+        next = null;
+        return resource;
+    }
+
+    @Override public void close() throws IOException {
+        closed = true;
+        next = null;
+        @Nullable IOException exception = null;
+        while(!stack.isEmpty()) {
+            try {
+                stack.pop().stream.close();
+            } catch(IOException e) {
+                if(exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if(exception != null) {
+            throw exception;
+        }
+    }
+
+
+    private @Nullable FSResource advance() throws IOException {
+        while(true) {
+            final Path path;
+            if(root != null) {
+                path = root;
+                root = null;
+            } else {
+                final @Nullable DirectoryEntries entries = stack.peek();
+                if(entries == null) {
+                    return null;
+                }
+                try {
+                    if(!entries.iterator.hasNext()) {
+                        stack.pop().stream.close();
+                        continue;
+                    }
+                    path = entries.iterator.next();
+                } catch(DirectoryIteratorException e) {
+                    // Stop visiting the directory if reading it fails.
+                    stack.pop().stream.close();
+                    continue;
+                }
+            }
+            final @Nullable FSResource resource = visit(path);
+            if(resource != null) {
+                return resource;
+            }
+        }
+    }
+
+    private @Nullable FSResource visit(Path path) throws IOException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch(IOException e) {
+            return null; // Skip files whose attributes cannot be read.
+        }
+        final FSResource resource = rootDirectory.createDiscovered(path, attributes);
+        final boolean matches = matcher.matches(resource, rootDirectory);
+        if(attributes.isDirectory() && walker.traverse(resource, rootDirectory)) {
+            try {
+                final DirectoryStream<Path> stream = Files.newDirectoryStream(path);
+                stack.push(new DirectoryEntries(stream));
+            } catch(IOException e) {
+                // Skip directories that cannot be opened.
+            }
+        }
+        return matches ? resource : null;
+    }
+
+
+    private static class DirectoryEntries {
+        final DirectoryStream<Path> stream;
+        final Iterator<Path> iterator;
+
+        DirectoryEntries(DirectoryStream<Path> stream) {
+            this.stream = stream;
+            this.iterator = stream.iterator();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package mb.resource.hash;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Hash of the contents of a resource, created by the {@link HashFunction hash function} with {@link #getFunctionName()
+ * the given name}.
+ */
+public final class ContentHash implements Serializable {
+    private static final char[] hexDigits = "0123456789abcdef".toCharArray();
+
+    private final String functionName;
+    private final byte[] bytes;
+
+
+    public ContentHash(String functionName, byte[] bytes) {
+        this.functionName = functionName;
+        this.bytes = bytes.clone();
+    }
+
+
+    public String getFunctionName() {
+        return functionName;
+    }
+
+    /**
+     * Gets a copy of the bytes of this hash.
+     */
+    public byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    /**
+     * Gets the bytes of this hash as a lowercase hexadecimal string.
+     */
+    public String toHexString() {
+        final char[] chars = new char[bytes.length * 2];
+        for(int i = 0; i < bytes.length; ++i) {
+            chars[i * 2] = hexDigits[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = hexDigits[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final ContentHash that = (ContentHash)o;
+        return functionName.equals(that.functionName) && Arrays.equals(bytes, that.bytes);
+    }
+
+    @Override public int hashCode() {
+        return 31 * functionName.hashCode() + Arrays.hashCode(bytes);
+    }
+
+    @Override public String toString() {
+        return functionName + ":" + toHexString();
+    }
+}
@@ -0,0 +1,152 @@
+package mb.resource.hash;
+
+import mb.resource.ReadableResource;
+import mb.resource.ResourceKey;
+import mb.resource.fs.FSResource;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of {@link ContentHash content hashes}, keyed by the {@link ResourceKey key} of a resource and the
+ * {@link HashFunction#getName() name} of the hash function, and validated by the size and last modified time of the
+ * resource. When the cache is full, the least recently used entry is evicted.
+ *
+ * Because filesystems have a limited last modified time resolution, a resource could be modified after hashing without
+ * changing its size and last modified time. Therefore, hashes of resources that were last modified shortly before
+ * hashing are not cached. Hashes of resources without a last modified time (those that return {@link Instant#EPOCH})
+ * are not cached either.
+ *
+ * The size and last modified time of a {@link FSResource} are read from the filesystem on every lookup, as a resource
+ * created by a walk or by a {@link mb.resource.fs.CachingFSResourceRegistry} may answer with attributes that were
+ * discovered or cached before the file was modified.
+ */
+public class ContentHashCache {
+    /**
+     * Margin before hashing in which a modification may not have changed the last modified time of a resource, due to
+     * the last modified time resolution of the filesystem (up to 2 seconds on FAT).
+     */
+    private static final long racyMarginMillis = 2000;
+
+    private final int maximumSize;
+    private final LinkedHashMap<CacheKey, CachedHash> entries;
+
+
+    /**
+     * Creates a cache.
+     *
+     * @param maximumSize Maximum number of entries to keep.
+     */
+    public ContentHashCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<CacheKey, CachedHash>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedHash> eldest) {
+                return size() > ContentHashCache.this.maximumSize;
+            }
+        };
+    }
+
+
+    /**
+     * Gets the hash of the contents of {@code resource} with {@code function}, returning the cached hash if the size
+     * and last modified time of {@code resource} are unchanged, or hashing with {@link
+     * ReadableResource#hash(HashFunction)} and caching the hash otherwise.
+     *
+     * @throws IOException when reading the resource fails.
+     */
+    public ContentHash hash(ReadableResource resource, HashFunction function) throws IOException {
+        final CacheKey key = new CacheKey(resource.getKey(), function.getName());
+        final long size;
+        final Instant lastModified;
+        if(resource instanceof FSResource) {
+            // Read fresh attributes, as the resource may answer with discovered or cached ones.
+            final BasicFileAttributes attributes = Files.readAttributes(((FSResource)resource).getJavaPath(), BasicFileAttributes.class);
+            size = attributes.size();
+            lastModified = attributes.lastModifiedTime().toInstant();
+        } else {
+            size = resource.getSize();
+            lastModified = resource.getLastModifiedTime();
+        }
+        synchronized(this) {
+            final @Nullable CachedHash cached = entries.get(key);
+            if(cached != null && cached.size == size && cached.lastModified.equals(lastModified)) {
+                return cached.hash;
+            }
+        }
+        final long startMillis = System.currentTimeMillis();
+        final ContentHash hash = resource.hash(function);
+        if(!lastModified.equals(Instant.EPOCH) && lastModified.toEpochMilli() < startMillis - racyMarginMillis) {
+            synchronized(this) {
+                entries.put(key, new CachedHash(size, lastModified, hash));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Invalidates the cached hashes of the resource with given {@code key}.
+     */
+    public synchronized void invalidate(ResourceKey key) {
+        entries.keySet().removeIf(cacheKey -> cacheKey.key.equals(key));
+    }
+
+    /**
+     * Invalidates all cached hashes.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of entries in this cache.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+
+    private static class CacheKey {
+        final ResourceKey key;
+        final String functionName;
+
+        CacheKey(ResourceKey key, String functionName) {
+            this.key = key;
+            this.functionName = functionName;
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final CacheKey that = (CacheKey)o;
+            return key.equals(that.key) && functionName.equals(that.functionName);
+        }
+
+        @Override public int hashCode() {
+            return 31 * key.hashCode() + functionName.hashCode();
+        }
+    }
+
+    private static class CachedHash {
+        final long size;
+        final Instant lastModified;
+        final ContentHash hash;
+
+        CachedHash(long size, Instant lastModified, ContentHash hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+
+
+    @Override public String toString() {
+        return "ContentHashCache{" +
+            "maximumSize=" + maximumSize +
+            '}';
+    }
+}
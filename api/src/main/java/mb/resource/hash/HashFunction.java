@@ -0,0 +1,45 @@
+package mb.resource.hash;
+
+import java.io.Serializable;
+
+/**
+ * Function that hashes the contents of resources, creating a {@link Hasher} for each resource to hash.
+ */
+public interface HashFunction extends Serializable {
+    /**
+     * Gets the name of this hash function, which identifies the function in {@link ContentHash content hashes} and
+     * {@link ContentHashCache caches}.
+     */
+    String getName();
+
+    /**
+     * Creates a new hasher for hashing one sequence of bytes. Hashers are not thread-safe.
+     */
+    Hasher newHasher();
+
+
+    /**
+     * Creates a hash function that hashes with the SHA-256 {@link java.security.MessageDigest message digest}.
+     */
+    static MessageDigestHashFunction ofSha256() {
+        return new MessageDigestHashFunction("SHA-256");
+    }
+
+    /**
+     * Creates a hash function that hashes with the {@link java.security.MessageDigest message digest} of given
+     * {@code algorithm}, such as {@code "SHA-1"} or {@code "MD5"}.
+     *
+     * @throws IllegalArgumentException when the algorithm is not supported.
+     */
+    static MessageDigestHashFunction ofMessageDigest(String algorithm) {
+        return new MessageDigestHashFunction(algorithm);
+    }
+
+    /**
+     * Creates a hash function that hashes with the fast non-cryptographic 64-bit xxHash (XXH64) algorithm, with a seed
+     * of {@code 0}.
+     */
+    static XXHash64HashFunction ofXXHash64() {
+        return new XXHash64HashFunction(0);
+    }
+}
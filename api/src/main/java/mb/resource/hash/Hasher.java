@@ -0,0 +1,92 @@
+package mb.resource.hash;
+
+import mb.resource.util.BufferUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Hashes a sequence of bytes that is passed in one or more updates. Not thread-safe.
+ */
+public interface Hasher {
+    /**
+     * Updates the hash with {@code length} bytes of {@code bytes} starting at {@code offset}.
+     */
+    void update(byte[] bytes, int offset, int length);
+
+    /**
+     * Updates the hash with the remaining bytes of {@code buffer}, advancing its position to its limit.
+     */
+    void update(ByteBuffer buffer);
+
+    /**
+     * Finishes hashing, returning the hash. The hasher may not be used after finishing.
+     */
+    ContentHash finish();
+
+
+    /**
+     * Updates the hash with all bytes of {@code bytes}.
+     */
+    default void update(byte[] bytes) {
+        update(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Updates the hash with the remaining bytes of {@code inputStream}, reading through a {@link BufferUtil pooled}
+     * buffer.
+     * Does not close {@code inputStream}.
+     *
+     * @throws IOException when reading fails.
+     */
+    default void update(InputStream inputStream) throws IOException {
+        final byte[] buffer = BufferUtil.acquire();
+        try {
+            int read;
+            while((read = inputStream.read(buffer, 0, buffer.length)) != -1) {
+                update(buffer, 0, read);
+            }
+        } finally {
+            BufferUtil.release(buffer);
+        }
+    }
+
+    /**
+     * Updates the hash with {@code chars} encoded in {@code charset}, encoding through a {@link BufferUtil pooled}
+     * buffer instead of encoding all characters into a byte array first. Malformed and unmappable characters are
+     * replaced, as in {@link String#getBytes(Charset)}.
+     */
+    default void update(CharSequence chars, Charset charset) {
+        final CharsetEncoder encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final CharBuffer input = CharBuffer.wrap(chars);
+        final byte[] array = BufferUtil.acquire();
+        final ByteBuffer buffer = ByteBuffer.wrap(array);
+        try {
+            boolean endOfInput = false;
+            while(true) {
+                final CoderResult result = endOfInput ? encoder.flush(buffer) : encoder.encode(input, buffer, true);
+                if(result.isError()) result.throwException(); // Cannot happen: errors are replaced.
+                buffer.flip();
+                update(buffer);
+                buffer.clear();
+                if(result.isUnderflow()) {
+                    if(endOfInput) break;
+                    endOfInput = true;
+                }
+            }
+        } catch(CharacterCodingException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            BufferUtil.release(array);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package mb.resource.hash;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hash function that hashes with a {@link MessageDigest message digest}.
+ */
+public class MessageDigestHashFunction implements HashFunction {
+    private final String algorithm;
+
+
+    /**
+     * @throws IllegalArgumentException when {@code algorithm} is not supported.
+     */
+    public MessageDigestHashFunction(String algorithm) {
+        this.algorithm = algorithm;
+        createMessageDigest(); // Fail early for unsupported algorithms.
+    }
+
+
+    @Override public String getName() {
+        return algorithm;
+    }
+
+    @Override public Hasher newHasher() {
+        return new MessageDigestHasher(algorithm, createMessageDigest());
+    }
+
+    private MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Message digest algorithm '" + algorithm + "' is not supported", e);
+        }
+    }
+
+
+    private static class MessageDigestHasher implements Hasher {
+        private final String algorithm;
+        private final MessageDigest digest;
+
+        MessageDigestHasher(String algorithm, MessageDigest digest) {
+            this.algorithm = algorithm;
+            this.digest = digest;
+        }
+
+        @Override public void update(byte[] bytes, int offset, int length) {
+            digest.update(bytes, offset, length);
+        }
+
+        @Override public void update(ByteBuffer buffer) {
+            digest.update(buffer);
+        }
+
+        @Override public ContentHash finish() {
+            return new ContentHash(algorithm, digest.digest());
+        }
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final MessageDigestHashFunction that = (MessageDigestHashFunction)o;
+        return algorithm.equals(that.algorithm);
+    }
+
+    @Override public int hashCode() {
+        return algorithm.hashCode();
+    }
+
+    @Override public String toString() {
+        return algorithm;
+    }
+}
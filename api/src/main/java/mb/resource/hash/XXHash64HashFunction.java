@@ -0,0 +1,158 @@
+package mb.resource.hash;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Hash function that hashes with the fast non-cryptographic 64-bit xxHash (XXH64) algorithm. Hashes are stored in the
+ * canonical (big-endian) representation of XXH64.
+ */
+public class XXHash64HashFunction implements HashFunction {
+    private static final long prime1 = 0x9E3779B185EBCA87L;
+    private static final long prime2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long prime3 = 0x165667B19E3779F9L;
+    private static final long prime4 = 0x85EBCA77C2B2AE63L;
+    private static final long prime5 = 0x27D4EB2F165667C5L;
+    private static final int stripeSize = 32;
+
+    private final long seed;
+
+
+    public XXHash64HashFunction(long seed) {
+        this.seed = seed;
+    }
+
+
+    @Override public String getName() {
+        return seed == 0 ? "XXH64" : "XXH64-" + Long.toHexString(seed);
+    }
+
+    @Override public Hasher newHasher() {
+        return new XXHash64Hasher(getName(), seed);
+    }
+
+
+    private static class XXHash64Hasher implements Hasher {
+        private final String name;
+        private final long seed;
+        private long v1;
+        private long v2;
+        private long v3;
+        private long v4;
+        private long length = 0;
+        // Bytes of an incomplete stripe.
+        private final ByteBuffer pending = ByteBuffer.allocate(stripeSize).order(ByteOrder.LITTLE_ENDIAN);
+
+        XXHash64Hasher(String name, long seed) {
+            this.name = name;
+            this.seed = seed;
+            this.v1 = seed + prime1 + prime2;
+            this.v2 = seed + prime2;
+            this.v3 = seed;
+            this.v4 = seed - prime1;
+        }
+
+        @Override public void update(byte[] bytes, int offset, int length) {
+            update(ByteBuffer.wrap(bytes, offset, length));
+        }
+
+        @Override public void update(ByteBuffer buffer) {
+            final ByteBuffer input = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            length += input.remaining();
+            if(pending.position() > 0) {
+                while(pending.hasRemaining() && input.hasRemaining()) {
+                    pending.put(input.get());
+                }
+                if(pending.hasRemaining()) {
+                    buffer.position(buffer.limit());
+                    return;
+                }
+                pending.flip();
+                stripe(pending);
+                pending.clear();
+            }
+            while(input.remaining() >= stripeSize) {
+                stripe(input);
+            }
+            pending.put(input);
+            buffer.position(buffer.limit());
+        }
+
+        private void stripe(ByteBuffer input) {
+            v1 = round(v1, input.getLong());
+            v2 = round(v2, input.getLong());
+            v3 = round(v3, input.getLong());
+            v4 = round(v4, input.getLong());
+        }
+
+        @Override public ContentHash finish() {
+            long hash;
+            if(length >= stripeSize) {
+                hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+                hash = mergeRound(hash, v1);
+                hash = mergeRound(hash, v2);
+                hash = mergeRound(hash, v3);
+                hash = mergeRound(hash, v4);
+            } else {
+                hash = seed + prime5;
+            }
+            hash += length;
+
+            pending.flip();
+            while(pending.remaining() >= 8) {
+                hash ^= round(0, pending.getLong());
+                hash = Long.rotateLeft(hash, 27) * prime1 + prime4;
+            }
+            if(pending.remaining() >= 4) {
+                hash ^= (pending.getInt() & 0xFFFFFFFFL) * prime1;
+                hash = Long.rotateLeft(hash, 23) * prime2 + prime3;
+            }
+            while(pending.hasRemaining()) {
+                hash ^= (pending.get() & 0xFF) * prime5;
+                hash = Long.rotateLeft(hash, 11) * prime1;
+            }
+
+            hash ^= hash >>> 33;
+            hash *= prime2;
+            hash ^= hash >>> 29;
+            hash *= prime3;
+            hash ^= hash >>> 32;
+
+            final byte[] bytes = new byte[8];
+            for(int i = 7; i >= 0; --i) {
+                bytes[i] = (byte)hash;
+                hash >>>= 8;
+            }
+            return new ContentHash(name, bytes);
+        }
+
+        private static long round(long accumulator, long input) {
+            accumulator += input * prime2;
+            accumulator = Long.rotateLeft(accumulator, 31);
+            return accumulator * prime1;
+        }
+
+        private static long mergeRound(long accumulator, long value) {
+            accumulator ^= round(0, value);
+            return accumulator * prime1 + prime4;
+        }
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final XXHash64HashFunction that = (XXHash64HashFunction)o;
+        return seed == that.seed;
+    }
+
+    @Override public int hashCode() {
+        return Long.hashCode(seed);
+    }
+
+    @Override public String toString() {
+        return getName();
+    }
+}
@@ -5,6 +5,8 @@ import mb.resource.ResourceRuntimeException;
 import mb.resource.WritableResource;
 import mb.resource.hierarchical.match.ResourceMatcher;
 import mb.resource.hierarchical.walk.ResourceWalker;
+import mb.resource.hierarchical.watch.ResourceChangeListener;
+import mb.resource.hierarchical.watch.ResourceWatch;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.IOException;
@@ -371,6 +373,29 @@ public interface HierarchicalResource extends WritableResource {
      */
     Stream<? extends HierarchicalResource> walk(ResourceWalker walker, ResourceMatcher matcher) throws IOException;
 
+    /**
+     * Returns a stream that recursively walks resources inside this directory, only traversing into directories that
+     * pass the {@code walker}, and only visiting resources that pass the {@code matcher}, where directories may be
+     * traversed in parallel. The {@code walker} and {@code matcher} may therefore be called concurrently from multiple
+     * threads.
+     *
+     * By default, this falls back to {@link #walk(ResourceWalker, ResourceMatcher) walking sequentially}.
+     *
+     * The returned stream must be closed after use to close this directory and any recursively visited directories.
+     * Failing to do so will cause visited directories to stay open on some platforms (e.g., Windows), making them
+     * undeletable.
+     *
+     * @param walker  {@link ResourceWalker Resource walker} that determines which directories will be traversed into.
+     * @param matcher {@link ResourceWalker Resource matcher} that determines which resources will be visited.
+     * @param ordered Whether the returned stream must be in a deterministic pre-order, where a directory is always
+     *                visited before its children. The order of the children of a directory is implementation-specific.
+     *                If {@code false}, the stream is unordered and may be parallel.
+     * @throws UnsupportedOperationException The operation is not supported.
+     */
+    default Stream<? extends HierarchicalResource> walkParallel(ResourceWalker walker, ResourceMatcher matcher, boolean ordered) throws IOException {
+        return walk(walker, matcher);
+    }
+
     default void walkForEach(ResourceMatcher matcher, HierarchicalResourceConsumer consumer) throws IOException {
         walkForEach(ResourceWalker.ofTrue(), matcher, consumer);
     }
@@ -393,10 +418,27 @@ public interface HierarchicalResource extends WritableResource {
         }
     }
 
+    /**
+     * Watches resources inside this directory for changes, only watching directories that pass the {@code walker}, and
+     * only reporting changes to resources that pass the {@code matcher}. Changes are reported in batches to the {@code
+     * listener}, after no further changes have been observed for a short amount of time.
+     *
+     * The returned watch must be closed to stop watching.
+     *
+     * @param walker   {@link ResourceWalker Resource walker} that determines which directories will be watched.
+     * @param matcher  {@link ResourceWalker Resource matcher} that determines which changes will be reported.
+     * @param listener {@link ResourceChangeListener Listener} that is called with batches of changes.
+     * @throws UnsupportedOperationException The operation is not supported.
+     */
+    default ResourceWatch watch(ResourceWalker walker, ResourceMatcher matcher, ResourceChangeListener listener) throws IOException {
+        throw new UnsupportedOperationException("Resource '" + this + "' does not support watching");
+    }
+
     /**
      * Copies this resource to another resource. Can only be used to copy resources that belong to the same {@link
-     * ResourceRegistry resource registry}. Copying files of different registries requires {@link #openRead() reading
-     * the bytes} of one resource and {@link #openWrite() writing} them into the other.
+     * ResourceRegistry resource registry}. Copying files of different registries requires {@link
+     * #transferTo(WritableResource) transferring} the bytes of one resource into the other, which implementations may
+     * do instead of throwing.
      *
      * @throws ResourceRuntimeException      When {@code other}'s (sub)type is not the same as this resource's type.
      * @throws UnsupportedOperationException The operation is not supported.
@@ -142,6 +142,11 @@ public abstract class HierarchicalResourceDefaults<SELF extends HierarchicalReso
     @Override
     public abstract Stream<SELF> walk(ResourceWalker walker, ResourceMatcher matcher) throws IOException;
 
+    @Override
+    public Stream<SELF> walkParallel(ResourceWalker walker, ResourceMatcher matcher, boolean ordered) throws IOException {
+        return walk(walker, matcher);
+    }
+
 
     @Override public abstract SELF createFile(boolean createParents) throws IOException;
 
@@ -0,0 +1,61 @@
+package mb.resource.hierarchical.snapshot;
+
+import mb.resource.hierarchical.ResourcePath;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Difference between two {@link ResourceTreeSnapshot snapshots} of the same resource tree.
+ */
+public class ResourceTreeDiff implements Serializable {
+    /**
+     * Paths of resources that are in the newer snapshot, but not in the older one.
+     */
+    public final ArrayList<ResourcePath> added;
+    /**
+     * Paths of resources that are in the older snapshot, but not in the newer one.
+     */
+    public final ArrayList<ResourcePath> removed;
+    /**
+     * Paths of resources that are in both snapshots, but whose type, size, last modified time, or content hash differ.
+     */
+    public final ArrayList<ResourcePath> modified;
+
+    public ResourceTreeDiff(ArrayList<ResourcePath> added, ArrayList<ResourcePath> removed, ArrayList<ResourcePath> modified) {
+        this.added = added;
+        this.removed = removed;
+        this.modified = modified;
+    }
+
+    public ResourceTreeDiff() {
+        this(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+    }
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final ResourceTreeDiff that = (ResourceTreeDiff)o;
+        return added.equals(that.added) && removed.equals(that.removed) && modified.equals(that.modified);
+    }
+
+    @Override public int hashCode() {
+        int result = added.hashCode();
+        result = 31 * result + removed.hashCode();
+        result = 31 * result + modified.hashCode();
+        return result;
+    }
+
+    @Override public String toString() {
+        return "ResourceTreeDiff{" +
+            "added=" + added +
+            ", removed=" + removed +
+            ", modified=" + modified +
+            '}';
+    }
+}
@@ -0,0 +1,496 @@
+package mb.resource.hierarchical.snapshot;
+
+import mb.resource.fs.FSResource;
+import mb.resource.hierarchical.HierarchicalResource;
+import mb.resource.hierarchical.HierarchicalResourceType;
+import mb.resource.hierarchical.ResourcePath;
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Snapshot of the type, size, last modified time, and optionally the SHA-256 hash of the contents, of resources in a
+ * directory tree. Only directories that pass the {@link ResourceWalker walker} are traversed into, and only resources
+ * that pass the {@link ResourceMatcher matcher} are reported when {@link #diff(ResourceTreeSnapshot) diffing} two
+ * snapshots.
+ *
+ * A snapshot can be {@link #update(HierarchicalResource) updated} into a new snapshot. Updating does not list
+ * directories whose last modified time is unchanged, but reuses the entries of the previous snapshot instead, and does
+ * not hash files whose size and last modified time are unchanged. Because filesystems have a limited last modified
+ * time resolution, directories and files that were last modified shortly before the previous snapshot was created are
+ * always listed or hashed again.
+ *
+ * Snapshots are serializable in a compact form, for example to compare against the previous run of an application.
+ */
+public class ResourceTreeSnapshot implements Serializable {
+    /**
+     * Margin before the creation time of a snapshot in which a modification may not have changed the last modified time
+     * of a directory or file, due to the last modified time resolution of the filesystem (up to 2 seconds on FAT).
+     */
+    private static final long RACY_MARGIN_MILLIS = 2000;
+    private static final Comparator<Node> NAME_COMPARATOR = Comparator.comparing(node -> node.name);
+
+    private final ResourcePath rootPath;
+    private final ResourceWalker walker;
+    private final ResourceMatcher matcher;
+    private final boolean hashContents;
+    private final long createdMillis;
+    // Transient and non-final for custom serialization in writeObject and readObject. Invariant: always nonnull.
+    private transient Node root;
+
+
+    private ResourceTreeSnapshot(
+        ResourcePath rootPath,
+        ResourceWalker walker,
+        ResourceMatcher matcher,
+        boolean hashContents,
+        long createdMillis,
+        Node root
+    ) {
+        this.rootPath = rootPath;
+        this.walker = walker;
+        this.matcher = matcher;
+        this.hashContents = hashContents;
+        this.createdMillis = createdMillis;
+        this.root = root;
+    }
+
+    /**
+     * Creates a snapshot of the resources inside given {@code rootDirectory}.
+     *
+     * @param rootDirectory Directory to create a snapshot of.
+     * @param walker        {@link ResourceWalker Resource walker} that determines which directories will be traversed
+     *                      into.
+     * @param matcher       {@link ResourceMatcher Resource matcher} that determines which resources are reported when
+     *                      diffing.
+     * @param hashContents  Whether to hash the contents of files that pass the {@code matcher}, to determine whether
+     *                      they were modified by their contents instead of by their size and last modified time.
+     * @throws IOException when reading resources fails.
+     */
+    public static ResourceTreeSnapshot create(
+        HierarchicalResource rootDirectory,
+        ResourceWalker walker,
+        ResourceMatcher matcher,
+        boolean hashContents
+    ) throws IOException {
+        return new Scanner(rootDirectory, walker, matcher, hashContents, null).scan();
+    }
+
+    /**
+     * Creates a new snapshot of the resources inside given {@code rootDirectory} with the same walker, matcher, and
+     * hashing setting as this snapshot, reusing the directory entries and hashes of this snapshot where they cannot
+     * have changed. When {@code rootDirectory} has a different path than the root directory of this snapshot, a full
+     * snapshot is created instead.
+     *
+     * @throws IOException when reading resources fails.
+     */
+    public ResourceTreeSnapshot update(HierarchicalResource rootDirectory) throws IOException {
+        final @Nullable ResourceTreeSnapshot previous = rootPath.equals(rootDirectory.getPath()) ? this : null;
+        return new Scanner(rootDirectory, walker, matcher, hashContents, previous).scan();
+    }
+
+    /**
+     * Gets the differences between this (older) snapshot and given {@code newer} snapshot, in terms of resources that
+     * pass the matcher. Paths are created from the root path of {@code newer}. When both snapshots have hashed their
+     * contents, files with the same hash are not reported as modified, even when their last modified time differs.
+     */
+    public ResourceTreeDiff diff(ResourceTreeSnapshot newer) {
+        final ResourceTreeDiff diff = new ResourceTreeDiff();
+        new Differ(newer.rootPath, hashContents && newer.hashContents, diff).diff(root.children, newer.root.children);
+        return diff;
+    }
+
+
+    public ResourcePath getRootPath() {
+        return rootPath;
+    }
+
+    public ResourceWalker getWalker() {
+        return walker;
+    }
+
+    public ResourceMatcher getMatcher() {
+        return matcher;
+    }
+
+    public boolean isHashContents() {
+        return hashContents;
+    }
+
+    /**
+     * Gets the time at which creating this snapshot started.
+     */
+    public Instant getCreatedTime() {
+        return Instant.ofEpochMilli(createdMillis);
+    }
+
+
+    private static class Node {
+        final String name;
+        final HierarchicalResourceType type;
+        final long size;
+        final Instant lastModified;
+        final boolean matched;
+        // SHA-256 hash of the contents, or null if not hashed.
+        final byte @Nullable [] hash;
+        // Entries sorted by name, or null if this is not a directory that was traversed into.
+        final Node @Nullable [] children;
+
+        Node(
+            String name,
+            HierarchicalResourceType type,
+            long size,
+            Instant lastModified,
+            boolean matched,
+            byte @Nullable [] hash,
+            Node @Nullable [] children
+        ) {
+            this.name = name;
+            this.type = type;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.matched = matched;
+            this.hash = hash;
+            this.children = children;
+        }
+
+        @Nullable Node getChild(String name) {
+            if(children == null) return null;
+            int low = 0;
+            int high = children.length - 1;
+            while(low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int comparison = children[middle].name.compareTo(name);
+                if(comparison < 0) {
+                    low = middle + 1;
+                } else if(comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return children[middle];
+                }
+            }
+            return null;
+        }
+    }
+
+
+    private static class Scanner {
+        private final HierarchicalResource rootDirectory;
+        private final ResourceWalker walker;
+        private final ResourceMatcher matcher;
+        private final boolean hashContents;
+        private final @Nullable ResourceTreeSnapshot previous;
+        private final long createdMillis = System.currentTimeMillis();
+        private final byte[] buffer;
+        private final @Nullable MessageDigest digest;
+
+        Scanner(
+            HierarchicalResource rootDirectory,
+            ResourceWalker walker,
+            ResourceMatcher matcher,
+            boolean hashContents,
+            @Nullable ResourceTreeSnapshot previous
+        ) {
+            this.rootDirectory = rootDirectory;
+            this.walker = walker;
+            this.matcher = matcher;
+            this.hashContents = hashContents;
+            this.previous = previous;
+            if(hashContents) {
+                this.buffer = new byte[8192];
+                try {
+                    this.digest = MessageDigest.getInstance("SHA-256");
+                } catch(NoSuchAlgorithmException e) {
+                    throw new RuntimeException(e); // SHA-256 is required to be supported by every Java platform.
+                }
+            } else {
+                this.buffer = new byte[0];
+                this.digest = null;
+            }
+        }
+
+        ResourceTreeSnapshot scan() throws IOException {
+            final @Nullable Node previousRoot = previous != null ? previous.root : null;
+            final HierarchicalResourceType type = rootDirectory.getType();
+            final Node root;
+            if(type == HierarchicalResourceType.Directory) {
+                final Instant lastModified = rootDirectory.getLastModifiedTime();
+                final Node[] children = scanDirectory(rootDirectory, lastModified, previousRoot);
+                root = new Node("", type, 0, lastModified, false, null, children);
+            } else {
+                root = new Node("", type, 0, Instant.EPOCH, false, null, new Node[0]);
+            }
+            return new ResourceTreeSnapshot(rootDirectory.getPath(), walker, matcher, hashContents, createdMillis, root);
+        }
+
+        private Node[] scanDirectory(HierarchicalResource directory, Instant lastModified, @Nullable Node previousNode) throws IOException {
+            final ArrayList<Node> nodes;
+            if(previousNode != null && previousNode.children != null && previousNode.type == HierarchicalResourceType.Directory
+                && previousNode.lastModified.equals(lastModified) && isNotRacy(lastModified)) {
+                // Entries of a directory cannot have been added or removed when its last modified time is unchanged.
+                nodes = new ArrayList<>(previousNode.children.length);
+                for(Node previousChild : previousNode.children) {
+                    final @Nullable Node node = scanEntry(directory.appendSegment(previousChild.name), previousChild.name, previousChild);
+                    if(node != null) nodes.add(node);
+                }
+            } else {
+                nodes = new ArrayList<>();
+                try(final Stream<? extends HierarchicalResource> stream = directory.list()) {
+                    final Iterator<? extends HierarchicalResource> iterator = stream.iterator();
+                    while(iterator.hasNext()) {
+                        final HierarchicalResource resource = iterator.next();
+                        final @Nullable String name = resource.getLeaf();
+                        if(name == null) continue;
+                        final @Nullable Node previousChild = previousNode != null ? previousNode.getChild(name) : null;
+                        final @Nullable Node node = scanEntry(resource, name, previousChild);
+                        if(node != null) nodes.add(node);
+                    }
+                }
+                nodes.sort(NAME_COMPARATOR);
+            }
+            return nodes.toArray(new Node[0]);
+        }
+
+        private @Nullable Node scanEntry(HierarchicalResource resource, String name, @Nullable Node previousNode) throws IOException {
+            try {
+                return scanExistingEntry(resource, name, previousNode);
+            } catch(NoSuchFileException e) {
+                return null; // Deleted while scanning.
+            }
+        }
+
+        private @Nullable Node scanExistingEntry(HierarchicalResource resource, String name, @Nullable Node previousNode) throws IOException {
+            final HierarchicalResourceType type;
+            final Instant lastModified;
+            final long size;
+            if(resource instanceof FSResource) {
+                // Read all attributes at once, instead of one filesystem call per attribute.
+                final BasicFileAttributes attributes = Files.readAttributes(((FSResource)resource).getJavaPath(), BasicFileAttributes.class);
+                if(attributes.isRegularFile()) {
+                    type = HierarchicalResourceType.File;
+                } else if(attributes.isDirectory()) {
+                    type = HierarchicalResourceType.Directory;
+                } else {
+                    type = HierarchicalResourceType.Unknown;
+                }
+                lastModified = attributes.lastModifiedTime().toInstant();
+                size = type == HierarchicalResourceType.File ? attributes.size() : 0;
+            } else {
+                type = resource.getType();
+                if(type == HierarchicalResourceType.Unknown && !resource.exists()) {
+                    return null; // Deleted while scanning.
+                }
+                lastModified = resource.getLastModifiedTime();
+                size = type == HierarchicalResourceType.File ? resource.getSize() : 0;
+            }
+            final boolean matched = matcher.matches(resource, rootDirectory);
+            byte @Nullable [] hash = null;
+            if(hashContents && matched && type == HierarchicalResourceType.File) {
+                if(previousNode != null && previousNode.hash != null && previousNode.type == type
+                    && previousNode.size == size && previousNode.lastModified.equals(lastModified) && isNotRacy(lastModified)) {
+                    hash = previousNode.hash;
+                } else {
+                    hash = hash(resource);
+                }
+            }
+            Node @Nullable [] children = null;
+            if(type == HierarchicalResourceType.Directory && walker.traverse(resource, rootDirectory)) {
+                children = scanDirectory(resource, lastModified, previousNode);
+            }
+            return new Node(name, type, size, lastModified, matched, hash, children);
+        }
+
+        private boolean isNotRacy(Instant lastModified) {
+            return previous != null && lastModified.toEpochMilli() < previous.createdMillis - RACY_MARGIN_MILLIS;
+        }
+
+        private byte[] hash(HierarchicalResource resource) throws IOException {
+            final MessageDigest digest = this.digest;
+            if(digest == null) throw new IllegalStateException("Cannot hash " + resource + ", hashing is disabled");
+            try(final InputStream inputStream = resource.openRead()) {
+                int read;
+                while((read = inputStream.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            return digest.digest();
+        }
+    }
+
+
+    private static class Differ {
+        private final ResourcePath rootPath;
+        private final boolean compareHashes;
+        private final ResourceTreeDiff diff;
+        // Segments of the directory currently being diffed, relative to the root path.
+        private final ArrayList<String> segments = new ArrayList<>();
+
+        Differ(ResourcePath rootPath, boolean compareHashes, ResourceTreeDiff diff) {
+            this.rootPath = rootPath;
+            this.compareHashes = compareHashes;
+            this.diff = diff;
+        }
+
+        void diff(Node @Nullable [] older, Node @Nullable [] newer) {
+            if(older == null) older = new Node[0];
+            if(newer == null) newer = new Node[0];
+            int o = 0;
+            int n = 0;
+            while(o < older.length || n < newer.length) {
+                final int comparison;
+                if(o == older.length) {
+                    comparison = 1;
+                } else if(n == newer.length) {
+                    comparison = -1;
+                } else {
+                    comparison = older[o].name.compareTo(newer[n].name);
+                }
+                if(comparison < 0) {
+                    removed(older[o++]);
+                } else if(comparison > 0) {
+                    added(newer[n++]);
+                } else {
+                    changed(older[o++], newer[n++]);
+                }
+            }
+        }
+
+        private void changed(Node older, Node newer) {
+            segments.add(newer.name);
+            if(older.matched && newer.matched) {
+                if(isModified(older, newer)) diff.modified.add(path());
+            } else if(newer.matched) {
+                diff.added.add(path());
+            } else if(older.matched) {
+                diff.removed.add(path());
+            }
+            diff(older.children, newer.children);
+            segments.remove(segments.size() - 1);
+        }
+
+        private void added(Node node) {
+            segments.add(node.name);
+            if(node.matched) diff.added.add(path());
+            if(node.children != null) {
+                for(Node child : node.children) {
+                    added(child);
+                }
+            }
+            segments.remove(segments.size() - 1);
+        }
+
+        private void removed(Node node) {
+            segments.add(node.name);
+            if(node.matched) diff.removed.add(path());
+            if(node.children != null) {
+                for(Node child : node.children) {
+                    removed(child);
+                }
+            }
+            segments.remove(segments.size() - 1);
+        }
+
+        private boolean isModified(Node older, Node newer) {
+            if(older.type != newer.type) return true;
+            if(newer.type != HierarchicalResourceType.File) return false;
+            if(older.size != newer.size) return true;
+            if(compareHashes && older.hash != null && newer.hash != null) {
+                return !Arrays.equals(older.hash, newer.hash);
+            }
+            return !older.lastModified.equals(newer.lastModified);
+        }
+
+        private ResourcePath path() {
+            return rootPath.appendSegments(segments);
+        }
+    }
+
+
+    private static final int FLAG_MATCHED = 1 << 2;
+    private static final int FLAG_HASH = 1 << 3;
+    private static final int FLAG_CHILDREN = 1 << 4;
+    private static final HierarchicalResourceType[] TYPES = HierarchicalResourceType.values();
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        writeNode(out, root);
+    }
+
+    private static void writeNode(ObjectOutputStream out, Node node) throws IOException {
+        out.writeUTF(node.name);
+        int flags = node.type.ordinal();
+        if(node.matched) flags |= FLAG_MATCHED;
+        if(node.hash != null) flags |= FLAG_HASH;
+        if(node.children != null) flags |= FLAG_CHILDREN;
+        out.writeByte(flags);
+        out.writeLong(node.lastModified.getEpochSecond());
+        out.writeInt(node.lastModified.getNano());
+        if(node.type == HierarchicalResourceType.File) {
+            out.writeLong(node.size);
+        }
+        if(node.hash != null) {
+            out.writeByte(node.hash.length);
+            out.write(node.hash);
+        }
+        if(node.children != null) {
+            out.writeInt(node.children.length);
+            for(Node child : node.children) {
+                writeNode(out, child);
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws ClassNotFoundException, IOException {
+        in.defaultReadObject();
+        this.root = readNode(in);
+    }
+
+    private static Node readNode(ObjectInputStream in) throws IOException {
+        final String name = in.readUTF();
+        final int flags = in.readUnsignedByte();
+        final HierarchicalResourceType type = TYPES[flags & 0b11];
+        final Instant lastModified = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        final long size = type == HierarchicalResourceType.File ? in.readLong() : 0;
+        byte @Nullable [] hash = null;
+        if((flags & FLAG_HASH) != 0) {
+            hash = new byte[in.readUnsignedByte()];
+            in.readFully(hash);
+        }
+        Node @Nullable [] children = null;
+        if((flags & FLAG_CHILDREN) != 0) {
+            children = new Node[in.readInt()];
+            for(int i = 0; i < children.length; ++i) {
+                children[i] = readNode(in);
+            }
+        }
+        return new Node(name, type, size, lastModified, (flags & FLAG_MATCHED) != 0, hash, children);
+    }
+
+
+    @Override public String toString() {
+        return "ResourceTreeSnapshot{" +
+            "rootPath=" + rootPath +
+            ", walker=" + walker +
+            ", matcher=" + matcher +
+            ", hashContents=" + hashContents +
+            ", createdTime=" + getCreatedTime() +
+            '}';
+    }
+}
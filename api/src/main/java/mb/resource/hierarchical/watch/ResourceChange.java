@@ -0,0 +1,34 @@
+package mb.resource.hierarchical.watch;
+
+import mb.resource.hierarchical.HierarchicalResource;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A change to a {@link HierarchicalResource resource}, reported by a {@link ResourceWatch resource watch}.
+ */
+public class ResourceChange {
+    public final HierarchicalResource resource;
+    public final ResourceChangeKind kind;
+
+    public ResourceChange(HierarchicalResource resource, ResourceChangeKind kind) {
+        this.resource = resource;
+        this.kind = kind;
+    }
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final ResourceChange that = (ResourceChange)o;
+        return resource.equals(that.resource) && kind == that.kind;
+    }
+
+    @Override public int hashCode() {
+        int result = resource.hashCode();
+        result = 31 * result + kind.hashCode();
+        return result;
+    }
+
+    @Override public String toString() {
+        return kind + " " + resource;
+    }
+}
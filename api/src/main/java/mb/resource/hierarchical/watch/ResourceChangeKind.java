@@ -0,0 +1,5 @@
+package mb.resource.hierarchical.watch;
+
+public enum ResourceChangeKind {
+    Created, Modified, Deleted
+}
@@ -0,0 +1,27 @@
+package mb.resource.hierarchical.watch;
+
+import java.io.IOException;
+import java.util.List;
+
+@FunctionalInterface
+public interface ResourceChangeListener {
+    /**
+     * Called with a batch of changes. Called from a thread owned by the {@link ResourceWatch resource watch}, and never
+     * concurrently for the same watch. Exceptions thrown from this method stop the watch, and are passed to {@link
+     * #failed}, wrapped in an {@link IOException}, if the watch supports it.
+     *
+     * @param changes Changes that occurred, in the order they were observed. Never empty.
+     */
+    void changed(List<ResourceChange> changes);
+
+    /**
+     * Called when observing changes failed, for example because a matcher threw or a directory could not be scanned.
+     * Called from the same thread as {@link #changed}. The watch keeps running, but changes may have been missed,
+     * unless the failure was caused by {@link #changed} throwing. Exceptions thrown from this method stop the watch.
+     *
+     * By default, the failure is ignored.
+     *
+     * @param exception Exception that caused the failure.
+     */
+    default void failed(IOException exception) {}
+}
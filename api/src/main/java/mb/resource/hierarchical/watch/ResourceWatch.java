@@ -0,0 +1,21 @@
+package mb.resource.hierarchical.watch;
+
+import java.io.IOException;
+
+/**
+ * A subscription to changes of resources, created by {@link mb.resource.hierarchical.HierarchicalResource#watch}.
+ * Close the watch to stop receiving changes and to release its resources.
+ */
+public interface ResourceWatch extends AutoCloseable {
+    /**
+     * Gets whether this watch is still receiving changes.
+     */
+    boolean isActive();
+
+    /**
+     * Stops receiving changes.
+     *
+     * @throws IOException An I/O exception occurred.
+     */
+    @Override void close() throws IOException;
+}
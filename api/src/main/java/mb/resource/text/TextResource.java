@@ -1,15 +1,28 @@
 package mb.resource.text;
 
 import mb.resource.DefaultResourceKey;
+import mb.resource.LineConsumer;
 import mb.resource.ReadableResource;
+import mb.resource.WritableResource;
+import mb.resource.hash.ContentHash;
+import mb.resource.hash.HashFunction;
+import mb.resource.hash.Hasher;
+import mb.resource.util.ByteBufferSeekableByteChannel;
+import mb.resource.util.ContentUtil;
+import mb.resource.util.LineReader;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.stream.Stream;
 
 /**
  * An in-memory read-only text resource.
@@ -64,11 +77,78 @@ public class TextResource implements ReadableResource, Serializable {
         return text.getBytes(StandardCharsets.UTF_8); // Encode as UTF-8 bytes.
     }
 
+    @Override public SeekableByteChannel openReadSeekableChannel() {
+        return new ByteBufferSeekableByteChannel(ByteBuffer.wrap(readBytes()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Only encodes the characters that overlap the range, found by counting the UTF-8 length of the preceding
+     * characters, instead of encoding the entire text.
+     */
+    @Override public byte[] readRange(long offset, int length) {
+        ContentUtil.checkRange(offset, length);
+        final int textLength = text.length();
+        final long end = offset + length;
+        long position = 0;
+        int index = 0;
+        int startIndex = -1;
+        long startPosition = 0;
+        while(index < textLength && position < end) {
+            final char c = text.charAt(index);
+            final int charCount;
+            final int byteCount;
+            if(Character.isHighSurrogate(c) && index + 1 < textLength && Character.isLowSurrogate(text.charAt(index + 1))) {
+                charCount = 2;
+                byteCount = 4;
+            } else {
+                charCount = 1;
+                // Unpaired surrogates are encoded as a single replacement byte.
+                byteCount = c < 0x80 || Character.isSurrogate(c) ? 1 : c < 0x800 ? 2 : 3;
+            }
+            if(startIndex == -1 && position + byteCount > offset) {
+                startIndex = index;
+                startPosition = position;
+            }
+            position += byteCount;
+            index += charCount;
+        }
+        if(startIndex == -1) return new byte[0];
+        final byte[] bytes = text.substring(startIndex, index).getBytes(StandardCharsets.UTF_8);
+        final int from = (int)(offset - startPosition);
+        return Arrays.copyOfRange(bytes, from, (int)Math.min(bytes.length, from + (long)length));
+    }
+
     @Override
     public String readString(Charset fromCharset) {
         return text; // Ignore the character set, we do not need to decode from bytes.
     }
 
+    @Override public CharSequence readCharSequence(Charset fromCharset) {
+        return text; // Ignore the character set, we do not need to decode from bytes.
+    }
+
+    @Override public Stream<String> lines(Charset fromCharset) {
+        return LineReader.lines(text); // Ignore the character set, we do not need to decode from bytes.
+    }
+
+    @Override public void forEachLine(Charset fromCharset, LineConsumer consumer) throws IOException {
+        LineReader.forEachLine(text, consumer); // Pass views of the text, without copying.
+    }
+
+    @Override public long transferTo(WritableResource target) throws IOException {
+        final byte[] bytes = readBytes();
+        target.writeBytes(bytes);
+        return bytes.length;
+    }
+
+    @Override public ContentHash hash(HashFunction function) {
+        final Hasher hasher = function.newHasher();
+        hasher.update(text, StandardCharsets.UTF_8); // Hash the same UTF-8 bytes as readBytes, without copying them.
+        return hasher.finish();
+    }
+
     @Override public boolean equals(@Nullable Object o) {
         if(this == o) return true;
         if(o == null || getClass() != o.getClass()) return false;
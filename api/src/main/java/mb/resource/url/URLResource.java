@@ -6,6 +6,7 @@ import mb.resource.hierarchical.HierarchicalResourceType;
 import mb.resource.hierarchical.ResourcePath;
 import mb.resource.hierarchical.match.ResourceMatcher;
 import mb.resource.hierarchical.walk.ResourceWalker;
+import mb.resource.util.ContentUtil;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.FileNotFoundException;
@@ -196,6 +197,15 @@ public class URLResource extends HierarchicalResourceDefaults<URLResource> imple
         return openConnection().getInputStream();
     }
 
+    @Override public byte[] readBytes() throws IOException {
+        // Get the size and content from a single connection, to allocate an array of the right size once.
+        final URLConnection connection = openConnection();
+        final long size = connection.getContentLengthLong();
+        try(final InputStream inputStream = connection.getInputStream()) {
+            return ContentUtil.readBytes(inputStream, size);
+        }
+    }
+
 
     @Override public boolean isWritable() {
         return true; // Don't know if it is writable; return true although opening an output stream may fail.
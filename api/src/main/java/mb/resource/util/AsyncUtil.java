@@ -0,0 +1,126 @@
+package mb.resource.util;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utilities for the asynchronous methods of resources, such as {@link mb.resource.ReadableResource#readBytesAsync()},
+ * and for the default pools that asynchronous and parallel resource operations run on.
+ */
+public class AsyncUtil {
+    private static volatile Executor defaultExecutor = createBoundedExecutor(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+    private static volatile ForkJoinPool defaultIOPool = createIOPool(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+
+
+    /**
+     * Gets the executor that asynchronous resource methods run blocking operations on when no executor is passed. By
+     * default, this is a bounded pool of daemon threads.
+     */
+    public static Executor getDefaultExecutor() {
+        return defaultExecutor;
+    }
+
+    /**
+     * Sets the executor that asynchronous resource methods run blocking operations on when no executor is passed. For
+     * example, on Java 21 and higher, a virtual thread per task executor ({@code
+     * Executors.newVirtualThreadPerTaskExecutor()}) can be used to not be bounded by a number of platform threads.
+     */
+    public static void setDefaultExecutor(Executor executor) {
+        defaultExecutor = executor;
+    }
+
+    /**
+     * Gets the fork-join pool that parallel resource operations, such as walking or deleting directory trees in
+     * parallel, run blocking filesystem operations on when no pool is passed. By default, this is a pool dedicated to
+     * such operations, so that they do not occupy the threads of the {@link ForkJoinPool#commonPool() common pool}.
+     */
+    public static ForkJoinPool getDefaultIOPool() {
+        return defaultIOPool;
+    }
+
+    /**
+     * Sets the fork-join pool that parallel resource operations run blocking filesystem operations on when no pool is
+     * passed.
+     */
+    public static void setDefaultIOPool(ForkJoinPool pool) {
+        defaultIOPool = pool;
+    }
+
+    /**
+     * Creates a fork-join pool with given {@code parallelism} of daemon threads, for blocking filesystem operations.
+     */
+    public static ForkJoinPool createIOPool(int parallelism) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return new ForkJoinPool(parallelism, pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("resource-io-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Creates a pool of at most {@code maximumThreads} daemon threads, which are stopped after being idle for a minute.
+     */
+    public static ExecutorService createBoundedExecutor(int maximumThreads) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(maximumThreads, maximumThreads, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "resource-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+
+    /**
+     * Runs {@code supplier} on {@code executor}, returning a future that completes with its result, or completes
+     * exceptionally with the exception it throws, such as an {@link IOException}.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(IOSupplier<T> supplier, Executor executor) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(supplier.get());
+                } catch(Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch(RuntimeException e) {
+            future.completeExceptionally(e); // For example, rejected by the executor.
+        }
+        return future;
+    }
+
+    /**
+     * Runs {@code runnable} on {@code executor}, returning a future that completes when it has run, or completes
+     * exceptionally with the exception it throws, such as an {@link IOException}.
+     */
+    public static CompletableFuture<Void> runAsync(IORunnable runnable, Executor executor) {
+        return supplyAsync(() -> {
+            runnable.run();
+            return null;
+        }, executor);
+    }
+
+
+    @FunctionalInterface
+    public interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface IORunnable {
+        void run() throws IOException;
+    }
+}
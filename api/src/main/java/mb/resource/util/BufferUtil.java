@@ -0,0 +1,48 @@
+package mb.resource.util;
+
+import java.util.ArrayDeque;
+
+/**
+ * Per-thread pool of byte array buffers of {@link #bufferSize} bytes, used by default implementations that read or
+ * write through a temporary buffer, to prevent allocating a buffer for every read or written resource.
+ *
+ * Buffers are {@link #acquire() acquired} and {@link #release(byte[]) released} explicitly, so that nested uses (such
+ * as reading one resource while writing another) each get their own buffer. A buffer may be released on a different
+ * thread than it was acquired on. Acquired buffers that are never released are garbage collected as usual.
+ */
+public final class BufferUtil {
+    /**
+     * Size of pooled buffers, in bytes.
+     */
+    public static final int bufferSize = 8192;
+    // Maximum number of released buffers kept per thread.
+    private static final int maximumPooledPerThread = 4;
+    private static final ThreadLocal<ArrayDeque<byte[]>> pools =
+        ThreadLocal.withInitial(() -> new ArrayDeque<>(maximumPooledPerThread));
+
+    private BufferUtil() {}
+
+
+    /**
+     * Acquires a buffer of {@link #bufferSize} bytes from the pool of the current thread, or allocates a new one when
+     * the pool is empty. The content of the buffer is undefined. {@link #release(byte[]) Release} the buffer when done
+     * with it, and do not use it after releasing.
+     */
+    public static byte[] acquire() {
+        final byte[] buffer = pools.get().pollLast();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    /**
+     * Releases given {@code buffer} to the pool of the current thread. Buffers that were not {@link #acquire()
+     * acquired} from this pool (i.e., whose length is not {@link #bufferSize}) and buffers that do not fit in the pool
+     * are left to the garbage collector.
+     */
+    public static void release(byte[] buffer) {
+        if(buffer.length != bufferSize) return;
+        final ArrayDeque<byte[]> pool = pools.get();
+        if(pool.size() < maximumPooledPerThread) {
+            pool.addLast(buffer);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package mb.resource.util;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Read-only seekable channel over the bytes of a byte buffer, from its position to its limit. Reads copy from a view of
+ * the buffer, without copying the buffer itself.
+ *
+ * Not thread-safe.
+ */
+public class ByteBufferSeekableByteChannel implements SeekableByteChannel {
+    private final ByteBuffer buffer;
+    // Position of the channel, which may lie beyond the end of the buffer.
+    private long position = 0;
+    private boolean open = true;
+
+
+    public ByteBufferSeekableByteChannel(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+
+    @Override public int read(ByteBuffer dst) throws ClosedChannelException {
+        ensureOpen();
+        if(position >= buffer.limit()) return -1;
+        final int count = (int)Math.min(buffer.limit() - position, dst.remaining());
+        final ByteBuffer slice = buffer.duplicate();
+        slice.limit((int)position + count).position((int)position);
+        dst.put(slice);
+        position += count;
+        return count;
+    }
+
+    @Override public long position() throws ClosedChannelException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override public ByteBufferSeekableByteChannel position(long newPosition) throws ClosedChannelException {
+        ensureOpen();
+        if(newPosition < 0) {
+            throw new IllegalArgumentException("Position " + newPosition + " is negative");
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override public long size() throws ClosedChannelException {
+        ensureOpen();
+        return buffer.limit();
+    }
+
+    @Override public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override public boolean isOpen() {
+        return open;
+    }
+
+    @Override public void close() {
+        open = false;
+    }
+
+
+    private void ensureOpen() throws ClosedChannelException {
+        if(!open) throw new ClosedChannelException();
+    }
+}
@@ -0,0 +1,180 @@
+package mb.resource.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class ContentUtil {
+    // Maximum size of arrays that can be allocated on all JVMs.
+    private static final int maximumArraySize = Integer.MAX_VALUE - 8;
+
+
+    /**
+     * Reads the remaining bytes of {@code inputStream} into an array. When {@code expectedSize} is known, an array of
+     * exactly that size is allocated once and filled, without intermediate buffers or copies. The expected size is only
+     * a hint: when fewer bytes are read, the array is trimmed, and when more bytes are read, the array grows. Does not
+     * close {@code inputStream}.
+     *
+     * @param expectedSize Expected number of remaining bytes, or a negative number if the size is not known.
+     * @return Array with the read bytes.
+     * @throws IOException when reading fails, or when the content does not fit in an array.
+     */
+    public static byte[] readBytes(InputStream inputStream, long expectedSize) throws IOException {
+        if(expectedSize > maximumArraySize) {
+            throw new IOException("Cannot read " + expectedSize + " bytes into an array; the maximum size of an array is " + maximumArraySize + " bytes");
+        }
+        if(expectedSize < 0) {
+            return readBytesGrowing(inputStream, new byte[BufferUtil.bufferSize], 0);
+        }
+        final byte[] bytes = new byte[(int)expectedSize];
+        final int read = readFully(inputStream, bytes);
+        if(read < bytes.length) return Arrays.copyOf(bytes, read);
+        final int next = inputStream.read();
+        if(next == -1) return bytes;
+        // Content is larger than expected: continue reading into a grown array.
+        final byte[] grown = Arrays.copyOf(bytes, grownSize(bytes.length, bytes.length + 1));
+        grown[bytes.length] = (byte)next;
+        return readBytesGrowing(inputStream, grown, bytes.length + 1);
+    }
+
+    /**
+     * Reads the remaining bytes of {@code inputStream} into an array, growing the array when it is full.
+     */
+    private static byte[] readBytesGrowing(InputStream inputStream, byte[] bytes, int length) throws IOException {
+        int read;
+        while(true) {
+            if(length == bytes.length) {
+                if(length == maximumArraySize) {
+                    throw new IOException("Cannot read more than " + maximumArraySize + " bytes into an array");
+                }
+                bytes = Arrays.copyOf(bytes, grownSize(length, length + 1));
+            }
+            read = inputStream.read(bytes, length, bytes.length - length);
+            if(read == -1) break;
+            length += read;
+        }
+        return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+    }
+
+    private static int grownSize(int size, int minimumSize) {
+        final long grown = Math.max(Math.max((long)size * 2, minimumSize), BufferUtil.bufferSize);
+        return (int)Math.min(grown, maximumArraySize);
+    }
+
+
+    /**
+     * Reads at most {@code length} bytes starting at byte {@code offset} of the remaining bytes of {@code inputStream},
+     * by {@link #skip(InputStream, long) skipping} to {@code offset} and then reading. Does not close {@code
+     * inputStream}.
+     *
+     * @return Array with the read bytes, which is shorter than {@code length} when the end of the stream was reached.
+     * @throws IllegalArgumentException when {@code offset} or {@code length} is negative.
+     * @throws IOException              when reading fails.
+     */
+    public static byte[] readRange(InputStream inputStream, long offset, int length) throws IOException {
+        checkRange(offset, length);
+        if(skip(inputStream, offset) < offset) return new byte[0];
+        final byte[] bytes = new byte[length];
+        final int read = readFully(inputStream, bytes);
+        return read == bytes.length ? bytes : Arrays.copyOf(bytes, read);
+    }
+
+    /**
+     * Skips {@code count} bytes of {@code inputStream}, or until the end of the stream. Unlike {@link
+     * InputStream#skip(long)}, only stops early at the end of the stream. Does not close {@code inputStream}.
+     *
+     * @return Number of skipped bytes, which is smaller than {@code count} when the end of the stream was reached.
+     * @throws IOException when skipping fails.
+     */
+    public static long skip(InputStream inputStream, long count) throws IOException {
+        long remaining = count;
+        while(remaining > 0) {
+            final long skipped = inputStream.skip(remaining);
+            if(skipped > 0) {
+                remaining -= skipped;
+            } else if(inputStream.read() != -1) {
+                // Skip may skip nothing before the end of the stream; reading a byte tells whether the end was reached.
+                --remaining;
+            } else {
+                break;
+            }
+        }
+        return count - remaining;
+    }
+
+    /**
+     * Checks the arguments of range reads.
+     *
+     * @throws IllegalArgumentException when {@code offset} or {@code length} is negative.
+     */
+    public static void checkRange(long offset, long length) {
+        if(offset < 0) {
+            throw new IllegalArgumentException("Offset " + offset + " is negative");
+        }
+        if(length < 0) {
+            throw new IllegalArgumentException("Length " + length + " is negative");
+        }
+    }
+
+
+    /**
+     * Compares the remaining bytes of {@code inputStream} with {@code bytes}, reading {@code inputStream} in blocks and
+     * stopping at the first difference. Does not close {@code inputStream}.
+     *
+     * @return {@code true} when the remaining bytes of {@code inputStream} are equal to {@code bytes}; {@code false}
+     * otherwise.
+     * @throws IOException when reading fails.
+     */
+    public static boolean contentEquals(InputStream inputStream, byte[] bytes) throws IOException {
+        final byte[] buffer = BufferUtil.acquire();
+        try {
+            int offset = 0;
+            int read;
+            while((read = inputStream.read(buffer, 0, Math.min(buffer.length, bytes.length - offset + 1))) != -1) {
+                if(offset + read > bytes.length) return false;
+                for(int i = 0; i < read; ++i) {
+                    if(buffer[i] != bytes[offset + i]) return false;
+                }
+                offset += read;
+            }
+            return offset == bytes.length;
+        } finally {
+            BufferUtil.release(buffer);
+        }
+    }
+
+    /**
+     * Compares the remaining bytes of {@code inputStream} and {@code otherInputStream}, reading both in blocks and
+     * stopping at the first difference. Does not close the input streams.
+     *
+     * @return {@code true} when the remaining bytes are equal; {@code false} otherwise.
+     * @throws IOException when reading fails.
+     */
+    public static boolean contentEquals(InputStream inputStream, InputStream otherInputStream) throws IOException {
+        final byte[] buffer = BufferUtil.acquire();
+        final byte[] otherBuffer = BufferUtil.acquire();
+        try {
+            while(true) {
+                final int read = readFully(inputStream, buffer);
+                final int otherRead = readFully(otherInputStream, otherBuffer);
+                if(read != otherRead) return false;
+                for(int i = 0; i < read; ++i) {
+                    if(buffer[i] != otherBuffer[i]) return false;
+                }
+                if(read < buffer.length) return true;
+            }
+        } finally {
+            BufferUtil.release(otherBuffer);
+            BufferUtil.release(buffer);
+        }
+    }
+
+    private static int readFully(InputStream inputStream, byte[] buffer) throws IOException {
+        int offset = 0;
+        int read;
+        while(offset < buffer.length && (read = inputStream.read(buffer, offset, buffer.length - offset)) != -1) {
+            offset += read;
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,147 @@
+package mb.resource.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utilities for decoding bytes into characters directly into a character buffer, without first copying the bytes into
+ * a byte array. Malformed and unmappable bytes are replaced, as in {@link String#String(byte[], Charset)}.
+ */
+public class DecodeUtil {
+    // Maximum size of arrays that can be allocated on all JVMs.
+    private static final int maximumArraySize = Integer.MAX_VALUE - 8;
+
+
+    /**
+     * Decodes the remaining bytes of {@code buffer} with given {@code charset}, advancing its position to its limit.
+     * ISO-8859-1 and US-ASCII are decoded with a direct loop into an array of the exact size, and UTF-8 is decoded with
+     * a direct loop for its ASCII prefix, continuing with a decoder from the first non-ASCII byte. As such, decoding
+     * does not copy the bytes, which is especially cheap for {@link java.nio.MappedByteBuffer memory-mapped} buffers.
+     *
+     * @return Buffer with the decoded characters, positioned at the first character.
+     */
+    public static CharBuffer decode(ByteBuffer buffer, Charset charset) {
+        final int length = buffer.remaining();
+        final int position = buffer.position();
+        if(charset.equals(StandardCharsets.ISO_8859_1) || charset.equals(StandardCharsets.US_ASCII)) {
+            final boolean ascii = charset.equals(StandardCharsets.US_ASCII);
+            final char[] chars = new char[length];
+            for(int i = 0; i < length; ++i) {
+                final byte b = buffer.get(position + i);
+                chars[i] = ascii && b < 0 ? '\uFFFD' : (char)(b & 0xFF);
+            }
+            buffer.position(position + length);
+            return CharBuffer.wrap(chars);
+        } else if(charset.equals(StandardCharsets.UTF_8)) {
+            // UTF-8 decodes to at most one character per byte, so the array never has to grow.
+            final char[] chars = new char[length];
+            int i = 0;
+            if(buffer.hasArray()) {
+                final byte[] array = buffer.array();
+                final int offset = buffer.arrayOffset() + position;
+                while(i < length && array[offset + i] >= 0) {
+                    chars[i] = (char)array[offset + i];
+                    ++i;
+                }
+            } else {
+                byte b;
+                while(i < length && (b = buffer.get(position + i)) >= 0) {
+                    chars[i] = (char)b;
+                    ++i;
+                }
+            }
+            buffer.position(position + i);
+            if(i == length) {
+                return CharBuffer.wrap(chars);
+            }
+            final CharBuffer output = CharBuffer.wrap(chars, i, length - i);
+            final CharsetDecoder decoder = newDecoder(charset);
+            decoder.decode(buffer, output, true);
+            decoder.flush(output);
+            return CharBuffer.wrap(chars, 0, output.position());
+        } else {
+            try {
+                return newDecoder(charset).decode(buffer);
+            } catch(CharacterCodingException e) {
+                throw new IllegalStateException(e); // Cannot happen: errors are replaced.
+            }
+        }
+    }
+
+    /**
+     * Decodes the remaining bytes of {@code inputStream} with given {@code charset}, reading through a {@link
+     * BufferUtil pooled} buffer and decoding into a character buffer that is allocated once when {@code expectedSize}
+     * is known. Does not close {@code inputStream}.
+     *
+     * @param expectedSize Expected number of remaining bytes, or a negative number if the size is not known. Only used
+     *                     as a hint to size the character buffer.
+     * @return Buffer with the decoded characters, positioned at the first character.
+     * @throws IOException when reading fails, or when the characters do not fit in an array.
+     */
+    public static CharBuffer decode(InputStream inputStream, Charset charset, long expectedSize) throws IOException {
+        final CharsetDecoder decoder = newDecoder(charset);
+        final long expectedChars = expectedSize < 0
+            ? BufferUtil.bufferSize
+            : (long)Math.ceil(expectedSize * (double)decoder.averageCharsPerByte());
+        CharBuffer chars = CharBuffer.allocate((int)Math.min(expectedChars, maximumArraySize));
+        final byte[] array = BufferUtil.acquire();
+        try {
+            final ByteBuffer bytes = ByteBuffer.wrap(array);
+            bytes.limit(0);
+            boolean endOfInput = false;
+            while(true) {
+                if(!endOfInput) {
+                    bytes.compact(); // Keep the bytes of incomplete characters.
+                    final int read = inputStream.read(array, bytes.position(), bytes.remaining());
+                    if(read == -1) {
+                        endOfInput = true;
+                    } else {
+                        bytes.position(bytes.position() + read);
+                    }
+                    bytes.flip();
+                }
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                if(result.isUnderflow() && endOfInput) {
+                    result = decoder.flush(chars);
+                    if(result.isUnderflow()) break;
+                }
+                if(result.isOverflow()) {
+                    chars = grow(chars);
+                } else if(result.isError()) {
+                    result.throwException(); // Cannot happen: errors are replaced.
+                }
+            }
+        } finally {
+            BufferUtil.release(array);
+        }
+        chars.flip();
+        return chars;
+    }
+
+
+    private static CharsetDecoder newDecoder(Charset charset) {
+        return charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    private static CharBuffer grow(CharBuffer chars) throws IOException {
+        final int capacity = chars.capacity();
+        if(capacity == maximumArraySize) {
+            throw new IOException("Cannot decode more than " + maximumArraySize + " characters into an array");
+        }
+        final long grownCapacity = Math.max(Math.max((long)capacity * 2, capacity + 1L), BufferUtil.bufferSize);
+        final CharBuffer grown = CharBuffer.allocate((int)Math.min(grownCapacity, maximumArraySize));
+        chars.flip();
+        grown.put(chars);
+        return grown;
+    }
+}
@@ -0,0 +1,263 @@
+package mb.resource.util;
+
+import mb.resource.LineConsumer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads lines from an input stream, decoding the bytes incrementally through a {@link BufferUtil pooled} byte buffer
+ * and a character buffer that are reused for all lines, so that only the current line is held in memory. Lines are
+ * terminated by {@code \n}, {@code \r}, or {@code \r\n}, as in {@link java.io.BufferedReader#readLine()}. Malformed
+ * and unmappable bytes are replaced, as in {@link String#String(byte[], Charset)}.
+ *
+ * Lines that lie within the character buffer are passed to {@link #forEachLine(LineConsumer)} as views of that buffer,
+ * without copying them. Only lines that cross the end of the buffer are copied into a reused builder.
+ *
+ * Not thread-safe.
+ */
+public class LineReader implements Closeable {
+    private final InputStream inputStream;
+    private final CharsetDecoder decoder;
+    private final byte[] byteArray;
+    // Bytes that are read but not yet decoded, in read mode.
+    private final ByteBuffer bytes;
+    private final char[] charArray = new char[BufferUtil.bufferSize];
+    // Characters that are decoded but not yet returned as (part of) a line, in read mode.
+    private final CharBuffer chars = CharBuffer.wrap(charArray);
+    // View of a line in the character buffer, reused for every line.
+    private final CharBuffer lineView = CharBuffer.wrap(charArray);
+    // Builder for lines that cross the end of the character buffer, reused for every such line.
+    private final StringBuilder lineBuilder = new StringBuilder();
+    private boolean endOfInput = false;
+    private boolean decodedAll = false;
+    // Whether the last line was terminated by '\r', in which case a following '\n' is part of that terminator.
+    private boolean skipLineFeed = false;
+    private boolean closed = false;
+
+
+    public LineReader(InputStream inputStream, Charset charset) {
+        this.inputStream = inputStream;
+        this.decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.byteArray = BufferUtil.acquire();
+        this.bytes = ByteBuffer.wrap(byteArray);
+        this.bytes.limit(0);
+        this.chars.limit(0);
+    }
+
+
+    /**
+     * Reads the next line.
+     *
+     * @return The next line without line terminator, or {@code null} if the end of the stream was reached.
+     * @throws IOException when reading fails.
+     */
+    public @Nullable String readLine() throws IOException {
+        final @Nullable CharSequence line = nextLine();
+        return line != null ? line.toString() : null;
+    }
+
+    /**
+     * Passes the remaining lines to {@code consumer}. Lines are passed as views of a reused buffer, which are only
+     * valid until {@code consumer} returns.
+     *
+     * @throws IOException when reading fails, or when {@code consumer} throws.
+     */
+    public void forEachLine(LineConsumer consumer) throws IOException {
+        @Nullable CharSequence line;
+        while((line = nextLine()) != null) {
+            consumer.accept(line);
+        }
+    }
+
+    /**
+     * Gets a lazily populated stream of the remaining lines. Closing the stream closes this reader. Read failures are
+     * thrown as {@link UncheckedIOException}s from the stream operation that reads the line.
+     */
+    public Stream<String> lines() {
+        final Iterator<String> iterator = new Iterator<String>() {
+            private @Nullable String next = null;
+
+            @Override public boolean hasNext() {
+                if(next != null) return true;
+                try {
+                    next = readLine();
+                } catch(IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return next != null;
+            }
+
+            @Override public String next() {
+                if(!hasNext()) throw new NoSuchElementException();
+                final String line = next;
+                next = null;
+                return line;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(() -> {
+                try {
+                    close();
+                } catch(IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+    }
+
+    @Override public void close() throws IOException {
+        if(closed) return;
+        closed = true;
+        try {
+            inputStream.close();
+        } finally {
+            BufferUtil.release(byteArray);
+        }
+    }
+
+
+    /**
+     * Passes the lines of {@code text} to {@code consumer} as views of {@code text}, without copying or decoding.
+     *
+     * @throws IOException when {@code consumer} throws.
+     */
+    public static void forEachLine(CharSequence text, LineConsumer consumer) throws IOException {
+        final CharBuffer view = CharBuffer.wrap(text);
+        final int length = text.length();
+        int start = 0;
+        while(start < length) {
+            final int end = lineEnd(text, start, length);
+            view.limit(end).position(start);
+            consumer.accept(view);
+            start = nextLineStart(text, end, length);
+        }
+    }
+
+    /**
+     * Gets a lazily populated stream of the lines of {@code text}, split without decoding. Each line is a {@link
+     * String#substring(int, int) substring} of {@code text}.
+     */
+    public static Stream<String> lines(String text) {
+        final Iterator<String> iterator = new Iterator<String>() {
+            private int start = 0;
+
+            @Override public boolean hasNext() {
+                return start < text.length();
+            }
+
+            @Override public String next() {
+                if(!hasNext()) throw new NoSuchElementException();
+                final int end = lineEnd(text, start, text.length());
+                final String line = text.substring(start, end);
+                start = nextLineStart(text, end, text.length());
+                return line;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private static int lineEnd(CharSequence text, int start, int length) {
+        for(int i = start; i < length; ++i) {
+            final char c = text.charAt(i);
+            if(c == '\n' || c == '\r') return i;
+        }
+        return length;
+    }
+
+    private static int nextLineStart(CharSequence text, int end, int length) {
+        if(end < length && text.charAt(end) == '\r' && end + 1 < length && text.charAt(end + 1) == '\n') {
+            return end + 2;
+        }
+        return end + 1;
+    }
+
+
+    /**
+     * Gets the next line as a view of the character buffer or as the reused line builder, or {@code null} if the end of
+     * the stream was reached. The returned sequence is only valid until the next call.
+     */
+    private @Nullable CharSequence nextLine() throws IOException {
+        boolean building = false;
+        lineBuilder.setLength(0);
+        while(true) {
+            if(!chars.hasRemaining() && !fill()) {
+                return building ? lineBuilder : null;
+            }
+            if(skipLineFeed) {
+                skipLineFeed = false;
+                if(charArray[chars.position()] == '\n') {
+                    chars.position(chars.position() + 1);
+                    continue;
+                }
+            }
+            final int start = chars.position();
+            final int limit = chars.limit();
+            for(int i = start; i < limit; ++i) {
+                final char c = charArray[i];
+                if(c == '\n' || c == '\r') {
+                    chars.position(i + 1);
+                    skipLineFeed = c == '\r';
+                    if(building) {
+                        return lineBuilder.append(charArray, start, i - start);
+                    }
+                    lineView.limit(i).position(start);
+                    return lineView;
+                }
+            }
+            lineBuilder.append(charArray, start, limit - start);
+            building = true;
+            chars.position(limit);
+        }
+    }
+
+    /**
+     * Reads and decodes bytes until the character buffer holds at least one character, or all bytes are decoded.
+     *
+     * @return {@code true} if the character buffer holds characters, {@code false} if all bytes are decoded.
+     */
+    private boolean fill() throws IOException {
+        if(closed) throw new IOException("Line reader is closed");
+        chars.clear();
+        try {
+            while(chars.position() == 0 && !decodedAll) {
+                if(!endOfInput) {
+                    bytes.compact(); // Keep the bytes of incomplete characters.
+                    final int read = inputStream.read(byteArray, bytes.position(), bytes.remaining());
+                    if(read == -1) {
+                        endOfInput = true;
+                    } else {
+                        bytes.position(bytes.position() + read);
+                    }
+                    bytes.flip();
+                }
+                final CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                if(result.isError()) result.throwException(); // Cannot happen: errors are replaced.
+                if(endOfInput && result.isUnderflow() && decoder.flush(chars).isUnderflow()) {
+                    decodedAll = true;
+                }
+            }
+        } catch(CharacterCodingException e) {
+            throw new IllegalStateException(e);
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+}
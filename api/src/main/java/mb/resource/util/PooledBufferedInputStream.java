@@ -0,0 +1,27 @@
+package mb.resource.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link BufferedInputStream} that buffers through a buffer {@link BufferUtil#acquire() acquired} from the {@link
+ * BufferUtil buffer pool}, which is released when the stream is closed.
+ */
+public class PooledBufferedInputStream extends BufferedInputStream {
+    public PooledBufferedInputStream(InputStream in) {
+        super(in, 1); // Only allocates a single byte, which is replaced with a pooled buffer.
+        this.buf = BufferUtil.acquire();
+    }
+
+    @Override public void close() throws IOException {
+        final byte[] buffer = buf;
+        try {
+            super.close(); // Sets buf to null, so the buffer can no longer be used by this stream.
+        } finally {
+            if(buffer != null && buf == null) {
+                BufferUtil.release(buffer);
+            }
+        }
+    }
+}
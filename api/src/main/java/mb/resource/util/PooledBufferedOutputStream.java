@@ -0,0 +1,93 @@
+package mb.resource.util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link BufferedOutputStream} that buffers through a buffer {@link BufferUtil#acquire() acquired} from the {@link
+ * BufferUtil buffer pool}, which is released when the stream is closed. Writing to or flushing the stream after closing
+ * it throws an {@link IOException}, as the buffer may already be used elsewhere.
+ *
+ * Only extends {@link BufferedOutputStream} to be returned from methods that return one; all buffering is implemented
+ * here, as the buffering of {@link BufferedOutputStream} itself depends on the size passed to its constructor.
+ */
+public class PooledBufferedOutputStream extends BufferedOutputStream {
+    private final byte[] buffer;
+    private int position = 0;
+    private boolean closed = false;
+
+
+    public PooledBufferedOutputStream(OutputStream out) {
+        super(out, 1); // Only allocates a single byte, which is never used.
+        this.buffer = BufferUtil.acquire();
+    }
+
+
+    @Override public synchronized void write(int b) throws IOException {
+        ensureOpen();
+        if(position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte)b;
+    }
+
+    @Override public synchronized void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if(len >= buffer.length) {
+            // Write large arrays directly, instead of copying them through the buffer.
+            flushBuffer();
+            out.write(b, off, len);
+            return;
+        }
+        if(len > buffer.length - position) {
+            flushBuffer();
+        }
+        System.arraycopy(b, off, buffer, position, len);
+        position += len;
+    }
+
+    @Override public synchronized void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override public synchronized void close() throws IOException {
+        if(closed) return;
+        closed = true;
+        @Nullable IOException exception = null;
+        try {
+            flushBuffer();
+            out.flush();
+        } catch(IOException e) {
+            exception = e;
+        } finally {
+            BufferUtil.release(buffer);
+        }
+        try {
+            out.close();
+        } catch(IOException e) {
+            if(exception == null) {
+                exception = e;
+            } else {
+                exception.addSuppressed(e);
+            }
+        }
+        if(exception != null) throw exception;
+    }
+
+
+    private void flushBuffer() throws IOException {
+        if(position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if(closed) throw new IOException("Stream closed");
+    }
+}
@@ -0,0 +1,126 @@
+package mb.resource.util;
+
+import mb.resource.ReadableResource;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Read-only seekable channel over a resource that can only be read from the start. Seeking forward skips bytes of the
+ * open input stream, and seeking backward reopens the resource and skips to the new position. The input stream is
+ * opened lazily on the first read, so seeking before reading does not read the skipped bytes twice.
+ *
+ * Not thread-safe.
+ */
+public class SkippingSeekableByteChannel implements SeekableByteChannel {
+    private final ReadableResource resource;
+    private @Nullable InputStream inputStream = null;
+    // Position of the input stream, which lags behind the position of the channel until the next read.
+    private long inputStreamPosition = 0;
+    private long position = 0;
+    private boolean open = true;
+
+
+    public SkippingSeekableByteChannel(ReadableResource resource) {
+        this.resource = resource;
+    }
+
+
+    @Override public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if(!dst.hasRemaining()) return 0;
+        final InputStream inputStream = seekInputStream();
+        final int read;
+        if(dst.hasArray()) {
+            read = inputStream.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if(read > 0) dst.position(dst.position() + read);
+        } else {
+            final byte[] buffer = BufferUtil.acquire();
+            try {
+                read = inputStream.read(buffer, 0, Math.min(buffer.length, dst.remaining()));
+                if(read > 0) dst.put(buffer, 0, read);
+            } finally {
+                BufferUtil.release(buffer);
+            }
+        }
+        if(read > 0) {
+            inputStreamPosition += read;
+            position += read;
+        }
+        return read;
+    }
+
+    @Override public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override public SkippingSeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if(newPosition < 0) {
+            throw new IllegalArgumentException("Position " + newPosition + " is negative");
+        }
+        position = newPosition;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Returns the {@link ReadableResource#getSize() size} of the resource.
+     */
+    @Override public long size() throws IOException {
+        ensureOpen();
+        return resource.getSize();
+    }
+
+    @Override public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override public boolean isOpen() {
+        return open;
+    }
+
+    @Override public void close() throws IOException {
+        if(!open) return;
+        open = false;
+        if(inputStream != null) {
+            inputStream.close();
+            inputStream = null;
+        }
+    }
+
+
+    /**
+     * Gets an input stream positioned at the position of this channel, skipping forward in the open input stream, or
+     * reopening the resource when seeking backward.
+     */
+    private InputStream seekInputStream() throws IOException {
+        if(inputStream != null && inputStreamPosition > position) {
+            inputStream.close();
+            inputStream = null;
+        }
+        if(inputStream == null) {
+            inputStream = resource.openRead();
+            inputStreamPosition = 0;
+        }
+        if(inputStreamPosition < position) {
+            inputStreamPosition += ContentUtil.skip(inputStream, position - inputStreamPosition);
+        }
+        return inputStream;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if(!open) throw new ClosedChannelException();
+    }
+}
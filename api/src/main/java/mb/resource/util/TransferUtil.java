@@ -0,0 +1,71 @@
+package mb.resource.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+public class TransferUtil {
+    // Maximum number of bytes requested per FileChannel#transferFrom call.
+    private static final int chunkSize = 64 * 1024;
+
+
+    /**
+     * Transfers all remaining bytes of {@code source} to {@code target}, through a buffer {@link BufferUtil#acquire()
+     * acquired} from the buffer pool. Does not close {@code source} or {@code target}.
+     *
+     * @return Number of transferred bytes.
+     * @throws IOException when reading or writing fails.
+     */
+    public static long transfer(ReadableByteChannel source, OutputStream target) throws IOException {
+        final byte[] array = BufferUtil.acquire();
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(array);
+            long transferred = 0;
+            int read;
+            while((read = source.read(buffer)) != -1) {
+                target.write(array, 0, read);
+                transferred += read;
+                buffer.clear();
+            }
+            return transferred;
+        } finally {
+            BufferUtil.release(array);
+        }
+    }
+
+    /**
+     * Transfers all remaining bytes of {@code source} to {@code target} starting at the current position of {@code
+     * target}, letting the operating system copy the bytes directly where possible (e.g., with {@code sendfile} or
+     * {@code copy_file_range}) when {@code source} is also a {@link FileChannel}. Does not close {@code source} or
+     * {@code target}.
+     *
+     * @return Number of transferred bytes.
+     * @throws IOException when reading or writing fails.
+     */
+    public static long transfer(ReadableByteChannel source, FileChannel target) throws IOException {
+        long transferred = 0;
+        if(source instanceof FileChannel) {
+            final FileChannel sourceFile = (FileChannel)source;
+            final long size = sourceFile.size();
+            long position = sourceFile.position();
+            while(position < size) {
+                final long count = sourceFile.transferTo(position, size - position, target);
+                if(count <= 0) break; // Source was truncated while transferring.
+                position += count;
+                transferred += count;
+            }
+            sourceFile.position(position);
+        } else {
+            long position = target.position();
+            long count;
+            while((count = target.transferFrom(source, position, chunkSize)) > 0) {
+                position += count;
+                transferred += count;
+            }
+            target.position(position);
+        }
+        return transferred;
+    }
+}
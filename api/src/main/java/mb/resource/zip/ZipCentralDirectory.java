@@ -0,0 +1,399 @@
+package mb.resource.zip;
+
+import mb.resource.ReadableResource;
+import mb.resource.hierarchical.HierarchicalResourceType;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.ZipException;
+
+/**
+ * Central directory of a ZIP archive, read once into a compact in-memory tree. Entries are stored in parallel arrays
+ * indexed by entry number, with the root directory at index {@code 0}, and the children of each directory sorted by
+ * name. Directories that only exist implicitly as the parent of an entry are added to the tree.
+ *
+ * The archive is read with {@link ReadableResource#readRange ranged reads}: the end of central directory record is read
+ * from the end of the archive, the central directory from the offset it points to, and the content of an entry from
+ * the offset of its local header, so that the archive is never scanned. ZIP64 archives are supported. Names are decoded
+ * as UTF-8 when their entry has the UTF-8 flag set, and as IBM437 (the original ZIP encoding) otherwise.
+ *
+ * Thread-safe.
+ */
+final class ZipCentralDirectory {
+    static final int methodStored = 0;
+    static final int methodDeflated = 8;
+
+    // General purpose flag bits.
+    private static final int flagEncrypted = 0x1;
+    private static final int flagUtf8 = 0x800;
+    // Encoding of names without the UTF-8 flag, as specified by the ZIP format. Falls back to ISO-8859-1, which also
+    // maps each byte to a character, on platforms without the (optional) IBM437 charset.
+    private static final Charset legacyCharset = legacyCharset();
+
+    private static final int endSignature = 0x06054b50;
+    private static final int endSize = 22;
+    private static final int maxCommentLength = 0xFFFF;
+    private static final int zip64LocatorSignature = 0x07064b50;
+    private static final int zip64LocatorSize = 20;
+    private static final int zip64EndSignature = 0x06064b50;
+    private static final int zip64EndSize = 56;
+    private static final int centralHeaderSignature = 0x02014b50;
+    private static final int centralHeaderSize = 46;
+    private static final int localHeaderSignature = 0x04034b50;
+    private static final int localHeaderSize = 30;
+    private static final int zip64ExtraId = 0x0001;
+    private static final int extendedTimestampExtraId = 0x5455;
+
+    // Index of each entry by its path, without leading or trailing separators. The root directory has path "".
+    private final HashMap<String, Integer> indices;
+    private final String[] names;
+    private final boolean[] directories;
+    private final long[] sizes;
+    private final long[] compressedSizes;
+    private final long[] crcs;
+    private final long[] lastModifiedTimes;
+    private final int[] methods;
+    private final int[] flags;
+    private final long[] localHeaderOffsets;
+    private final int[][] children;
+    // Offset of the content of each entry, read lazily from its local header; -1 when not read yet.
+    private final AtomicLongArray dataOffsets;
+
+
+    private ZipCentralDirectory(Builder builder) {
+        final int count = builder.nodes.size();
+        this.indices = builder.indices;
+        this.names = new String[count];
+        this.directories = new boolean[count];
+        this.sizes = new long[count];
+        this.compressedSizes = new long[count];
+        this.crcs = new long[count];
+        this.lastModifiedTimes = new long[count];
+        this.methods = new int[count];
+        this.flags = new int[count];
+        this.localHeaderOffsets = new long[count];
+        this.children = new int[count][];
+        this.dataOffsets = new AtomicLongArray(count);
+        for(int i = 0; i < count; ++i) {
+            final Node node = builder.nodes.get(i);
+            names[i] = node.name;
+            directories[i] = node.directory;
+            sizes[i] = node.size;
+            compressedSizes[i] = node.compressedSize;
+            crcs[i] = node.crc;
+            lastModifiedTimes[i] = node.lastModifiedTime;
+            methods[i] = node.method;
+            flags[i] = node.flags;
+            localHeaderOffsets[i] = node.localHeaderOffset;
+            children[i] = node.children.stream().sorted((a, b) -> builder.nodes.get(a).name.compareTo(builder.nodes.get(b).name)).mapToInt(Integer::intValue).toArray();
+            dataOffsets.set(i, -1);
+        }
+    }
+
+    /**
+     * Reads the central directory of {@code archive}.
+     *
+     * @throws ZipException when {@code archive} is not a ZIP archive, or is corrupt.
+     * @throws IOException  when reading {@code archive} fails.
+     */
+    static ZipCentralDirectory read(ReadableResource archive) throws IOException {
+        final long archiveSize = archive.getSize();
+        if(archiveSize < endSize) {
+            throw new ZipException("Cannot read ZIP archive '" + archive + "'; it is too small to contain an end of central directory record");
+        }
+
+        // Find the end of central directory record, which is followed by a comment of at most 64 KiB.
+        final int tailLength = (int)Math.min(archiveSize, endSize + maxCommentLength);
+        final long tailOffset = archiveSize - tailLength;
+        final ByteBuffer tail = readRange(archive, tailOffset, tailLength);
+        int endPosition = -1;
+        for(int i = tailLength - endSize; i >= 0; --i) {
+            if(tail.getInt(i) == endSignature && i + endSize + u16(tail, i + 20) <= tailLength) {
+                endPosition = i;
+                break;
+            }
+        }
+        if(endPosition < 0) {
+            throw new ZipException("Cannot read ZIP archive '" + archive + "'; no end of central directory record was found");
+        }
+        long centralDirectorySize = u32(tail, endPosition + 12);
+        long centralDirectoryOffset = u32(tail, endPosition + 16);
+        final boolean zip64 = u16(tail, endPosition + 10) == 0xFFFF || centralDirectorySize == 0xFFFFFFFFL || centralDirectoryOffset == 0xFFFFFFFFL;
+        final long locatorOffset = tailOffset + endPosition - zip64LocatorSize;
+        if(zip64 && locatorOffset >= 0) {
+            final ByteBuffer locator = readRange(archive, locatorOffset, zip64LocatorSize);
+            if(locator.getInt(0) == zip64LocatorSignature) {
+                final long zip64EndOffset = locator.getLong(8);
+                final ByteBuffer zip64End = readRange(archive, zip64EndOffset, zip64EndSize);
+                if(zip64End.limit() < zip64EndSize || zip64End.getInt(0) != zip64EndSignature) {
+                    throw new ZipException("Cannot read ZIP archive '" + archive + "'; no ZIP64 end of central directory record was found at offset " + zip64EndOffset);
+                }
+                centralDirectorySize = zip64End.getLong(40);
+                centralDirectoryOffset = zip64End.getLong(48);
+            }
+        }
+        if(centralDirectorySize > Integer.MAX_VALUE || centralDirectoryOffset < 0 || centralDirectoryOffset + centralDirectorySize > archiveSize) {
+            throw new ZipException("Cannot read ZIP archive '" + archive + "'; central directory of " + centralDirectorySize + " bytes at offset " + centralDirectoryOffset + " is out of bounds");
+        }
+
+        final ByteBuffer centralDirectory = readRange(archive, centralDirectoryOffset, (int)centralDirectorySize);
+        final Builder builder = new Builder();
+        int position = 0;
+        while(position + centralHeaderSize <= centralDirectory.limit() && centralDirectory.getInt(position) == centralHeaderSignature) {
+            final int flags = u16(centralDirectory, position + 8);
+            final int method = u16(centralDirectory, position + 10);
+            final long dosTime = u32(centralDirectory, position + 12);
+            final long crc = u32(centralDirectory, position + 16);
+            long compressedSize = u32(centralDirectory, position + 20);
+            long size = u32(centralDirectory, position + 24);
+            final int nameLength = u16(centralDirectory, position + 28);
+            final int extraLength = u16(centralDirectory, position + 30);
+            final int commentLength = u16(centralDirectory, position + 32);
+            long localHeaderOffset = u32(centralDirectory, position + 42);
+            final int namePosition = position + centralHeaderSize;
+            final int extraPosition = namePosition + nameLength;
+            final int nextPosition = extraPosition + extraLength + commentLength;
+            if(nextPosition > centralDirectory.limit()) {
+                throw new ZipException("Cannot read ZIP archive '" + archive + "'; central directory entry at offset " + (centralDirectoryOffset + position) + " is truncated");
+            }
+            final Charset charset = (flags & flagUtf8) != 0 ? StandardCharsets.UTF_8 : legacyCharset;
+            final String name = new String(centralDirectory.array(), namePosition, nameLength, charset);
+
+            long lastModifiedTime = dosToJavaTime(dosTime);
+            int extraFieldPosition = extraPosition;
+            while(extraFieldPosition + 4 <= extraPosition + extraLength) {
+                final int id = u16(centralDirectory, extraFieldPosition);
+                final int length = u16(centralDirectory, extraFieldPosition + 2);
+                int fieldPosition = extraFieldPosition + 4;
+                final int fieldEnd = Math.min(fieldPosition + length, extraPosition + extraLength);
+                if(id == zip64ExtraId) {
+                    // Values are only present when the corresponding value in the header is 0xFFFFFFFF, in this order.
+                    if(size == 0xFFFFFFFFL && fieldPosition + 8 <= fieldEnd) {
+                        size = centralDirectory.getLong(fieldPosition);
+                        fieldPosition += 8;
+                    }
+                    if(compressedSize == 0xFFFFFFFFL && fieldPosition + 8 <= fieldEnd) {
+                        compressedSize = centralDirectory.getLong(fieldPosition);
+                        fieldPosition += 8;
+                    }
+                    if(localHeaderOffset == 0xFFFFFFFFL && fieldPosition + 8 <= fieldEnd) {
+                        localHeaderOffset = centralDirectory.getLong(fieldPosition);
+                    }
+                } else if(id == extendedTimestampExtraId && fieldPosition + 5 <= fieldEnd && (centralDirectory.get(fieldPosition) & 1) != 0) {
+                    lastModifiedTime = u32(centralDirectory, fieldPosition + 1) * 1000;
+                }
+                extraFieldPosition += 4 + length;
+            }
+
+            builder.add(name, flags, method, size, compressedSize, crc, lastModifiedTime, localHeaderOffset);
+            position = nextPosition;
+        }
+        return new ZipCentralDirectory(builder);
+    }
+
+
+    /**
+     * Gets the index of the entry at {@code path}.
+     *
+     * @return Index of the entry, or {@code -1} if there is no entry at {@code path}.
+     */
+    int find(String path) {
+        final @Nullable Integer index = indices.get(trimSeparators(path));
+        return index != null ? index : -1;
+    }
+
+    String getName(int index) {
+        return names[index];
+    }
+
+    HierarchicalResourceType getType(int index) {
+        return directories[index] ? HierarchicalResourceType.Directory : HierarchicalResourceType.File;
+    }
+
+    boolean isDirectory(int index) {
+        return directories[index];
+    }
+
+    long getSize(int index) {
+        return sizes[index];
+    }
+
+    long getCompressedSize(int index) {
+        return compressedSizes[index];
+    }
+
+    long getCrc(int index) {
+        return crcs[index];
+    }
+
+    /**
+     * @return Last modified time in milliseconds since the epoch, or {@code -1} if unknown.
+     */
+    long getLastModifiedTime(int index) {
+        return lastModifiedTimes[index];
+    }
+
+    int getMethod(int index) {
+        return methods[index];
+    }
+
+    boolean isEncrypted(int index) {
+        return (flags[index] & flagEncrypted) != 0;
+    }
+
+    /**
+     * @return Indices of the children of the entry at {@code index}, sorted by name. Must not be modified.
+     */
+    int[] getChildren(int index) {
+        return children[index];
+    }
+
+    /**
+     * Gets the offset of the content of the entry at {@code index} in {@code archive}, reading its local header the
+     * first time.
+     *
+     * @throws ZipException when the local header of the entry is corrupt.
+     * @throws IOException  when reading {@code archive} fails.
+     */
+    long getDataOffset(ReadableResource archive, int index) throws IOException {
+        final long cached = dataOffsets.get(index);
+        if(cached >= 0) return cached;
+        final long localHeaderOffset = localHeaderOffsets[index];
+        final ByteBuffer localHeader = readRange(archive, localHeaderOffset, localHeaderSize);
+        if(localHeader.limit() < localHeaderSize || localHeader.getInt(0) != localHeaderSignature) {
+            throw new ZipException("Cannot read ZIP entry '" + names[index] + "' of archive '" + archive + "'; no local header was found at offset " + localHeaderOffset);
+        }
+        // The lengths of the name and extra field in the local header can differ from those in the central directory.
+        final long dataOffset = localHeaderOffset + localHeaderSize + u16(localHeader, 26) + u16(localHeader, 28);
+        dataOffsets.set(index, dataOffset);
+        return dataOffset;
+    }
+
+
+    private static ByteBuffer readRange(ReadableResource archive, long offset, int length) throws IOException {
+        return ByteBuffer.wrap(archive.readRange(offset, length)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int u16(ByteBuffer buffer, int position) {
+        return Short.toUnsignedInt(buffer.getShort(position));
+    }
+
+    private static long u32(ByteBuffer buffer, int position) {
+        return Integer.toUnsignedLong(buffer.getInt(position));
+    }
+
+    private static long dosToJavaTime(long dosTime) {
+        try {
+            final LocalDateTime dateTime = LocalDateTime.of(
+                (int)((dosTime >> 25) & 0x7f) + 1980,
+                (int)((dosTime >> 21) & 0x0f),
+                (int)((dosTime >> 16) & 0x1f),
+                (int)((dosTime >> 11) & 0x1f),
+                (int)((dosTime >> 5) & 0x3f),
+                (int)((dosTime << 1) & 0x3e)
+            );
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch(DateTimeException e) {
+            return -1; // Invalid DOS time, such as a zero date.
+        }
+    }
+
+    private static Charset legacyCharset() {
+        try {
+            return Charset.forName("IBM437");
+        } catch(UnsupportedCharsetException e) {
+            return StandardCharsets.ISO_8859_1;
+        }
+    }
+
+    private static String trimSeparators(String path) {
+        int start = 0;
+        int end = path.length();
+        while(start < end && path.charAt(start) == '/') ++start;
+        while(end > start && path.charAt(end - 1) == '/') --end;
+        return path.substring(start, end);
+    }
+
+
+    private static class Node {
+        final String name;
+        boolean directory;
+        long size = 0;
+        long compressedSize = 0;
+        long crc = 0;
+        long lastModifiedTime = -1;
+        int method = methodStored;
+        int flags = 0;
+        long localHeaderOffset = -1;
+        final ArrayList<Integer> children = new ArrayList<>();
+
+        Node(String name, boolean directory) {
+            this.name = name;
+            this.directory = directory;
+        }
+    }
+
+    private static class Builder {
+        final HashMap<String, Integer> indices = new HashMap<>();
+        final ArrayList<Node> nodes = new ArrayList<>();
+
+        Builder() {
+            indices.put("", 0);
+            nodes.add(new Node("", true));
+        }
+
+        void add(String entryName, int flags, int method, long size, long compressedSize, long crc, long lastModifiedTime, long localHeaderOffset) {
+            final boolean directory = entryName.endsWith("/");
+            final String path = trimSeparators(entryName);
+            if(path.isEmpty()) return;
+            final @Nullable Integer existing = indices.get(path);
+            final Node node;
+            if(existing == null) {
+                node = newNode(path, directory);
+            } else {
+                node = nodes.get(existing);
+                // Keep the first entry for a path, but add metadata to directories that were only added implicitly.
+                if(node.localHeaderOffset >= 0 || !node.directory || !directory) return;
+            }
+            node.size = size;
+            node.compressedSize = compressedSize;
+            node.crc = crc;
+            node.lastModifiedTime = lastModifiedTime;
+            node.method = method;
+            node.flags = flags;
+            node.localHeaderOffset = localHeaderOffset;
+        }
+
+        private Node newNode(String path, boolean directory) {
+            final int separatorIndex = path.lastIndexOf('/');
+            final int parent = separatorIndex < 0 ? 0 : getOrAddDirectory(path.substring(0, separatorIndex));
+            final Node node = new Node(path.substring(separatorIndex + 1), directory);
+            final int index = nodes.size();
+            nodes.add(node);
+            indices.put(path, index);
+            nodes.get(parent).children.add(index);
+            return node;
+        }
+
+        private int getOrAddDirectory(String path) {
+            final @Nullable Integer existing = indices.get(path);
+            if(existing != null) {
+                nodes.get(existing).directory = true; // A file with entries below it is treated as a directory.
+                return existing;
+            }
+            newNode(path, true);
+            return nodes.size() - 1;
+        }
+    }
+}
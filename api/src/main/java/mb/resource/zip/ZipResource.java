@@ -0,0 +1,390 @@
+package mb.resource.zip;
+
+import mb.resource.ReadableResource;
+import mb.resource.WritableResource;
+import mb.resource.hierarchical.HierarchicalResource;
+import mb.resource.hierarchical.HierarchicalResourceType;
+import mb.resource.hierarchical.SegmentsPath;
+import mb.resource.hierarchical.SegmentsResource;
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
+import mb.resource.util.BufferUtil;
+import mb.resource.util.ContentUtil;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Entry of a ZIP or JAR archive, obtained from a {@link ZipResourceRegistry}. Listing, walking, and metadata are served
+ * from the central directory of the archive, which is read once per registry. Content is read from the offset of the
+ * entry in the archive through a {@link ReadableResource#openReadSeekableChannel() seekable channel}, without scanning
+ * the archive. Stored and deflated entries are supported.
+ *
+ * Resources that are not in the archive are of {@link HierarchicalResourceType#Unknown unknown} type and do not exist.
+ * ZIP resources are read-only.
+ */
+public class ZipResource extends SegmentsResource<ZipResource> implements HierarchicalResource {
+    private final ZipResourceRegistry registry;
+
+
+    ZipResource(ZipResourceRegistry registry, SegmentsPath path) {
+        super(path);
+        this.registry = registry;
+    }
+
+    @Override public void close() throws IOException {
+        // Nothing to close.
+    }
+
+
+    @Override public HierarchicalResourceType getType() throws IOException {
+        final ZipCentralDirectory centralDirectory = registry.getCentralDirectory();
+        final int index = centralDirectory.find(path.getIdAsString());
+        return index >= 0 ? centralDirectory.getType(index) : HierarchicalResourceType.Unknown;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * Lists the children of this directory from the central directory of the archive, sorted by name.
+     *
+     * @throws NoSuchFileException   when this resource is not in the archive.
+     * @throws NotDirectoryException when this resource is a file.
+     */
+    @Override public Stream<ZipResource> list(ResourceMatcher matcher) throws IOException {
+        final ZipCentralDirectory centralDirectory = registry.getCentralDirectory();
+        final int index = getExistingIndex(centralDirectory);
+        if(!centralDirectory.isDirectory(index)) {
+            throw new NotDirectoryException(path.toString());
+        }
+        final ArrayList<ZipResource> resources = new ArrayList<>();
+        for(int child : centralDirectory.getChildren(index)) {
+            final ZipResource resource = appendSegment(centralDirectory.getName(child));
+            if(matcher.matches(resource, this)) {
+                resources.add(resource);
+            }
+        }
+        return resources.stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Walks the directory tree in depth-first pre-order, starting with this resource, from the central directory of the
+     * archive.
+     *
+     * @throws NoSuchFileException when this resource is not in the archive.
+     */
+    @Override
+    public Stream<ZipResource> walk(ResourceWalker walker, ResourceMatcher matcher) throws IOException {
+        final ZipCentralDirectory centralDirectory = registry.getCentralDirectory();
+        final ArrayList<ZipResource> resources = new ArrayList<>();
+        walk(centralDirectory, this, getExistingIndex(centralDirectory), walker, matcher, resources);
+        return resources.stream();
+    }
+
+    private void walk(ZipCentralDirectory centralDirectory, ZipResource resource, int index, ResourceWalker walker, ResourceMatcher matcher, ArrayList<ZipResource> resources) throws IOException {
+        if(matcher.matches(resource, this)) {
+            resources.add(resource);
+        }
+        if(centralDirectory.isDirectory(index) && walker.traverse(resource, this)) {
+            for(int child : centralDirectory.getChildren(index)) {
+                walk(centralDirectory, resource.appendSegment(centralDirectory.getName(child)), child, walker, matcher, resources);
+            }
+        }
+    }
+
+
+    /**
+     * {@link #transferTo(WritableResource) Transfers} the content of this resource to {@code other}.
+     */
+    @Override public void copyTo(HierarchicalResource other) throws IOException {
+        transferTo(other);
+    }
+
+    @Override public void copyRecursivelyTo(HierarchicalResource other) throws IOException {
+        throw new UnsupportedOperationException("ZIP resources do not support copying recursively");
+    }
+
+    @Override public void moveTo(HierarchicalResource other) throws IOException {
+        throw new UnsupportedOperationException("ZIP resources do not support moving");
+    }
+
+
+    @Override public ZipResource createFile(boolean createParents) throws IOException {
+        throw new UnsupportedOperationException("ZIP resources do not support creating files");
+    }
+
+    @Override public ZipResource createDirectory(boolean createParents) throws IOException {
+        throw new UnsupportedOperationException("ZIP resources do not support creating directories");
+    }
+
+    @Override public ZipResource createParents() throws IOException {
+        throw new UnsupportedOperationException("ZIP resources do not support creating directories");
+    }
+
+
+    @Override public void delete(boolean deleteRecursively) throws IOException {
+        throw new UnsupportedOperationException("ZIP resources do not support deletion");
+    }
+
+
+    @Override public boolean exists() throws IOException {
+        return registry.getCentralDirectory().find(path.getIdAsString()) >= 0;
+    }
+
+    @Override public boolean isReadable() throws IOException {
+        return exists();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Directories that only exist implicitly as the parent of an entry, and entries without a valid modification time,
+     * were last modified at {@link Instant#EPOCH}.
+     */
+    @Override public Instant getLastModifiedTime() throws IOException {
+        final ZipCentralDirectory centralDirectory = registry.getCentralDirectory();
+        final long lastModifiedTime = centralDirectory.getLastModifiedTime(getExistingIndex(centralDirectory));
+        return lastModifiedTime == -1 ? Instant.EPOCH : Instant.ofEpochMilli(lastModifiedTime);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Returns the uncompressed size of the entry. Use {@link #getCompressedSize()} to get its size in the archive.
+     */
+    @Override public long getSize() throws IOException {
+        final ZipCentralDirectory centralDirectory = registry.getCentralDirectory();
+        return centralDirectory.getSize(getExistingIndex(centralDirectory));
+    }
+
+    /**
+     * Gets the size of the (possibly compressed) content of the entry in the archive.
+     *
+     * @throws NoSuchFileException when this resource is not in the archive.
+     */
+    public long getCompressedSize() throws IOException {
+        final ZipCentralDirectory centralDirectory = registry.getCentralDirectory();
+        return centralDirectory.getCompressedSize(getExistingIndex(centralDirectory));
+    }
+
+    /**
+     * Gets the CRC-32 checksum of the uncompressed content of the entry, as stored in the central directory.
+     *
+     * @throws NoSuchFileException when this resource is not in the archive.
+     */
+    public long getCrc() throws IOException {
+        final ZipCentralDirectory centralDirectory = registry.getCentralDirectory();
+        return centralDirectory.getCrc(getExistingIndex(centralDirectory));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Opens a {@link ReadableResource#openReadSeekableChannel() seekable channel} to the archive, positioned at the
+     * content of the entry, and decompresses the content when it is deflated.
+     *
+     * @throws NoSuchFileException when this resource is not in the archive.
+     * @throws ZipException        when this resource is a directory, is encrypted, or is compressed with an unsupported
+     *                             method.
+     */
+    @Override public InputStream openRead() throws IOException {
+        final ZipCentralDirectory centralDirectory = registry.getCentralDirectory();
+        final int index = getReadableFileIndex(centralDirectory);
+        final int method = centralDirectory.getMethod(index);
+        if(method != ZipCentralDirectory.methodStored && method != ZipCentralDirectory.methodDeflated) {
+            throw new ZipException("Cannot read ZIP resource '" + path + "'; compression method " + method + " is not supported");
+        }
+        final ReadableResource archive = registry.getArchive();
+        final long dataOffset = centralDirectory.getDataOffset(archive, index);
+        final SeekableByteChannel channel = archive.openReadSeekableChannel();
+        try {
+            channel.position(dataOffset);
+        } catch(IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        final InputStream inputStream = new BoundedInputStream(Channels.newInputStream(channel), centralDirectory.getCompressedSize(index));
+        if(method == ZipCentralDirectory.methodStored) {
+            return inputStream;
+        }
+        return new EntryInflaterInputStream(inputStream);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Ranges of stored entries are read from the archive directly. Ranges of deflated entries are read by skipping in
+     * the decompressed content.
+     */
+    @Override public byte[] readRange(long offset, int length) throws IOException {
+        ContentUtil.checkRange(offset, length);
+        final ZipCentralDirectory centralDirectory = registry.getCentralDirectory();
+        final int index = getReadableFileIndex(centralDirectory);
+        if(centralDirectory.getMethod(index) != ZipCentralDirectory.methodStored) {
+            try(final InputStream inputStream = openRead()) {
+                return ContentUtil.readRange(inputStream, offset, length);
+            }
+        }
+        final long size = centralDirectory.getCompressedSize(index);
+        if(offset >= size) return new byte[0];
+        final ReadableResource archive = registry.getArchive();
+        return archive.readRange(centralDirectory.getDataOffset(archive, index) + offset, (int)Math.min(length, size - offset));
+    }
+
+
+    @Override public boolean isWritable() throws IOException {
+        return false;
+    }
+
+    @Override public void setLastModifiedTime(Instant moment) throws IOException {
+        throw new UnsupportedOperationException("ZIP resources do not support writing");
+    }
+
+
+    @Override public OutputStream openWrite() throws IOException {
+        throw new UnsupportedOperationException("ZIP resources do not support writing");
+    }
+
+    @Override public OutputStream openWriteAppend() throws IOException {
+        throw new UnsupportedOperationException("ZIP resources do not support writing");
+    }
+
+    @Override public OutputStream openWriteExisting() throws IOException {
+        throw new UnsupportedOperationException("ZIP resources do not support writing");
+    }
+
+    @Override public OutputStream openWriteNew() throws IOException {
+        throw new UnsupportedOperationException("ZIP resources do not support writing");
+    }
+
+
+    private int getExistingIndex(ZipCentralDirectory centralDirectory) throws NoSuchFileException {
+        final int index = centralDirectory.find(path.getIdAsString());
+        if(index < 0) {
+            throw new NoSuchFileException(path.toString(), null, "ZIP resource is not in archive '" + registry.getArchive() + "'");
+        }
+        return index;
+    }
+
+    private int getReadableFileIndex(ZipCentralDirectory centralDirectory) throws IOException {
+        final int index = getExistingIndex(centralDirectory);
+        if(centralDirectory.isDirectory(index)) {
+            throw new ZipException("Cannot read ZIP resource '" + path + "'; it is a directory");
+        }
+        if(centralDirectory.isEncrypted(index)) {
+            throw new ZipException("Cannot read ZIP resource '" + path + "'; it is encrypted");
+        }
+        return index;
+    }
+
+
+    @Override protected ZipResource self() {
+        return this;
+    }
+
+    @Override protected ZipResource create(SegmentsPath path) {
+        return new ZipResource(registry, path);
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final ZipResource that = (ZipResource)o;
+        return path.equals(that.path) && registry.getArchive().equals(that.registry.getArchive());
+    }
+
+
+    /**
+     * Input stream that reads at most a given number of bytes from another input stream.
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream inputStream, long length) {
+            super(inputStream);
+            this.remaining = length;
+        }
+
+        @Override public int read() throws IOException {
+            if(remaining <= 0) return -1;
+            final int b = super.read();
+            if(b != -1) --remaining;
+            return b;
+        }
+
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            if(remaining <= 0) return -1;
+            final int read = super.read(b, off, (int)Math.min(len, remaining));
+            if(read > 0) remaining -= read;
+            return read;
+        }
+
+        @Override public long skip(long n) throws IOException {
+            final long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override public int available() throws IOException {
+            return (int)Math.min(super.available(), remaining);
+        }
+
+        @Override public boolean markSupported() {
+            return false;
+        }
+    }
+
+    /**
+     * Input stream that inflates raw deflated content, releasing the native memory of its inflater when closed.
+     */
+    private static class EntryInflaterInputStream extends InflaterInputStream {
+        private boolean eof = false;
+        private boolean closed = false;
+
+        EntryInflaterInputStream(InputStream inputStream) {
+            super(inputStream, new Inflater(true), BufferUtil.bufferSize);
+        }
+
+        @Override protected void fill() throws IOException {
+            if(eof) {
+                throw new EOFException("Unexpected end of ZLIB input stream");
+            }
+            len = in.read(buf, 0, buf.length);
+            if(len == -1) {
+                // An inflater without zlib wrapping may need an extra dummy byte after the content to finish.
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        @Override public void close() throws IOException {
+            if(closed) return;
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                inf.end(); // Release the native memory of the inflater, which is not done for a given inflater.
+            }
+        }
+    }
+}
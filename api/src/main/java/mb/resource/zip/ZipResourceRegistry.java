@@ -0,0 +1,153 @@
+package mb.resource.zip;
+
+import mb.resource.ReadableResource;
+import mb.resource.ResourceKey;
+import mb.resource.ResourceKeyString;
+import mb.resource.ResourceRegistry;
+import mb.resource.ResourceRuntimeException;
+import mb.resource.hierarchical.SegmentsPath;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Resource registry for the entries of a ZIP or JAR archive, which is itself a {@link ReadableResource}, such as an
+ * {@link mb.resource.fs.FSResource} or a JAR file from {@link
+ * mb.resource.classloader.ClassLoaderResource#getLocations()}. Entries are {@link ZipResource}s, identified by their
+ * path inside the archive.
+ *
+ * The central directory of the archive is read once, the first time it is needed, and is shared by all resources of
+ * this registry. The registry assumes that the archive does not change; call {@link #invalidate()} when it does.
+ *
+ * Keys of ZIP resources do not identify their archive, only the path inside it. Therefore, when registries for multiple
+ * archives are added to the same {@link mb.resource.ResourceService}, each registry must have a distinct qualifier, as
+ * the keys of their resources are otherwise indistinguishable and resolved by only one of the registries.
+ */
+public class ZipResourceRegistry implements ResourceRegistry {
+    /**
+     * Qualifier of registries created without a qualifier. Only suitable when a single archive is used at a time.
+     */
+    public static final String defaultQualifier = "zip";
+
+    private final String qualifier;
+    private final ReadableResource archive;
+    private volatile @Nullable ZipCentralDirectory centralDirectory;
+
+
+    /**
+     * @param qualifier Qualifier of this registry, which must be distinct from the qualifiers of registries for other
+     *                  archives.
+     * @param archive   Resource holding the ZIP or JAR archive.
+     */
+    public ZipResourceRegistry(String qualifier, ReadableResource archive) {
+        this.qualifier = qualifier;
+        this.archive = archive;
+    }
+
+    /**
+     * Creates a registry with the {@link #defaultQualifier default qualifier}, which is only distinct when no other
+     * archive is used at the same time.
+     *
+     * @param archive Resource holding the ZIP or JAR archive.
+     */
+    public ZipResourceRegistry(ReadableResource archive) {
+        this(defaultQualifier, archive);
+    }
+
+
+    @Override public String qualifier() {
+        return qualifier;
+    }
+
+
+    @Override public SegmentsPath getResourceKey(ResourceKeyString keyStr) {
+        if(!keyStr.qualifierMatchesOrMissing(qualifier)) {
+            throw new ResourceRuntimeException("Qualifier of '" + keyStr + "' does not match qualifier '" + qualifier + "' of this resource registry");
+        }
+        return getPath(keyStr.getId());
+    }
+
+    @Override public ZipResource getResource(ResourceKey key) {
+        if(!(key instanceof SegmentsPath)) {
+            throw new ResourceRuntimeException("Cannot get ZIP resource for key '" + key + "'; it is not of type SegmentsPath");
+        }
+        return getResource((SegmentsPath)key);
+    }
+
+    @Override public ZipResource getResource(ResourceKeyString keyStr) {
+        if(!keyStr.qualifierMatchesOrMissing(qualifier)) {
+            throw new ResourceRuntimeException("Qualifier of '" + keyStr + "' does not match qualifier '" + qualifier + "' of this resource registry");
+        }
+        return getResource(keyStr.getId());
+    }
+
+
+    /**
+     * Gets the resource holding the archive.
+     */
+    public ReadableResource getArchive() {
+        return archive;
+    }
+
+    /**
+     * Removes the central directory read from the archive, so that it is read again when it is used again.
+     */
+    public void invalidate() {
+        centralDirectory = null;
+    }
+
+
+    public SegmentsPath getPath(String path) {
+        return new SegmentsPath(qualifier, path);
+    }
+
+
+    /**
+     * Gets the root directory of the archive.
+     */
+    public ZipResource getRoot() {
+        return getResource("");
+    }
+
+    public ZipResource getResource(String path) {
+        return new ZipResource(this, getPath(path));
+    }
+
+    public ZipResource getResource(SegmentsPath path) {
+        return new ZipResource(this, path);
+    }
+
+
+    ZipCentralDirectory getCentralDirectory() throws IOException {
+        @Nullable ZipCentralDirectory centralDirectory = this.centralDirectory;
+        if(centralDirectory != null) return centralDirectory;
+        synchronized(this) {
+            centralDirectory = this.centralDirectory;
+            if(centralDirectory == null) {
+                centralDirectory = ZipCentralDirectory.read(archive);
+                this.centralDirectory = centralDirectory;
+            }
+            return centralDirectory;
+        }
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final ZipResourceRegistry that = (ZipResourceRegistry)o;
+        return qualifier.equals(that.qualifier) && archive.equals(that.archive);
+    }
+
+    @Override public int hashCode() {
+        return Objects.hash(qualifier, archive);
+    }
+
+    @Override public String toString() {
+        return "ZipResourceRegistry{" +
+            "qualifier='" + qualifier + '\'' +
+            ", archive=" + archive +
+            '}';
+    }
+}
@@ -0,0 +1,91 @@
+package mb.resource;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import mb.resource.fs.CachingFSResourceRegistry;
+import mb.resource.fs.FSAttributesCache;
+import mb.resource.fs.FSPath;
+import mb.resource.fs.FSResource;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingFSResourceRegistryTest {
+    final FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix());
+    final FSAttributesCache cache = new FSAttributesCache(1024, 1);
+    final CachingFSResourceRegistry registry = new CachingFSResourceRegistry(cache);
+
+    private FSResource getResource(String path) {
+        return registry.getResource(new FSPath(fileSystem.getPath(path)));
+    }
+
+    private static void writeExternally(FSResource resource, String string) throws IOException {
+        Files.write(resource.getJavaPath(), string.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    @Test void testCachesAttributesUntilInvalidated() throws IOException {
+        final FSResource file = getResource("/dir/file.txt");
+        assertFalse(file.exists());
+        file.getParent().createDirectory(true);
+        writeExternally(file, "Hello");
+        assertFalse(file.exists());
+        registry.invalidate(file.getPath());
+        assertTrue(file.exists());
+        assertTrue(file.isFile());
+        assertEquals(5, file.getSize());
+        writeExternally(file, "Hello world");
+        assertEquals(5, file.getSize());
+        assertEquals(5, getResource("/dir/file.txt").getSize()); // Cache is shared between resources.
+        registry.invalidateSubtree(file.getParent().getPath());
+        assertEquals(11, file.getSize());
+    }
+
+    @Test void testModificationsInvalidate() throws IOException {
+        final FSResource directory = getResource("/dir");
+        final FSResource file = directory.appendSegment("file.txt");
+        assertFalse(file.exists());
+        file.createParents();
+        file.writeString("Hello", StandardCharsets.UTF_8);
+        assertTrue(file.exists());
+        assertEquals(5, file.getSize());
+        try(final OutputStream outputStream = file.openWrite()) {
+            assertEquals(0, file.getSize());
+            outputStream.write("Hello world".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(11, file.getSize());
+        final FSResource target = directory.appendSegment("target.txt");
+        assertFalse(target.exists());
+        file.moveTo(target);
+        assertFalse(file.exists());
+        assertTrue(target.exists());
+        assertTrue(directory.isDirectory());
+        directory.delete(true);
+        assertFalse(directory.exists());
+        assertFalse(target.exists());
+    }
+
+    @Test void testGenerationsExpire() throws IOException {
+        final FSResource file = getResource("/file.txt");
+        assertFalse(file.exists());
+        writeExternally(file, "Hello");
+        assertFalse(file.exists());
+        cache.nextGeneration();
+        assertTrue(file.exists());
+    }
+
+    @Test void testBoundedSize() throws IOException {
+        final FSAttributesCache cache = new FSAttributesCache(2);
+        final CachingFSResourceRegistry registry = new CachingFSResourceRegistry(cache);
+        for(int i = 0; i < 4; ++i) {
+            registry.getResource(new FSPath(fileSystem.getPath("/file" + i))).exists();
+        }
+        assertEquals(2, cache.size());
+    }
+}
@@ -1,17 +1,40 @@
 package mb.resource;
 
 import mb.resource.classloader.ClassLoaderResource;
+import mb.resource.classloader.ClassLoaderResourceExtractor;
 import mb.resource.classloader.ClassLoaderResourceLocations;
 import mb.resource.classloader.ClassLoaderResourceRegistry;
+import mb.resource.classloader.JarEntryMetadata;
+import mb.resource.classloader.JarFilePool;
 import mb.resource.classloader.JarFileWithPath;
 import mb.resource.fs.FSResource;
+import mb.resource.hierarchical.HierarchicalResourceType;
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -85,4 +108,160 @@ class ClassLoaderResourceTest {
             assertTrue(jarFileWithPath.path.contains(path));
         }
     }
+
+    @Test void testListAndWalkDirectories() throws Exception {
+        final ClassLoaderResource resource = registry.getResource("mb/resource");
+        assertTrue(resource.isDirectory());
+        // Merges test classes and test resources.
+        final List<String> names = resource.list().map(r -> r.getLeaf()).collect(Collectors.toList());
+        assertTrue(names.contains(file1Name));
+        assertTrue(names.contains("classloader"));
+        assertTrue(names.contains("ClassLoaderResourceTest.class"));
+        final List<String> sortedNames = new ArrayList<>(names);
+        Collections.sort(sortedNames);
+        assertEquals(sortedNames, names);
+        assertTrue(resource.appendRelativePath(file1Name).isFile());
+        assertTrue(resource.appendSegment("classloader").isDirectory());
+        assertEquals(HierarchicalResourceType.Unknown, resource.appendSegment("missing").getType());
+
+        final List<ClassLoaderResource> files = resource.walk(ResourceMatcher.ofFileExtension("txt")).collect(Collectors.toList());
+        assertTrue(files.contains(resource.appendRelativePath(file1Name)));
+        assertTrue(files.contains(resource.appendSegment("classloader").appendRelativePath(file2Name)));
+        // Lookups after the first listing come from the index shared by all resources of the registry.
+        assertSame(registry.getIndex().getChildren(resource), registry.getIndex().getChildren(registry.getResource("mb/resource")));
+    }
+
+    @Test void testListAndWalkJarDirectories() throws Exception {
+        final ClassLoaderResource resource = registry.getResource("org/junit/jupiter/api");
+        final List<String> names = resource.list().map(r -> r.getLeaf()).collect(Collectors.toList());
+        assertTrue(names.contains("Test.class"));
+        assertTrue(names.contains("extension"));
+        assertTrue(resource.appendSegment("Test.class").isFile());
+        assertTrue(resource.appendSegment("extension").isDirectory());
+        final List<ClassLoaderResource> walked = resource.walk(ResourceWalker.ofTrue(), ResourceMatcher.ofFile()).collect(Collectors.toList());
+        assertTrue(walked.contains(resource.appendSegment("extension").appendSegment("Extension.class")));
+        assertFalse(walked.contains(resource.appendSegment("extension")));
+    }
+
+    @Test void testListAndWalkJarWithoutDirectoryEntries(@TempDir Path tempDir) throws Exception {
+        final Path jarFile = tempDir.resolve("implicit.jar");
+        try(final ZipOutputStream outputStream = new ZipOutputStream(Files.newOutputStream(jarFile))) {
+            outputStream.putNextEntry(new ZipEntry("a/b/c.txt"));
+            outputStream.write("c".getBytes());
+            outputStream.putNextEntry(new ZipEntry("a/d.txt"));
+            outputStream.write("d".getBytes());
+        }
+        try(final URLClassLoader classLoader = new URLClassLoader(new URL[]{jarFile.toUri().toURL()}, null)) {
+            final ClassLoaderResourceRegistry registry = new ClassLoaderResourceRegistry(classLoader);
+            final ClassLoaderResource directory = registry.getResource("a");
+            assertTrue(directory.isDirectory());
+            assertEquals(HierarchicalResourceType.Unknown, registry.getResource("missing").getType());
+            assertEquals(Collections.singletonList("c.txt"), directory.appendSegment("b").list().map(r -> r.getLeaf()).collect(Collectors.toList()));
+            assertEquals(
+                Arrays.asList("a", "a/b", "a/b/c.txt", "a/d.txt"),
+                directory.walk().map(r -> r.getPath().getId().toString()).collect(Collectors.toList())
+            );
+            assertEquals("c", registry.getResource("a/b/c.txt").readString());
+            registry.getCache().getJarFilePool().close();
+        }
+    }
+
+    @Test void testCachedMetadata() throws Exception {
+        final ClassLoaderResource jarEntry = registry.getResource("org/junit/jupiter/api/Test.class");
+        final byte[] bytes = jarEntry.readBytes();
+        assertEquals(bytes.length, jarEntry.getSize());
+        final @Nullable JarEntryMetadata metadata = jarEntry.getJarEntryMetadata();
+        assertNotNull(metadata);
+        assertFalse(metadata.directory);
+        assertEquals(bytes.length, metadata.size);
+        assertEquals(metadata.lastModifiedTime, jarEntry.getLastModifiedTime());
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        assertEquals(crc.getValue(), metadata.crc);
+
+        final ClassLoaderResource file = registry.getResource("mb/resource").appendRelativePath(file1Name);
+        assertNull(file.getJarEntryMetadata());
+        assertEquals(file.readBytes().length, file.getSize());
+        final @Nullable File localFile = file.asLocalFile();
+        assertNotNull(localFile);
+        assertEquals(localFile.lastModified(), file.getLastModifiedTime().toEpochMilli());
+
+        final ClassLoaderResource missing = registry.getResource("mb/resource/missing.txt");
+        assertFalse(missing.exists());
+        assertThrows(IOException.class, missing::getSize);
+        assertSame(registry.getCache().getUrl("mb/resource"), registry.getCache().getUrl("mb/resource"));
+    }
+
+    @Test void testJarFilePool() throws Exception {
+        final ClassLoaderResource jarEntry = registry.getResource("org/junit/jupiter/api/Test.class");
+        final Path jarFile = jarEntry.getLocations().jarFiles.get(0).file.getJavaPath();
+        final JarFilePool pool = registry.getCache().getJarFilePool();
+        final byte[] bytes = jarEntry.readBytes();
+        assertTrue(pool.isOpen(jarFile));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final ArrayList<Future<byte[]>> futures = new ArrayList<>();
+            for(int i = 0; i < 64; ++i) {
+                futures.add(executor.submit(jarEntry::readBytes));
+            }
+            for(Future<byte[]> future : futures) {
+                assertArrayEquals(bytes, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Evicting keeps the JAR file open for streams that are still open.
+        try(final InputStream inputStream = jarEntry.openRead()) {
+            registry.getCache().evict(jarEntry.getLocations().jarFiles.get(0).file);
+            assertFalse(pool.isOpen(jarFile));
+            final byte[] read = new byte[bytes.length];
+            int offset = 0;
+            int count;
+            while(offset < read.length && (count = inputStream.read(read, offset, read.length - offset)) != -1) {
+                offset += count;
+            }
+            assertArrayEquals(bytes, read);
+        }
+        // Reading after eviction opens the JAR file again.
+        assertArrayEquals(bytes, jarEntry.readBytes());
+        assertTrue(pool.isOpen(jarFile));
+        assertNotNull(pool.getEntryMetadata(jarFile, "org/junit/jupiter/api/Test.class"));
+        assertNull(pool.getEntryMetadata(jarFile, "org/junit/jupiter/api/Missing.class"));
+
+        registry.invalidate();
+        assertFalse(pool.isOpen(jarFile));
+    }
+
+    @Test void testExtract(@TempDir Path tempDir) throws Exception {
+        final ClassLoaderResourceExtractor extractor = new ClassLoaderResourceExtractor(new FSResource(tempDir));
+        final ClassLoaderResource jarDirectory = registry.getResource("org/junit/jupiter/api");
+        final FSResource extracted = extractor.extract(jarDirectory);
+        assertTrue(extracted.isDirectory());
+        assertArrayEquals(jarDirectory.appendSegment("Test.class").readBytes(), extracted.appendSegment("Test.class").readBytes());
+        assertArrayEquals(
+            jarDirectory.appendSegments("extension", "Extension.class").readBytes(),
+            extracted.appendSegments("extension", "Extension.class").readBytes()
+        );
+        final FSResource manifest = new FSResource(tempDir).appendSegment(extracted.getLeaf() + ".manifest");
+        assertTrue(manifest.exists());
+
+        // Extracting again with unchanged JAR files only validates the manifest, but restores deleted files.
+        final long manifestLastModified = manifest.getLastModifiedTime().toEpochMilli();
+        assertEquals(extracted, extractor.extract(jarDirectory));
+        assertEquals(manifestLastModified, manifest.getLastModifiedTime().toEpochMilli());
+        extracted.appendSegment("Test.class").delete();
+        assertEquals(extracted, extractor.extract(jarDirectory));
+        assertArrayEquals(jarDirectory.appendSegment("Test.class").readBytes(), extracted.appendSegment("Test.class").readBytes());
+        assertEquals(manifestLastModified, manifest.getLastModifiedTime().toEpochMilli()); // Manifest is unchanged.
+
+        // Files from directory locations are compared on every extraction.
+        final ClassLoaderResource directory = registry.getResource("mb/resource");
+        final FSResource extractedDirectory = extractor.extract(directory);
+        assertEquals(directory.appendRelativePath(file1Name).readString(), extractedDirectory.appendRelativePath(file1Name).readString());
+        extractedDirectory.appendRelativePath(file1Name).delete();
+        assertEquals(extractedDirectory, extractor.extract(directory));
+        assertEquals(directory.appendRelativePath(file1Name).readString(), extractedDirectory.appendRelativePath(file1Name).readString());
+    }
 }
@@ -0,0 +1,136 @@
+package mb.resource;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import mb.resource.compress.CompressedResource;
+import mb.resource.compress.CompressedResourceKey;
+import mb.resource.compress.CompressedResourceRegistry;
+import mb.resource.compress.CompressionCodec;
+import mb.resource.fs.FSResource;
+import mb.resource.fs.FSResourceRegistry;
+import mb.resource.util.ContentUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystem;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedResourceTest {
+    final FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix());
+
+    private static String text() {
+        final StringBuilder builder = new StringBuilder();
+        while(builder.length() < 100_000) {
+            builder.append("Hello world ").append(builder.length() % 100).append('\n');
+        }
+        return builder.toString();
+    }
+
+
+    @Test void testReadWrite() throws IOException {
+        final String text = text();
+        for(CompressionCodec codec : Arrays.asList(CompressionCodec.ofGzip(), CompressionCodec.ofDeflate())) {
+            final FSResource file = new FSResource(fileSystem.getPath("/file." + codec.getName()));
+            final CompressedResource resource = new CompressedResource(file, codec);
+            resource.writeString(text);
+            assertEquals(text, resource.readString());
+            assertEquals(text, resource.readCharSequence().toString());
+            assertEquals(text.length(), resource.getSize());
+            assertEquals(file.getSize(), resource.getPhysicalSize());
+            assertTrue(resource.getPhysicalSize() < text.length() / 10);
+            assertArrayEquals(text.substring(50_000, 50_100).getBytes(), resource.readRange(50_000, 100));
+
+            assertFalse(resource.writeStringIfChanged(text));
+            assertTrue(resource.writeBytesIfChanged(new byte[0]));
+            assertEquals(0, resource.getSize());
+            try(final OutputStream outputStream = resource.openWriteAtomic(false)) {
+                outputStream.write(text.getBytes());
+            }
+            assertEquals(text, resource.readString());
+            assertFalse(resource.writeBytesAtomic(text.getBytes(), true));
+            assertThrows(UnsupportedOperationException.class, resource::openWriteAppend);
+        }
+    }
+
+    @Test void testGzipFormat() throws IOException {
+        final String text = text();
+        final FSResource file = new FSResource(fileSystem.getPath("/file.gz"));
+        new CompressedResource(file, CompressionCodec.ofGzip()).writeString(text);
+        try(final InputStream inputStream = new GZIPInputStream(file.openRead())) {
+            assertEquals(text, new String(ContentUtil.readBytes(inputStream, -1)));
+        }
+    }
+
+    @Test void testGzipConcatenatedMembers() throws IOException {
+        final String text = text();
+        final FSResource first = new FSResource(fileSystem.getPath("/first.gz"));
+        new CompressedResource(first, CompressionCodec.ofGzip()).writeString(text);
+        final FSResource second = new FSResource(fileSystem.getPath("/second.gz"));
+        new CompressedResource(second, CompressionCodec.ofGzip()).writeString("Hello world");
+        final FSResource file = new FSResource(fileSystem.getPath("/file.gz"));
+        try(final OutputStream outputStream = file.openWrite()) {
+            outputStream.write(first.readBytes());
+            outputStream.write(second.readBytes());
+        }
+        // The trailer only holds the size of the last member, which is implausibly small: not trusted.
+        assertEquals(-1, CompressionCodec.ofGzip().getUncompressedSize(file));
+        assertEquals(text.length() + 11, new CompressedResource(file, CompressionCodec.ofGzip()).getSize());
+
+        // Header with optional fields, not written by this codec: not trusted.
+        final byte[] bytes = second.readBytes();
+        bytes[3] = 1; // FTEXT flag.
+        file.writeBytes(bytes);
+        assertEquals(-1, CompressionCodec.ofGzip().getUncompressedSize(file));
+        assertEquals(11, new CompressedResource(file, CompressionCodec.ofGzip()).getSize());
+        assertEquals(11, CompressionCodec.ofGzip().getUncompressedSize(second));
+    }
+
+    @Test void testGzipConcatenatedMembersWithPlausibleTrailer() throws IOException {
+        final FSResource first = new FSResource(fileSystem.getPath("/first.gz"));
+        new CompressedResource(first, CompressionCodec.ofGzip()).writeString("Hello world");
+        final FSResource second = new FSResource(fileSystem.getPath("/second.gz"));
+        new CompressedResource(second, CompressionCodec.ofGzip()).writeString("Hello world!");
+        final FSResource file = new FSResource(fileSystem.getPath("/file.gz"));
+        try(final OutputStream outputStream = file.openWrite()) {
+            outputStream.write(first.readBytes());
+            outputStream.write(second.readBytes());
+        }
+        // The trailer of the last member is plausible, so the estimate is wrong, but the size is still exact.
+        assertEquals(12, CompressionCodec.ofGzip().getUncompressedSize(file));
+        final CompressedResource resource = new CompressedResource(file, CompressionCodec.ofGzip());
+        assertEquals(23, resource.getSize());
+        assertEquals("Hello worldHello world!", resource.readString());
+    }
+
+    @Test void testDecompressedSizeIsCached() throws IOException {
+        final String text = text();
+        final FSResource file = new FSResource(fileSystem.getPath("/file.deflate"));
+        final CompressedResource resource = new CompressedResource(file, CompressionCodec.ofDeflate());
+        resource.writeString(text);
+        assertTrue(CompressionCodec.ofDeflate().getUncompressedSize(file) < 0);
+        assertEquals(text.length(), resource.getSize());
+        assertEquals(text.length(), resource.getSize());
+        resource.writeString("Hello world");
+        assertEquals(11, resource.getSize()); // Physical size changed: decompressed again.
+    }
+
+    @Test void testResourceService() throws IOException {
+        final CompressedResourceRegistry registry = new CompressedResourceRegistry(new FSResourceRegistry(), CompressionCodec.ofGzip());
+        final ResourceService service = new DefaultResourceService(new FSResourceRegistry(), registry);
+        final FSResource file = new FSResource(fileSystem.getPath("/file.gz"));
+        final CompressedResource resource = registry.wrap(file);
+        resource.writeString("Hello world");
+
+        final CompressedResourceKey key = resource.getKey();
+        assertEquals("gzip", key.getQualifier());
+        assertEquals(file.getKey(), key.getCompressedKey());
+        assertEquals(resource, service.getReadableResource(key));
+        assertEquals("Hello world", service.getReadableResource(key).readString());
+        assertEquals(key, service.getResourceKey(key.asResourceKeyString()));
+    }
+}
@@ -0,0 +1,123 @@
+package mb.resource;
+
+import mb.resource.fs.FSResource;
+import mb.resource.hash.ContentHash;
+import mb.resource.hash.ContentHashCache;
+import mb.resource.hash.HashFunction;
+import mb.resource.hash.Hasher;
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
+import mb.resource.text.TextResource;
+import mb.resource.text.TextResourceRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentHashTest {
+    private static ContentHash hashBytes(HashFunction function, byte[] bytes) {
+        final Hasher hasher = function.newHasher();
+        hasher.update(bytes);
+        return hasher.finish();
+    }
+
+
+    @Test void testKnownHashes() {
+        final byte[] abc = "abc".getBytes(StandardCharsets.UTF_8);
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", hashBytes(HashFunction.ofSha256(), abc).toHexString());
+        assertEquals("ef46db3751d8e999", hashBytes(HashFunction.ofXXHash64(), new byte[0]).toHexString());
+        assertEquals("44bc2cf5ad770999", hashBytes(HashFunction.ofXXHash64(), abc).toHexString());
+    }
+
+    @Test void testHashInParts() {
+        final byte[] bytes = new byte[1000];
+        new Random(0).nextBytes(bytes);
+        for(HashFunction function : new HashFunction[]{HashFunction.ofSha256(), HashFunction.ofXXHash64()}) {
+            final Hasher hasher = function.newHasher();
+            for(int offset = 0; offset < bytes.length; offset += 7) {
+                hasher.update(bytes, offset, Math.min(7, bytes.length - offset));
+            }
+            assertEquals(hashBytes(function, bytes), hasher.finish());
+        }
+    }
+
+    @Test void testHashResources() throws IOException {
+        final String text = "Hello w\u00f6rld, " + new String(new char[10000]).replace('\0', 'x');
+        final TextResource textResource = new TextResourceRegistry().createResource(text);
+        final HashFunction function = HashFunction.ofXXHash64();
+        assertEquals(hashBytes(function, textResource.readBytes()), textResource.hash(function));
+
+        final FSResource directory = FSResource.createTemporaryDirectory("hash-test");
+        try {
+            final byte[] bytes = new byte[3 * 1024 * 1024 + 5]; // Large enough to be memory-mapped.
+            new Random(0).nextBytes(bytes);
+            final FSResource file = directory.appendSegment("file.bin");
+            file.writeBytes(bytes);
+            assertEquals(hashBytes(function, bytes), file.hash(function));
+            assertEquals(hashBytes(HashFunction.ofSha256(), bytes), file.hash(HashFunction.ofSha256()));
+        } finally {
+            directory.delete(true);
+        }
+    }
+
+    @Test void testCache() throws IOException {
+        final FSResource directory = FSResource.createTemporaryDirectory("hash-cache-test");
+        try {
+            final ContentHashCache cache = new ContentHashCache(16);
+            final HashFunction function = HashFunction.ofSha256();
+            final FSResource file = directory.appendSegment("file.txt");
+            file.writeString("Hello");
+            final ContentHash hash = cache.hash(file, function);
+            assertEquals(0, cache.size()); // Recently modified, not cached.
+
+            final FileTime past = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+            Files.setLastModifiedTime(file.getJavaPath(), past);
+            assertEquals(hash, cache.hash(file, function));
+            assertEquals(1, cache.size());
+            // Same size and last modified time: cached hash is returned.
+            file.writeString("World");
+            Files.setLastModifiedTime(file.getJavaPath(), past);
+            assertEquals(hash, cache.hash(file, function));
+            // Different size: hashed again.
+            file.writeString("Hello world");
+            assertNotEquals(hash, cache.hash(file, function));
+            cache.invalidate(file.getKey());
+            assertEquals(0, cache.size());
+        } finally {
+            directory.delete(true);
+        }
+    }
+
+    @Test void testCacheValidatesWalkedResourcesWithFreshAttributes() throws IOException {
+        final FSResource directory = FSResource.createTemporaryDirectory("hash-cache-test");
+        try {
+            final ContentHashCache cache = new ContentHashCache(16);
+            final HashFunction function = HashFunction.ofSha256();
+            final FSResource file = directory.appendSegment("file.txt");
+            file.writeString("Hello");
+            final FileTime past = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+            Files.setLastModifiedTime(file.getJavaPath(), past);
+            final FSResource walked;
+            try(final Stream<FSResource> stream = directory.walk(ResourceWalker.ofTrue(), ResourceMatcher.ofFile())) {
+                walked = stream.findFirst().orElseThrow(AssertionError::new);
+            }
+            final ContentHash hash = cache.hash(walked, function);
+            assertEquals(1, cache.size());
+
+            // Modified after the walk: the walked resource still has the attributes it was discovered with.
+            file.writeString("Hello world");
+            assertEquals(5, walked.getSize());
+            assertNotEquals(hash, cache.hash(walked, function));
+            assertEquals(hashBytes(function, "Hello world".getBytes(StandardCharsets.UTF_8)), cache.hash(walked, function));
+        } finally {
+            directory.delete(true);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package mb.resource;
+
+import mb.resource.fs.FSResource;
+import mb.resource.url.URLResource;
+import mb.resource.util.BufferUtil;
+import mb.resource.util.ContentUtil;
+import mb.resource.util.DecodeUtil;
+import mb.resource.util.PooledBufferedInputStream;
+import mb.resource.util.PooledBufferedOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentUtilTest {
+    private static byte[] randomBytes(int length) {
+        final byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static InputStream slowInputStream(byte[] bytes) {
+        // Returns at most 1000 bytes per read, to test reading in multiple reads.
+        return new ByteArrayInputStream(bytes) {
+            @Override public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+    }
+
+
+    @Test void testReadBytes() throws IOException {
+        for(int length : new int[]{0, 1, 1000, BufferUtil.bufferSize, 100_000}) {
+            final byte[] bytes = randomBytes(length);
+            assertArrayEquals(bytes, ContentUtil.readBytes(slowInputStream(bytes), length));
+            assertArrayEquals(bytes, ContentUtil.readBytes(slowInputStream(bytes), -1));
+            // Size is only a hint: content that is smaller or larger than expected is read completely.
+            assertArrayEquals(bytes, ContentUtil.readBytes(slowInputStream(bytes), length * 2L + 1));
+            assertArrayEquals(bytes, ContentUtil.readBytes(slowInputStream(bytes), length / 2));
+        }
+        assertThrows(IOException.class, () -> ContentUtil.readBytes(slowInputStream(new byte[0]), Integer.MAX_VALUE + 1L));
+    }
+
+    @Test void testPooledBufferedStreams() throws IOException {
+        final byte[] bytes = randomBytes(100_000);
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try(final OutputStream outputStream = new PooledBufferedOutputStream(target)) {
+            outputStream.write(bytes, 0, 10);
+            for(int i = 10; i < 5000; ++i) {
+                outputStream.write(bytes[i]);
+            }
+            outputStream.write(bytes, 5000, bytes.length - 5000);
+            // Nested use gets a different buffer.
+            try(final InputStream inputStream = new PooledBufferedInputStream(slowInputStream(bytes))) {
+                assertTrue(ContentUtil.contentEquals(inputStream, bytes));
+            }
+        }
+        assertArrayEquals(bytes, target.toByteArray());
+
+        // Small writes are buffered, instead of passed through to the underlying stream.
+        final AtomicInteger writes = new AtomicInteger();
+        final OutputStream counting = new ByteArrayOutputStream() {
+            @Override public synchronized void write(byte[] b, int off, int len) {
+                writes.incrementAndGet();
+                super.write(b, off, len);
+            }
+        };
+        try(final OutputStream outputStream = new PooledBufferedOutputStream(counting)) {
+            for(int i = 0; i < 100; ++i) {
+                outputStream.write(bytes, i * 10, 10);
+            }
+        }
+        assertEquals(1, writes.get());
+
+        final OutputStream closed = new PooledBufferedOutputStream(new ByteArrayOutputStream());
+        closed.close();
+        closed.close();
+        assertThrows(IOException.class, () -> closed.write(1));
+
+        final byte[] buffer = BufferUtil.acquire();
+        assertEquals(BufferUtil.bufferSize, buffer.length);
+        assertNotSame(buffer, BufferUtil.acquire());
+        BufferUtil.release(buffer);
+        assertSame(buffer, BufferUtil.acquire());
+    }
+
+    @Test void testDecode() throws IOException {
+        final byte[] ascii = "Hello world\n".getBytes(StandardCharsets.US_ASCII);
+        final byte[] text = "Hello w\u00f6rld \u20ac \ud83d\ude00\n".getBytes(StandardCharsets.UTF_8);
+        final List<byte[]> contents = Arrays.asList(new byte[0], ascii, text, randomBytes(100), randomBytes(100_000));
+        for(Charset charset : Arrays.asList(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.US_ASCII, StandardCharsets.UTF_16)) {
+            for(byte[] bytes : contents) {
+                final String expected = new String(bytes, charset);
+                final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+                direct.put(bytes).flip();
+                for(ByteBuffer buffer : Arrays.asList(ByteBuffer.wrap(bytes), ByteBuffer.wrap(bytes).asReadOnlyBuffer(), direct)) {
+                    assertEquals(expected, DecodeUtil.decode(buffer, charset).toString(), charset::name);
+                    assertFalse(buffer.hasRemaining());
+                }
+                for(long expectedSize : new long[]{-1, 0, bytes.length, bytes.length * 3L}) {
+                    assertEquals(expected, DecodeUtil.decode(slowInputStream(bytes), charset, expectedSize).toString(), charset::name);
+                }
+            }
+        }
+    }
+
+    @Test void testReadCharSequence() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        while(builder.length() < 2 * 1024 * 1024) {
+            builder.append("Hello w\u00f6rld ").append(builder.length()).append('\n');
+        }
+        final String text = builder.toString();
+        final FSResource directory = FSResource.createTemporaryDirectory("read-char-sequence-test");
+        try {
+            final FSResource small = directory.appendSegment("small.txt");
+            small.writeString("Hello w\u00f6rld");
+            final FSResource large = directory.appendSegment("large.txt");
+            large.writeString(text, StandardCharsets.UTF_8);
+            assertEquals("Hello w\u00f6rld", small.readCharSequence().toString());
+            assertEquals(text, large.readCharSequence().toString());
+            assertEquals(new String(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1), large.readCharSequence(StandardCharsets.ISO_8859_1).toString());
+            // Default implementation, decoding while reading.
+            final ReadableResource url = new URLResource(large.getJavaPath().toUri().toURL());
+            assertEquals(text, url.readCharSequence().toString());
+        } finally {
+            directory.delete(true);
+        }
+    }
+}
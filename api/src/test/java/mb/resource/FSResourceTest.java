@@ -0,0 +1,317 @@
+package mb.resource;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import mb.resource.fs.FSCopyOptions;
+import mb.resource.fs.FSCopyResult;
+import mb.resource.fs.FSResource;
+import mb.resource.hash.ContentHashCache;
+import mb.resource.hash.HashFunction;
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.match.path.PathMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
+import mb.resource.text.TextResource;
+import mb.resource.text.TextResourceRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FSResourceTest {
+    final FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix());
+
+    private FSResource createTree() throws IOException {
+        final FSResource root = new FSResource(fileSystem.getPath("/root")).createDirectory(true);
+        root.appendRelativePath("a/a.txt").ensureFileExists();
+        root.appendRelativePath("a/b.java").ensureFileExists();
+        root.appendRelativePath("b/c/d.txt").ensureFileExists();
+        root.appendRelativePath("b/e.txt").ensureFileExists();
+        root.appendRelativePath("f.txt").ensureFileExists();
+        return root;
+    }
+
+    private static List<String> relativePaths(FSResource root, Stream<FSResource> stream) {
+        try(final Stream<FSResource> s = stream) {
+            return s.map(r -> root.getPath().relativize(r.getPath())).sorted().collect(Collectors.toList());
+        }
+    }
+
+
+    @Test void testWalk() throws IOException {
+        final FSResource root = createTree();
+        assertEquals(
+            Arrays.asList("", "a", "a/a.txt", "a/b.java", "b", "b/c", "b/c/d.txt", "b/e.txt", "f.txt"),
+            relativePaths(root, root.walk(ResourceWalker.ofTrue(), ResourceMatcher.ofTrue()))
+        );
+        assertEquals(
+            Arrays.asList("a/a.txt", "b/c/d.txt", "b/e.txt", "f.txt"),
+            relativePaths(root, root.walk(ResourceMatcher.ofFileExtension("txt")))
+        );
+    }
+
+    @Test void testWalkPrunesDirectories() throws IOException {
+        final FSResource root = createTree();
+        final ResourceWalker walker = (dir, rootDir) -> !"b".equals(dir.getLeaf());
+        assertEquals(
+            Arrays.asList("", "a", "a/a.txt", "a/b.java", "b", "f.txt"),
+            relativePaths(root, root.walk(walker, ResourceMatcher.ofTrue()))
+        );
+    }
+
+    @Test void testWalkVisitsDirectoriesBeforeChildren() throws IOException {
+        final FSResource root = createTree();
+        try(final Stream<FSResource> stream = root.walk(ResourceWalker.ofTrue(), ResourceMatcher.ofTrue())) {
+            final List<FSResource> resources = stream.collect(Collectors.toList());
+            for(int i = 0; i < resources.size(); ++i) {
+                final FSResource resource = resources.get(i);
+                final int parentIndex = resources.indexOf(resource.getParent());
+                if(!resource.equals(root)) {
+                    assertTrue(parentIndex >= 0 && parentIndex < i);
+                }
+            }
+        }
+    }
+
+    @Test void testWalkIsLazy() throws IOException {
+        final FSResource root = createTree();
+        final int[] visited = {0};
+        final ResourceMatcher matcher = (resource, rootDir) -> {
+            ++visited[0];
+            return resource.isFile();
+        };
+        try(final Stream<FSResource> stream = root.walk(ResourceWalker.ofTrue(), matcher)) {
+            final Optional<FSResource> first = stream.findFirst();
+            assertTrue(first.isPresent());
+            assertTrue(first.get().isFile());
+        }
+        assertTrue(visited[0] < 9);
+    }
+
+    @Test void testWalkNonExistent() throws IOException {
+        final FSResource root = new FSResource(fileSystem.getPath("/does-not-exist"));
+        try(final Stream<FSResource> stream = root.walk(ResourceWalker.ofTrue(), ResourceMatcher.ofTrue())) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test void testWalkParallelOrdered() throws IOException {
+        final FSResource root = createTree();
+        try(final Stream<FSResource> stream = root.walkParallel(ResourceWalker.ofTrue(), ResourceMatcher.ofTrue(), true)) {
+            assertEquals(
+                Arrays.asList("", "a", "a/a.txt", "a/b.java", "b", "b/c", "b/c/d.txt", "b/e.txt", "f.txt"),
+                stream.map(r -> root.getPath().relativize(r.getPath())).collect(Collectors.toList())
+            );
+        }
+    }
+
+    @Test void testWalkParallelUnordered() throws IOException {
+        final FSResource root = createTree();
+        final ResourceWalker walker = (dir, rootDir) -> !"c".equals(dir.getLeaf());
+        final ResourceMatcher matcher = ResourceMatcher.ofFileExtension("txt");
+        assertEquals(
+            relativePaths(root, root.walk(walker, matcher)),
+            relativePaths(root, root.walkParallel(walker, matcher, false))
+        );
+    }
+
+    @Test void testWalkedResourcesCarryAttributes() throws IOException {
+        final FSResource root = createTree();
+        final FSResource file = root.appendRelativePath("f.txt");
+        file.writeString("Hello");
+        final FSResource walkedFile;
+        try(final Stream<FSResource> stream = root.walk(ResourceMatcher.ofPath(PathMatcher.ofExtension("txt")))) {
+            walkedFile = stream.filter(r -> r.equals(file)).findFirst().orElseThrow(AssertionError::new);
+        }
+        Files.write(file.getJavaPath(), "Hello world".getBytes(StandardCharsets.UTF_8));
+        // Walked resource answers from its snapshot, a fresh resource reads the filesystem.
+        assertTrue(walkedFile.isFile());
+        assertEquals(5, walkedFile.getSize());
+        assertEquals(11, new FSResource(file.getPath()).getSize());
+        // Writing through the walked resource discards its snapshot.
+        walkedFile.writeString("Hello world!");
+        assertEquals(12, walkedFile.getSize());
+    }
+
+    @Test void testReadByteBuffer() throws IOException {
+        final FSResource file = new FSResource(fileSystem.getPath("/file.txt"));
+        file.writeString("Hello");
+        final ByteBuffer buffer = file.readByteBuffer();
+        assertTrue(buffer.isReadOnly());
+        assertEquals("Hello", StandardCharsets.UTF_8.decode(buffer).toString());
+        try(final FileChannel channel = file.openReadChannel()) {
+            assertEquals(5, channel.size());
+        }
+
+        final FSResource directory = FSResource.createTemporaryDirectory("read-test");
+        try {
+            final byte[] bytes = new byte[2 * 1024 * 1024 + 3]; // Large enough to be memory-mapped.
+            new Random(0).nextBytes(bytes);
+            final FSResource largeFile = directory.appendSegment("file.bin");
+            largeFile.writeBytes(bytes);
+            final ByteBuffer mapped = largeFile.readByteBuffer();
+            assertTrue(mapped.isDirect());
+            assertEquals(ByteBuffer.wrap(bytes), mapped);
+            assertEquals(ByteBuffer.wrap(bytes, 1024, 16), largeFile.mapReadOnly(1024, 16));
+        } finally {
+            directory.delete(true);
+        }
+    }
+
+    @Test void testTransferTo() throws IOException {
+        final FSResource source = new FSResource(fileSystem.getPath("/source.txt"));
+        source.writeString("Hello world");
+        final FSResource target = new FSResource(fileSystem.getPath("/target.txt"));
+        target.writeString("Overwritten content");
+        assertEquals(11, source.transferTo(target));
+        assertEquals("Hello world", target.readString());
+
+        final TextResource text = new TextResourceRegistry().createResource("Hello");
+        assertEquals(5, text.transferTo(target));
+        assertEquals("Hello", target.readString());
+
+        final FSResource directory = FSResource.createTemporaryDirectory("transfer-test");
+        try {
+            final FSResource localSource = directory.appendSegment("source.txt");
+            final FSResource localTarget = directory.appendSegment("target.txt");
+            assertEquals(5, target.transferTo(localSource));
+            assertEquals(5, localSource.transferTo(localTarget));
+            assertEquals("Hello", localTarget.readString());
+        } finally {
+            directory.delete(true);
+        }
+    }
+
+    @Test void testCopyRecursivelyInParallel() throws IOException {
+        final FSResource root = createTree();
+        root.appendRelativePath("a/a.txt").writeString("Hello");
+        final FSResource target = new FSResource(fileSystem.getPath("/target"));
+        final AtomicLong reportedBytes = new AtomicLong();
+        final FSCopyOptions options = new FSCopyOptions(4, true, (source, copied, size) -> reportedBytes.addAndGet(size));
+        final FSCopyResult result = root.copyRecursivelyTo(target, options);
+        assertEquals(4, result.directories);
+        assertEquals(5, result.filesCopied);
+        assertEquals(5, result.bytesCopied);
+        assertEquals(5, reportedBytes.get());
+        assertEquals(
+            relativePaths(root, root.walk()),
+            relativePaths(target, target.walk())
+        );
+        assertEquals("Hello", target.appendRelativePath("a/a.txt").readString());
+
+        root.appendRelativePath("b/e.txt").writeString("World!");
+        final FSCopyResult secondResult = root.copyRecursivelyTo(target, options);
+        assertEquals(1, secondResult.filesCopied);
+        assertEquals(4, secondResult.filesSkipped);
+        assertEquals("World!", target.appendRelativePath("b/e.txt").readString());
+    }
+
+    @Test void testDeleteRecursively() throws IOException {
+        final FSResource root = createTree();
+        root.appendRelativePath("b/c").delete(true);
+        assertFalse(root.appendRelativePath("b/c").exists());
+        assertTrue(root.appendRelativePath("b/e.txt").exists());
+        root.delete(true);
+        assertFalse(root.exists());
+        root.delete(true); // Deleting a resource that does not exist does nothing.
+    }
+
+    @Test void testDeleteRecursivelyInBackground() throws Exception {
+        final FSResource root = createTree();
+        final FSResource directory = root.appendSegment("b");
+        final CompletableFuture<Void> future = directory.deleteRecursivelyInBackground();
+        assertFalse(directory.exists());
+        future.get();
+        assertEquals(Arrays.asList("", "a", "a/a.txt", "a/b.java", "f.txt"), relativePaths(root, root.walk()));
+    }
+
+    @Test void testWriteAtomic() throws IOException {
+        final FSResource directory = new FSResource(fileSystem.getPath("/directory")).createDirectory(true);
+        final FSResource file = directory.appendSegment("file.txt");
+        file.writeString("Hello");
+        try(final OutputStream outputStream = file.openWriteAtomic(false)) {
+            outputStream.write("Hello world".getBytes(StandardCharsets.UTF_8));
+            assertEquals("Hello", file.readString()); // Not replaced until closed.
+        }
+        assertEquals("Hello world", file.readString());
+
+        final FileTime past = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(file.getJavaPath(), past);
+        try(final OutputStream outputStream = file.openWriteAtomic(true)) {
+            outputStream.write("Hello world".getBytes(StandardCharsets.UTF_8));
+        }
+        assertFalse(file.writeBytesAtomic("Hello world".getBytes(StandardCharsets.UTF_8), true));
+        assertEquals(past.toInstant(), new FSResource(file.getPath()).getLastModifiedTime()); // Identical: not replaced.
+        assertTrue(file.writeBytesAtomic("Hello".getBytes(StandardCharsets.UTF_8), true));
+        assertEquals("Hello", file.readString());
+
+        assertEquals(Arrays.asList("", "file.txt"), relativePaths(directory, directory.walk())); // No temporary files left.
+    }
+
+    @Test void testWriteAtomicDiscardsFailedWrites() throws IOException {
+        final FileSystem smallFileSystem = Jimfs.newFileSystem(Configuration.unix().toBuilder().setBlockSize(1024).setMaxSize(8 * 1024).build());
+        final FSResource directory = new FSResource(smallFileSystem.getPath("/directory")).createDirectory(true);
+        final FSResource file = directory.appendSegment("file.txt");
+        file.writeString("Hello");
+        final byte[] tooLarge = new byte[16 * 1024];
+        try(final OutputStream outputStream = file.openWriteAtomic(false)) {
+            outputStream.write("Hello world".getBytes(StandardCharsets.UTF_8));
+            assertThrows(IOException.class, () -> outputStream.write(tooLarge));
+        }
+        assertEquals("Hello", file.readString()); // Not replaced with partially written content.
+        assertEquals(Arrays.asList("", "file.txt"), relativePaths(directory, directory.walk())); // No temporary files left.
+    }
+
+    @Test void testWriteIfChanged() throws IOException {
+        final FSResource file = new FSResource(fileSystem.getPath("/file.txt"));
+        assertTrue(file.writeStringIfChanged("Hello"));
+        final FileTime past = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(file.getJavaPath(), past);
+        assertFalse(file.writeStringIfChanged("Hello"));
+        assertEquals(past.toInstant(), file.getLastModifiedTime());
+        assertTrue(file.writeStringIfChanged("World"));
+        assertEquals("World", file.readString());
+
+        final ContentHashCache cache = new ContentHashCache(16);
+        final HashFunction function = HashFunction.ofXXHash64();
+        Files.setLastModifiedTime(file.getJavaPath(), past);
+        assertFalse(file.writeBytesIfChanged("World".getBytes(StandardCharsets.UTF_8), cache, function));
+        assertEquals(1, cache.size());
+        assertTrue(file.writeBytesIfChanged("Hello".getBytes(StandardCharsets.UTF_8), cache, function));
+        assertEquals("Hello", file.readString());
+    }
+
+    @Test void testAsync() throws Exception {
+        final FSResource file = new FSResource(fileSystem.getPath("/file.txt"));
+        file.writeBytesAsync("Hello world".getBytes(StandardCharsets.UTF_8)).get();
+        assertEquals("Hello world", file.readStringAsync(StandardCharsets.UTF_8).get());
+        assertEquals("Hello world", file.readStringAsync(StandardCharsets.UTF_8, Runnable::run).get());
+        assertEquals("Hello world", file.readStringAsync().get());
+        assertEquals(11L, file.getSizeAsync().get());
+        assertTrue(file.existsAsync().get());
+
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> new FSResource(fileSystem.getPath("/missing.txt")).readBytesAsync().get());
+        assertTrue(exception.getCause() instanceof NoSuchFileException);
+
+        final TextResource text = new TextResourceRegistry().createResource("Hello");
+        assertEquals("Hello", text.readStringAsync(StandardCharsets.UTF_8).get());
+    }
+}
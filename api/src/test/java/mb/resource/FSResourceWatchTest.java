@@ -0,0 +1,159 @@
+package mb.resource;
+
+import mb.resource.fs.FSResource;
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
+import mb.resource.hierarchical.watch.ResourceChange;
+import mb.resource.hierarchical.watch.ResourceChangeKind;
+import mb.resource.hierarchical.watch.ResourceChangeListener;
+import mb.resource.hierarchical.watch.ResourceWatch;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FSResourceWatchTest {
+    final LinkedBlockingQueue<List<ResourceChange>> batches = new LinkedBlockingQueue<>();
+    FSResource root;
+
+    @BeforeEach void createTemporaryDirectory() throws IOException {
+        root = FSResource.createTemporaryDirectory("watch-test");
+    }
+
+    @AfterEach void deleteTemporaryDirectory() throws IOException {
+        root.delete(true);
+    }
+
+    private ResourceWatch watch(ResourceMatcher matcher) throws IOException {
+        return root.watch(ResourceWalker.ofTrue(), matcher, batches::add, Duration.ofMillis(50));
+    }
+
+    private void awaitChanges(ResourceChange... expected) throws InterruptedException {
+        final HashSet<ResourceChange> remaining = new HashSet<>();
+        for(ResourceChange change : expected) {
+            remaining.add(change);
+        }
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while(!remaining.isEmpty()) {
+            final @Nullable List<ResourceChange> batch = batches.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if(batch == null) {
+                fail("Timed out waiting for changes " + remaining);
+            }
+            remaining.removeAll(batch);
+        }
+    }
+
+
+    @Test void testReportsChanges() throws Exception {
+        final FSResource file = root.appendSegment("file.txt");
+        try(final ResourceWatch watch = watch(ResourceMatcher.ofFile())) {
+            assertTrue(watch.isActive());
+            file.writeString("Hello");
+            awaitChanges(new ResourceChange(file, ResourceChangeKind.Created));
+            Thread.sleep(1000); // Ensure the last modified time changes on filesystems with a resolution of seconds.
+            file.writeString("Hello world");
+            awaitChanges(new ResourceChange(file, ResourceChangeKind.Modified));
+            file.delete();
+            awaitChanges(new ResourceChange(file, ResourceChangeKind.Deleted));
+        }
+    }
+
+    @Test void testReportsChangesInCreatedDirectories() throws Exception {
+        final FSResource directory = root.appendRelativePath("a/b");
+        final FSResource file = directory.appendSegment("file.txt");
+        try(final ResourceWatch watch = watch(ResourceMatcher.ofFileExtension("txt"))) {
+            file.ensureFileExists();
+            awaitChanges(new ResourceChange(file, ResourceChangeKind.Created));
+            final FSResource otherFile = directory.appendSegment("other.txt").createFile();
+            awaitChanges(new ResourceChange(otherFile, ResourceChangeKind.Created));
+            root.appendSegment("a").delete(true);
+            awaitChanges(
+                new ResourceChange(file, ResourceChangeKind.Deleted),
+                new ResourceChange(otherFile, ResourceChangeKind.Deleted)
+            );
+        }
+    }
+
+    @Test void testClose() throws Exception {
+        final ResourceWatch watch = watch(ResourceMatcher.ofTrue());
+        watch.close();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while(watch.isActive() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(watch.isActive());
+    }
+
+    @Test void testKeepsWatchingWhenMatcherFails() throws Exception {
+        final LinkedBlockingQueue<IOException> failures = new LinkedBlockingQueue<>();
+        final ResourceChangeListener listener = new ResourceChangeListener() {
+            @Override public void changed(List<ResourceChange> changes) {
+                batches.add(changes);
+            }
+
+            @Override public void failed(IOException exception) {
+                failures.add(exception);
+            }
+        };
+        final ResourceMatcher matcher = (resource, rootDirectory) -> {
+            if("bad.txt".equals(resource.getLeaf())) throw new IOException("Cannot match '" + resource + "'");
+            return true;
+        };
+        try(final ResourceWatch watch = root.watch(ResourceWalker.ofTrue(), matcher, listener, Duration.ofMillis(50))) {
+            root.appendSegment("bad.txt").writeString("Hello");
+            assertNotNull(failures.poll(30, TimeUnit.SECONDS));
+            final FSResource file = root.appendSegment("good.txt");
+            file.writeString("Hello");
+            awaitChanges(new ResourceChange(file, ResourceChangeKind.Created));
+            assertTrue(watch.isActive());
+        }
+    }
+
+    @Test void testReportsChangesThatKeepArriving() throws Exception {
+        try(final ResourceWatch watch = root.watch(ResourceWalker.ofTrue(), ResourceMatcher.ofFile(), batches::add, Duration.ofMillis(500), Duration.ofMillis(1000))) {
+            // Create files faster than the debounce duration; a batch must still be reported after the maximum delay.
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            @Nullable List<ResourceChange> batch = null;
+            for(int i = 0; batch == null && System.nanoTime() < deadline; ++i) {
+                root.appendSegment("file" + i + ".txt").writeString("Hello");
+                batch = batches.poll(50, TimeUnit.MILLISECONDS);
+            }
+            assertNotNull(batch);
+            assertFalse(batch.isEmpty());
+            assertTrue(watch.isActive());
+        }
+    }
+
+    @Test void testEndsWatchWhenListenerThrows() throws Exception {
+        final LinkedBlockingQueue<IOException> failures = new LinkedBlockingQueue<>();
+        final ResourceChangeListener listener = new ResourceChangeListener() {
+            @Override public void changed(List<ResourceChange> changes) {
+                throw new IllegalStateException("Listener failed");
+            }
+
+            @Override public void failed(IOException exception) {
+                failures.add(exception);
+            }
+        };
+        try(final ResourceWatch watch = root.watch(ResourceWalker.ofTrue(), ResourceMatcher.ofFile(), listener, Duration.ofMillis(50))) {
+            root.appendSegment("file.txt").writeString("Hello");
+            final @Nullable IOException failure = failures.poll(30, TimeUnit.SECONDS);
+            assertNotNull(failure);
+            assertTrue(failure.getCause() instanceof IllegalStateException);
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while(watch.isActive() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(watch.isActive());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package mb.resource;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import mb.resource.fs.FSResource;
+import mb.resource.text.TextResource;
+import mb.resource.text.TextResourceRegistry;
+import mb.resource.util.BufferUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineReaderTest {
+    final FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix());
+    final TextResourceRegistry textRegistry = new TextResourceRegistry();
+
+    private static List<String> expectedLines(String text) {
+        return new BufferedReader(new StringReader(text)).lines().collect(Collectors.toList());
+    }
+
+    private static List<String> forEachLine(ReadableResource resource, Charset charset) throws IOException {
+        final ArrayList<String> lines = new ArrayList<>();
+        resource.forEachLine(charset, line -> lines.add(line.toString()));
+        return lines;
+    }
+
+    private void assertLines(String text) throws IOException {
+        final List<String> expected = expectedLines(text);
+        for(Charset charset : Arrays.asList(StandardCharsets.UTF_8, StandardCharsets.UTF_16LE)) {
+            final FSResource file = new FSResource(fileSystem.getPath("/file.txt"));
+            file.writeString(text, charset);
+            try(final Stream<String> lines = file.lines(charset)) {
+                assertEquals(expected, lines.collect(Collectors.toList()));
+            }
+            assertEquals(expected, forEachLine(file, charset));
+        }
+        final TextResource textResource = textRegistry.createResource(text);
+        try(final Stream<String> lines = textResource.lines()) {
+            assertEquals(expected, lines.collect(Collectors.toList()));
+        }
+        assertEquals(expected, forEachLine(textResource, StandardCharsets.UTF_8));
+    }
+
+
+    @Test void testLineTerminators() throws IOException {
+        assertLines("");
+        assertLines("a");
+        assertLines("a\n");
+        assertLines("a\r\nb\rc\n\nd");
+        assertLines("\r\n\r\n\n\r");
+    }
+
+    @Test void testLinesCrossingBuffers() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        final Random random = new Random(0);
+        final String[] pieces = {"a", "\u00f6", "\u20ac", "\ud83d\ude00", "\r", "\n", "\r\n"};
+        while(builder.length() < BufferUtil.bufferSize * 5) {
+            builder.append(pieces[random.nextInt(pieces.length)]);
+        }
+        // A line longer than the buffer.
+        builder.append(new String(new char[BufferUtil.bufferSize * 3]).replace('\0', 'x'));
+        assertLines(builder.toString());
+        // A terminator split over the end of the buffer.
+        final char[] chars = new char[BufferUtil.bufferSize + 1];
+        Arrays.fill(chars, 'y');
+        chars[BufferUtil.bufferSize - 1] = '\r';
+        chars[BufferUtil.bufferSize] = '\n';
+        assertLines(new String(chars));
+    }
+
+    @Test void testStreamIsLazy() throws IOException {
+        final FSResource file = new FSResource(fileSystem.getPath("/file.txt"));
+        file.writeString("first\nsecond\n");
+        try(final Stream<String> lines = file.lines()) {
+            assertEquals("first", lines.findFirst().orElse(null));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package mb.resource;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import mb.resource.fs.FSResource;
+import mb.resource.text.TextResourceRegistry;
+import mb.resource.url.URLResource;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadRangeTest {
+    final FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix());
+    final TextResourceRegistry textRegistry = new TextResourceRegistry();
+
+    private static String text() {
+        final StringBuilder builder = new StringBuilder();
+        while(builder.length() < 20_000) {
+            builder.append("Hello w\u00f6rld \u20ac \ud83d\ude00 \ud800 ").append(builder.length()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static byte[] expectedRange(byte[] bytes, long offset, int length) {
+        final int from = (int)Math.min(offset, bytes.length);
+        return Arrays.copyOfRange(bytes, from, (int)Math.min(bytes.length, from + (long)length));
+    }
+
+    private static byte[] readChannel(SeekableByteChannel channel, long position, int length) throws IOException {
+        channel.position(position);
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while(buffer.hasRemaining() && channel.read(buffer) != -1) {
+            // Read until the buffer is full or the end of the channel is reached.
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+
+    @Test void testReadRange() throws IOException {
+        final String text = text();
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        final FSResource directory = FSResource.createTemporaryDirectory("read-range-test");
+        try {
+            final FSResource localFile = directory.appendSegment("file.txt");
+            localFile.writeBytes(bytes);
+            final FSResource file = new FSResource(fileSystem.getPath("/file.txt"));
+            file.writeBytes(bytes);
+            final List<ReadableResource> resources = Arrays.asList(localFile, file,
+                new URLResource(localFile.getJavaPath().toUri().toURL()), textRegistry.createResource(text));
+            final long[] offsets = {0, 1, 8, 9, 10, 4000, 12345, bytes.length - 1, bytes.length, bytes.length + 10L};
+            for(ReadableResource resource : resources) {
+                for(long offset : offsets) {
+                    for(int length : new int[]{0, 1, 3, 1000, bytes.length}) {
+                        final String message = resource + " [" + offset + ", " + length + "]";
+                        assertArrayEquals(expectedRange(bytes, offset, length), resource.readRange(offset, length), message);
+                    }
+                }
+                assertThrows(IllegalArgumentException.class, () -> resource.readRange(-1, 1));
+                assertThrows(IllegalArgumentException.class, () -> resource.readRange(0, -1));
+            }
+        } finally {
+            directory.delete(true);
+        }
+    }
+
+    @Test void testSeekableChannel() throws IOException {
+        final String text = text();
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        final FSResource directory = FSResource.createTemporaryDirectory("read-range-test");
+        try {
+            final FSResource localFile = directory.appendSegment("file.txt");
+            localFile.writeBytes(bytes);
+            final List<ReadableResource> resources = Arrays.asList(localFile,
+                new URLResource(localFile.getJavaPath().toUri().toURL()), textRegistry.createResource(text));
+            for(ReadableResource resource : resources) {
+                try(final SeekableByteChannel channel = resource.openReadSeekableChannel()) {
+                    // Seek forward, backward, and beyond the end.
+                    for(long position : new long[]{100, 5000, 200, 0, bytes.length - 10L, bytes.length + 10L, 50}) {
+                        assertArrayEquals(expectedRange(bytes, position, 100), readChannel(channel, position, 100), resource + " at " + position);
+                    }
+                    assertEquals(150, channel.position());
+                    assertThrows(NonWritableChannelException.class, () -> channel.write(ByteBuffer.allocate(1)));
+                }
+            }
+        } finally {
+            directory.delete(true);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package mb.resource;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import mb.resource.fs.CachingFSResourceRegistry;
+import mb.resource.fs.FSAttributesCache;
+import mb.resource.fs.FSPath;
+import mb.resource.fs.FSResource;
+import mb.resource.fs.FSResourceRegistry;
+import mb.resource.hierarchical.HierarchicalResourceType;
+import mb.resource.text.TextResource;
+import mb.resource.text.TextResourceRegistry;
+import mb.resource.url.URLResource;
+import mb.resource.url.URLResourceRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceMetadataTest {
+    final FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix());
+
+    private ArrayList<ResourceKey> createFiles(FileSystem fileSystem) throws IOException {
+        final FSResource directory = new FSResource(fileSystem.getPath("/dir")).createDirectory(true);
+        final ArrayList<ResourceKey> keys = new ArrayList<>();
+        for(int i = 0; i < 20; ++i) {
+            final FSResource file = directory.appendSegment("file" + i + ".txt");
+            if(i % 2 == 0) {
+                file.writeString("Hello" + i);
+            }
+            keys.add(file.getKey());
+        }
+        return keys;
+    }
+
+    private static void assertSameAsSingleQueries(Map<ResourceKey, ResourceMetadata> metadata, Iterable<ResourceKey> keys) throws IOException {
+        for(ResourceKey key : keys) {
+            assertEquals(ResourceMetadata.read(new FSResource((FSPath)key)), metadata.get(key), key::toString);
+        }
+    }
+
+
+    @Test void testFSMetadata() throws IOException {
+        final ArrayList<ResourceKey> keys = createFiles(fileSystem);
+        keys.add(new FSPath(fileSystem.getPath("/dir")));
+        keys.add(new FSPath(fileSystem.getPath("/dir/.")));
+        keys.add(new FSPath(fileSystem.getPath("/missing/file.txt")));
+        keys.add(new FSPath(fileSystem.getPath("/dir/file0.txt/file.txt")));
+        final ResourceService service = new DefaultResourceService(new FSResourceRegistry());
+        final Map<ResourceKey, ResourceMetadata> metadata = service.getMetadata(keys, new ForkJoinPool(2));
+        assertEquals(keys.size(), metadata.size());
+        assertSameAsSingleQueries(metadata, keys);
+        final ResourceMetadata file = metadata.get(keys.get(0));
+        assertTrue(file.exists);
+        assertEquals(HierarchicalResourceType.File, file.type);
+        assertEquals(6, file.size);
+        assertEquals(ResourceMetadata.ofNonExistent(), metadata.get(keys.get(1)));
+        assertEquals(HierarchicalResourceType.Directory, metadata.get(keys.get(20)).type);
+    }
+
+    @Test void testFSMetadataOfFewPathsInLargeDirectory() throws IOException {
+        final FSResource directory = new FSResource(fileSystem.getPath("/large")).createDirectory(true);
+        for(int i = 0; i < 200; ++i) {
+            directory.appendSegment("file" + i + ".txt").writeString("Hello");
+        }
+        final ArrayList<ResourceKey> keys = new ArrayList<>();
+        for(int i = 190; i < 210; ++i) { // Half of the paths exist.
+            keys.add(directory.appendSegment("file" + i + ".txt").getKey());
+        }
+        final Map<ResourceKey, ResourceMetadata> metadata = new FSResourceRegistry().getMetadata(keys, ForkJoinPool.commonPool());
+        assertSameAsSingleQueries(metadata, keys);
+        assertTrue(metadata.get(keys.get(9)).exists);
+        assertFalse(metadata.get(keys.get(10)).exists);
+    }
+
+    @Test void testFSMetadataOnCaseInsensitiveFileSystem() throws IOException {
+        final FileSystem fileSystem = Jimfs.newFileSystem(Configuration.osX());
+        final ArrayList<ResourceKey> keys = createFiles(fileSystem);
+        keys.add(new FSPath(fileSystem.getPath("/dir/FILE0.TXT")));
+        keys.add(new FSPath(fileSystem.getPath("/dir/FILE1.TXT")));
+        final Map<ResourceKey, ResourceMetadata> metadata = new FSResourceRegistry().getMetadata(keys, ForkJoinPool.commonPool());
+        assertSameAsSingleQueries(metadata, keys);
+        assertTrue(metadata.get(keys.get(20)).exists);
+        assertFalse(metadata.get(keys.get(21)).exists);
+    }
+
+    @Test void testCachingFSMetadataFillsCache() throws IOException {
+        final FSAttributesCache cache = new FSAttributesCache(1024);
+        final CachingFSResourceRegistry registry = new CachingFSResourceRegistry(cache);
+        final ArrayList<ResourceKey> keys = createFiles(fileSystem);
+        registry.getMetadata(keys, ForkJoinPool.commonPool());
+        assertEquals(keys.size(), cache.size());
+        // Served from the cache: changes made externally are not observed.
+        final FSResource file = registry.getResource(keys.get(1));
+        Files.write(file.getJavaPath(), new byte[]{1});
+        assertFalse(file.exists());
+        registry.invalidate(file.getPath());
+        assertTrue(file.exists());
+    }
+
+    @Test void testMetadataOfMultipleRegistries() throws IOException {
+        final TextResourceRegistry textRegistry = new TextResourceRegistry();
+        final TextResource text = textRegistry.createResource("Hello");
+        final FSResource file = new FSResource(fileSystem.getPath("/file.txt"));
+        file.writeString("Hello world");
+        final ResourceService service = new DefaultResourceService(new FSResourceRegistry(), textRegistry);
+        final Map<ResourceKey, ResourceMetadata> metadata = service.getMetadata(Arrays.asList(text.getKey(), file.getKey()));
+        assertEquals(ResourceMetadata.read(text), metadata.get(text.getKey()));
+        assertNull(metadata.get(text.getKey()).type);
+        assertEquals(11, metadata.get(file.getKey()).size);
+        assertThrows(ResourceRuntimeException.class,
+            () -> service.getMetadata(Arrays.asList(new DefaultResourceKey("unknown", "id"))));
+    }
+
+    @Test void testMetadataOfResourcesWithoutType() throws IOException {
+        final URLResource url = new URLResource(ResourceMetadataTest.class.getResource("test_file_1_for_class_loader_resource.txt"));
+        final ResourceService service = new DefaultResourceService(new URLResourceRegistry());
+        final Map<ResourceKey, ResourceMetadata> metadata = service.getMetadata(Arrays.asList(url.getKey()));
+        final ResourceMetadata urlMetadata = metadata.get(url.getKey());
+        assertTrue(urlMetadata.exists);
+        assertNull(urlMetadata.type);
+        assertEquals(url.getSize(), urlMetadata.size);
+    }
+}
@@ -0,0 +1,127 @@
+package mb.resource;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import mb.resource.fs.FSResource;
+import mb.resource.hierarchical.ResourcePath;
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.snapshot.ResourceTreeDiff;
+import mb.resource.hierarchical.snapshot.ResourceTreeSnapshot;
+import mb.resource.hierarchical.walk.ResourceWalker;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceTreeSnapshotTest {
+    final FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix());
+    final FileTime past = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+
+    private FSResource createTree() throws IOException {
+        final FSResource root = new FSResource(fileSystem.getPath("/root")).createDirectory(true);
+        root.appendRelativePath("a/a.txt").createParents().writeString("a", StandardCharsets.UTF_8);
+        root.appendRelativePath("a/b.java").writeString("b", StandardCharsets.UTF_8);
+        root.appendRelativePath("b/c/d.txt").createParents().writeString("d", StandardCharsets.UTF_8);
+        root.appendRelativePath("f.txt").writeString("f", StandardCharsets.UTF_8);
+        return root;
+    }
+
+    private static ResourceTreeSnapshot snapshot(FSResource root, boolean hashContents) throws IOException {
+        return ResourceTreeSnapshot.create(root, ResourceWalker.ofTrue(), ResourceMatcher.ofFileExtension("txt"), hashContents);
+    }
+
+    private static List<String> relativePaths(FSResource root, List<ResourcePath> paths) {
+        return paths.stream().map(p -> root.getPath().relativize(p)).collect(Collectors.toList());
+    }
+
+
+    @Test void testDiff() throws IOException {
+        final FSResource root = createTree();
+        final ResourceTreeSnapshot older = snapshot(root, false);
+        assertTrue(older.diff(older.update(root)).isEmpty());
+
+        root.appendRelativePath("b/c/g.txt").ensureFileExists();
+        root.appendRelativePath("a/b.java").writeString("bb", StandardCharsets.UTF_8);
+        root.appendRelativePath("a/a.txt").writeString("aa", StandardCharsets.UTF_8);
+        root.appendSegment("f.txt").delete();
+        final ResourceTreeDiff diff = older.diff(older.update(root));
+        assertEquals(Arrays.asList("b/c/g.txt"), relativePaths(root, diff.added));
+        assertEquals(Arrays.asList("f.txt"), relativePaths(root, diff.removed));
+        assertEquals(Arrays.asList("a/a.txt"), relativePaths(root, diff.modified));
+
+        root.appendSegment("b").delete(true);
+        final ResourceTreeDiff deletedDirectoryDiff = older.diff(snapshot(root, false));
+        assertEquals(Arrays.asList("b/c/d.txt", "f.txt"), relativePaths(root, deletedDirectoryDiff.removed));
+    }
+
+    @Test void testDiffByHash() throws IOException {
+        final FSResource root = createTree();
+        final FSResource file = root.appendRelativePath("a/a.txt");
+        Files.setLastModifiedTime(file.getJavaPath(), past);
+        final ResourceTreeSnapshot older = snapshot(root, true);
+        Files.setLastModifiedTime(file.getJavaPath(), FileTime.from(Instant.now()));
+        assertTrue(older.diff(older.update(root)).isEmpty());
+        assertFalse(older.diff(snapshot(root, false)).isEmpty());
+        file.writeString("b", StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("a/a.txt"), relativePaths(root, older.diff(older.update(root)).modified));
+    }
+
+    @Test void testUpdateReusesUnchangedDirectories() throws IOException {
+        final FSResource root = createTree();
+        final FSResource directory = root.appendSegment("a");
+        Files.setLastModifiedTime(directory.getJavaPath(), past);
+        final ResourceTreeSnapshot older = snapshot(root, false);
+
+        // Add a file without changing the last modified time of its directory: not listed, so not observed.
+        directory.appendSegment("g.txt").ensureFileExists();
+        Files.setLastModifiedTime(directory.getJavaPath(), past);
+        assertTrue(older.diff(older.update(root)).isEmpty());
+        // But modifications of files in the directory are observed.
+        directory.appendSegment("a.txt").writeString("aa", StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("a/a.txt"), relativePaths(root, older.diff(older.update(root)).modified));
+        // A full snapshot lists the directory.
+        assertEquals(Arrays.asList("a/g.txt"), relativePaths(root, older.diff(snapshot(root, false)).added));
+    }
+
+    @Test void testUpdateHandlesFilesDeletedFromUnchangedDirectories() throws IOException {
+        final FSResource root = createTree();
+        final FSResource directory = root.appendSegment("a");
+        Files.setLastModifiedTime(directory.getJavaPath(), past);
+        final ResourceTreeSnapshot older = snapshot(root, true);
+
+        // Entries of the unchanged directory are taken from the previous snapshot, but one of them no longer exists.
+        directory.appendSegment("a.txt").delete();
+        Files.setLastModifiedTime(directory.getJavaPath(), past);
+        assertEquals(Arrays.asList("a/a.txt"), relativePaths(root, older.diff(older.update(root)).removed));
+    }
+
+    @Test void testSerialize() throws IOException, ClassNotFoundException {
+        final FSResource root = createTree();
+        final ResourceTreeSnapshot snapshot = snapshot(root, true);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try(final ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeObject(snapshot);
+        }
+        final ResourceTreeSnapshot deserialized;
+        try(final ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            deserialized = (ResourceTreeSnapshot)objectInputStream.readObject();
+        }
+        assertEquals(snapshot.getRootPath(), deserialized.getRootPath());
+        assertTrue(deserialized.diff(snapshot).isEmpty());
+        root.appendSegment("f.txt").delete();
+        assertEquals(Arrays.asList("f.txt"), relativePaths(root, deserialized.diff(snapshot(root, true)).removed));
+    }
+}
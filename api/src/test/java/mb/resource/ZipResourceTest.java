@@ -0,0 +1,182 @@
+package mb.resource;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import mb.resource.classloader.ClassLoaderResourceRegistry;
+import mb.resource.classloader.JarFileWithPath;
+import mb.resource.fs.FSResource;
+import mb.resource.hierarchical.HierarchicalResourceType;
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.match.path.PathMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
+import mb.resource.zip.ZipResource;
+import mb.resource.zip.ZipResourceRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipResourceTest {
+    final FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix());
+
+    private static String text() {
+        final StringBuilder builder = new StringBuilder();
+        while(builder.length() < 10_000) {
+            builder.append("Hello world ").append(builder.length() % 100).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private FSResource createArchive(String text) throws IOException {
+        final FSResource file = new FSResource(fileSystem.getPath("/archive.zip"));
+        try(final ZipOutputStream outputStream = new ZipOutputStream(file.openWrite())) {
+            outputStream.setComment("comment");
+            outputStream.putNextEntry(new ZipEntry("a/"));
+            outputStream.putNextEntry(new ZipEntry("a/deflated.txt"));
+            outputStream.write(text.getBytes());
+            final byte[] stored = "stored".getBytes();
+            final CRC32 crc = new CRC32();
+            crc.update(stored);
+            final ZipEntry storedEntry = new ZipEntry("a/b/stored.txt");
+            storedEntry.setMethod(ZipEntry.STORED);
+            storedEntry.setSize(stored.length);
+            storedEntry.setCrc(crc.getValue());
+            outputStream.putNextEntry(storedEntry);
+            outputStream.write(stored);
+            outputStream.putNextEntry(new ZipEntry("c/implicit.txt")); // Directory 'c' has no entry.
+            outputStream.write("implicit".getBytes());
+        }
+        return file;
+    }
+
+
+    @Test void testReadEntries() throws IOException {
+        final String text = text();
+        final ZipResourceRegistry registry = new ZipResourceRegistry(createArchive(text));
+
+        final ZipResource deflated = registry.getResource("a/deflated.txt");
+        assertEquals(HierarchicalResourceType.File, deflated.getType());
+        assertEquals(text, deflated.readString());
+        assertEquals(text.length(), deflated.getSize());
+        assertTrue(deflated.getCompressedSize() < text.length());
+        assertArrayEquals(text.substring(5_000, 5_100).getBytes(), deflated.readRange(5_000, 100));
+
+        final ZipResource stored = registry.getResource("a/b/stored.txt");
+        assertEquals("stored", stored.readString());
+        assertArrayEquals("ore".getBytes(), stored.readRange(2, 3));
+        assertArrayEquals("ed".getBytes(), stored.readRange(4, 100));
+        final CRC32 crc = new CRC32();
+        crc.update("stored".getBytes());
+        assertEquals(crc.getValue(), stored.getCrc());
+
+        assertEquals("implicit", registry.getResource("/c/implicit.txt").readString());
+        assertEquals(HierarchicalResourceType.Directory, registry.getResource("c").getType());
+        assertEquals(HierarchicalResourceType.Directory, registry.getRoot().getType());
+
+        final ZipResource missing = registry.getResource("a/missing.txt");
+        assertFalse(missing.exists());
+        assertEquals(HierarchicalResourceType.Unknown, missing.getType());
+        assertThrows(NoSuchFileException.class, missing::openRead);
+        assertThrows(IOException.class, () -> registry.getResource("a").openRead());
+        assertThrows(UnsupportedOperationException.class, deflated::openWrite);
+    }
+
+    @Test void testListAndWalk() throws IOException {
+        final ZipResourceRegistry registry = new ZipResourceRegistry(createArchive(text()));
+        final ZipResource root = registry.getRoot();
+
+        assertEquals(Arrays.asList("a", "c"), leaves(root.list()));
+        assertEquals(Arrays.asList("b", "deflated.txt"), leaves(registry.getResource("a").list()));
+        assertEquals(Collections.singletonList("deflated.txt"), leaves(registry.getResource("a").list(ResourceMatcher.ofFile())));
+        assertThrows(NotDirectoryException.class, () -> registry.getResource("a/deflated.txt").list());
+        assertThrows(NoSuchFileException.class, () -> registry.getResource("missing").list());
+
+        assertEquals(
+            Arrays.asList("", "/a", "/a/b", "/a/b/stored.txt", "/a/deflated.txt", "/c", "/c/implicit.txt"),
+            root.walk().map(r -> r.getPath().getIdAsString()).collect(Collectors.toList())
+        );
+        assertEquals(
+            Arrays.asList("/a/deflated.txt", "/c/implicit.txt"),
+            root.walk(ResourceWalker.ofNot(ResourceWalker.ofPath(PathMatcher.ofLeaf("b"))), ResourceMatcher.ofFile())
+                .map(r -> r.getPath().getIdAsString()).collect(Collectors.toList())
+        );
+    }
+
+    @Test void testJarFile() throws IOException {
+        final ClassLoaderResourceRegistry classLoaderRegistry = new ClassLoaderResourceRegistry(ZipResourceTest.class.getClassLoader());
+        final JarFileWithPath<FSResource> location = classLoaderRegistry.getResource("org/junit/jupiter/api/Test.class").getLocations().jarFiles.get(0);
+        final ZipResourceRegistry registry = new ZipResourceRegistry(location.file);
+        final ZipResource entry = registry.getResource(location.path);
+        try(final ZipFile zipFile = new ZipFile(location.file.getJavaPath().toFile())) {
+            final ZipEntry zipEntry = zipFile.getEntry("org/junit/jupiter/api/Test.class");
+            assertEquals(zipEntry.getSize(), entry.getSize());
+            assertEquals(zipEntry.getCrc(), entry.getCrc());
+            assertArrayEquals(classLoaderRegistry.getResource("org/junit/jupiter/api/Test.class").readBytes(), entry.readBytes());
+            final long fileCount = zipFile.stream().filter(e -> !e.isDirectory()).count();
+            assertEquals(fileCount, registry.getRoot().walk(ResourceWalker.ofTrue(), ResourceMatcher.ofFile()).count());
+        }
+    }
+
+    @Test void testEncryptedEntry() throws IOException {
+        final FSResource file = createArchive(text());
+        final byte[] bytes = file.readBytes();
+        // Set the encrypted flag in the central directory entry of 'a/b/stored.txt'.
+        for(int i = 0; i + 46 <= bytes.length; ++i) {
+            if(bytes[i] == 0x50 && bytes[i + 1] == 0x4b && bytes[i + 2] == 0x01 && bytes[i + 3] == 0x02
+                && new String(bytes, i + 46, "a/b/stored.txt".length()).equals("a/b/stored.txt")) {
+                bytes[i + 8] |= 1;
+            }
+        }
+        file.writeBytes(bytes);
+        final ZipResourceRegistry registry = new ZipResourceRegistry(file);
+        final ZipResource stored = registry.getResource("a/b/stored.txt");
+        assertTrue(stored.exists());
+        final ZipException exception = assertThrows(ZipException.class, stored::openRead);
+        assertTrue(exception.getMessage().contains("encrypted"));
+        assertThrows(ZipException.class, () -> stored.readRange(0, 1));
+        assertEquals("implicit", registry.getResource("c/implicit.txt").readString());
+    }
+
+    @Test void testNameEncoding() throws IOException {
+        final FSResource file = new FSResource(fileSystem.getPath("/names.zip"));
+        try(final ZipOutputStream outputStream = new ZipOutputStream(file.openWrite(), Charset.forName("IBM437"))) {
+            outputStream.putNextEntry(new ZipEntry("\u00fcber.txt")); // Without the UTF-8 flag: encoded as IBM437.
+        }
+        assertTrue(new ZipResourceRegistry(file).getResource("\u00fcber.txt").exists());
+
+        try(final ZipOutputStream outputStream = new ZipOutputStream(file.openWrite(), StandardCharsets.UTF_8)) {
+            outputStream.putNextEntry(new ZipEntry("\u00fcber.txt")); // With the UTF-8 flag.
+        }
+        assertTrue(new ZipResourceRegistry(file).getResource("\u00fcber.txt").exists());
+    }
+
+    @Test void testCorruptArchive() throws IOException {
+        final FSResource file = new FSResource(fileSystem.getPath("/corrupt.zip"));
+        try(final OutputStream outputStream = file.openWrite()) {
+            outputStream.write("not a ZIP archive, but long enough for an end of central directory record".getBytes());
+        }
+        assertThrows(IOException.class, () -> new ZipResourceRegistry(file).getRoot().list());
+    }
+
+
+    private static List<String> leaves(Stream<ZipResource> stream) {
+        return stream.map(ZipResource::getLeaf).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,21 @@
+plugins {
+  `java`
+  `application`
+}
+
+val jmhVersion = "1.35"
+
+dependencies {
+  implementation(platform(project(":resource.depconstraints")))
+
+  implementation(project(":resource"))
+  implementation("org.openjdk.jmh:jmh-core:$jmhVersion")
+
+  annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+  compileOnly("org.checkerframework:checker-qual-android")
+}
+
+application {
+  // Run benchmarks with `./gradlew :resource.benchmark:run --args="<JMH arguments>"`.
+  mainClass.set("org.openjdk.jmh.Main")
+}
@@ -0,0 +1,124 @@
+package mb.resource.benchmark;
+
+import mb.resource.fs.FSResource;
+import mb.resource.hierarchical.match.ResourceMatcher;
+import mb.resource.hierarchical.walk.ResourceWalker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares walking a generated directory tree with {@link Files#walkFileTree} (the previous implementation of {@link
+ * FSResource#walk(ResourceWalker, ResourceMatcher)}), the lazy sequential walk, and the parallel walk with increasing
+ * parallelism.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FSResourceWalkBenchmark {
+    @Param({"4"}) public int depth;
+    @Param({"8"}) public int directoriesPerDirectory;
+    @Param({"16"}) public int filesPerDirectory;
+
+    private final ResourceWalker walker = ResourceWalker.ofNoHidden();
+    private final ResourceMatcher matcher = ResourceMatcher.ofFileExtension("txt");
+
+    private FSResource root;
+
+
+    @Setup(Level.Trial) public void setup() throws IOException {
+        root = FSResource.createTemporaryDirectory("walk-benchmark");
+        createTree(root, depth);
+    }
+
+    private void createTree(FSResource directory, int remainingDepth) throws IOException {
+        for(int i = 0; i < filesPerDirectory; ++i) {
+            directory.appendSegment("file" + i + (i % 2 == 0 ? ".txt" : ".java")).createFile();
+        }
+        if(remainingDepth == 0) return;
+        for(int i = 0; i < directoriesPerDirectory; ++i) {
+            createTree(directory.appendSegment("dir" + i).createDirectory(), remainingDepth - 1);
+        }
+    }
+
+    @TearDown(Level.Trial) public void tearDown() throws IOException {
+        root.delete(true);
+    }
+
+
+    @State(Scope.Benchmark)
+    public static class PoolState {
+        @Param({"1", "2", "4", "8"}) public int parallelism;
+
+        private ForkJoinPool pool;
+
+        @Setup(Level.Trial) public void setup() {
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown(Level.Trial) public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+
+    @Benchmark public int walkFileTree() throws IOException {
+        final ArrayList<FSResource> resources = new ArrayList<>();
+        Files.walkFileTree(root.getJavaPath(), new SimpleFileVisitor<Path>() {
+            @Override public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                final FSResource resource = new FSResource(dir);
+                if(matcher.matches(resource, root)) resources.add(resource);
+                return walker.traverse(resource, root) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                final FSResource resource = new FSResource(file);
+                if(matcher.matches(resource, root)) resources.add(resource);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return resources.size();
+    }
+
+    @Benchmark public long walk() throws IOException {
+        try(final Stream<FSResource> stream = root.walk(walker, matcher)) {
+            return stream.count();
+        }
+    }
+
+    @Benchmark public long walkParallelUnordered(PoolState poolState) throws IOException {
+        try(final Stream<FSResource> stream = root.walkParallel(walker, matcher, false, poolState.pool)) {
+            return stream.count();
+        }
+    }
+
+    @Benchmark public long walkParallelOrdered(PoolState poolState) throws IOException {
+        try(final Stream<FSResource> stream = root.walkParallel(walker, matcher, true, poolState.pool)) {
+            return stream.count();
+        }
+    }
+}
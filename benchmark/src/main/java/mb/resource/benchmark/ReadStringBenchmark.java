@@ -0,0 +1,94 @@
+package mb.resource.benchmark;
+
+import mb.resource.ReadableResource;
+import mb.resource.fs.FSResource;
+import mb.resource.url.URLResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a file as a string with the previous default implementation of {@link
+ * ReadableResource#readString(java.nio.charset.Charset)} (copying through a 4 KiB buffer into a growing {@link
+ * ByteArrayOutputStream} and then decoding), the current default and {@link FSResource} implementations, and reading
+ * the file as a character sequence. The default implementations are measured through a {@link URLResource} with a
+ * {@code file:} URL. Run with {@code -prof gc} to compare the amount of allocated memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReadStringBenchmark {
+    @Param({"1024", "1048576", "16777216"}) public int size;
+    @Param({"true", "false"}) public boolean ascii;
+
+    private FSResource directory;
+    private FSResource fsResource;
+    private URLResource urlResource;
+
+
+    @Setup(Level.Trial) public void setup() throws IOException {
+        directory = FSResource.createTemporaryDirectory("read-string-benchmark");
+        fsResource = directory.appendSegment("file.txt");
+        final String line = ascii ? "The quick brown fox jumps over the lazy dog\n" : "Der schnelle braune Fuchs springt \u00fcber den faulen Hund \u20ac\n";
+        final StringBuilder builder = new StringBuilder(size);
+        while(builder.length() < size) {
+            builder.append(line);
+        }
+        fsResource.writeString(builder.toString(), StandardCharsets.UTF_8);
+        urlResource = new URLResource(fsResource.getJavaPath().toUri().toURL());
+    }
+
+    @TearDown(Level.Trial) public void tearDown() throws IOException {
+        directory.delete(true);
+    }
+
+
+    @Benchmark public String defaultReadStringPrevious() throws IOException {
+        try(final InputStream inputStream = urlResource.openRead()) {
+            final byte[] buffer = new byte[4096];
+            try(final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(buffer.length)) {
+                int bytesRead;
+                while((bytesRead = inputStream.read(buffer, 0, buffer.length)) != -1) {
+                    outputStream.write(buffer, 0, bytesRead);
+                }
+                outputStream.flush();
+                return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    @Benchmark public String defaultReadString() throws IOException {
+        return urlResource.readString(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark public CharSequence defaultReadCharSequence() throws IOException {
+        return urlResource.readCharSequence(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark public String fsReadString() throws IOException {
+        return fsResource.readString(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark public CharSequence fsReadCharSequence() throws IOException {
+        return fsResource.readCharSequence(StandardCharsets.UTF_8);
+    }
+}
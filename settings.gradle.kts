@@ -19,3 +19,4 @@ includeProject("depconstraints")
 include("resource")
 project(":resource").projectDir = file("api") // TODO: consider renaming "resource" to "resource.api"
 includeProject("dagger")
+includeProject("benchmark")